@@ -0,0 +1,117 @@
+package guru.nicks.commons.redis.benchmark;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Representative cached values. Deterministic, so that payload sizes are comparable between runs. Mutable collections
+ * only - JSON type information of immutable JDK collections can't be deserialized.
+ */
+public final class BenchmarkPayloads {
+
+    public static final Map<String, Class<?>> TYPE_ALIASES = Map.of(
+            "customer", Customer.class,
+            "time", TimeValues.class,
+            "order", Order.class,
+            "product", ProductLine.class,
+            "discount", DiscountLine.class);
+
+    private static final Instant CREATED_AT = Instant.parse("2025-01-02T03:04:05.123456789Z");
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * Creates payload.
+     *
+     * @param type payload type
+     * @return payload
+     */
+    public static Object create(PayloadType type) {
+        return switch (type) {
+            case RECORD -> createCustomer(1);
+            case COLLECTION -> createCustomers(100);
+            case JAVA_TIME -> new TimeValues(CREATED_AT,
+                    LocalDate.of(2025, 1, 2),
+                    LocalDateTime.of(2025, 1, 2, 3, 4, 5),
+                    OffsetDateTime.of(2025, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC),
+                    Duration.ofMinutes(90));
+            case POLYMORPHIC_GRAPH -> createOrder();
+        };
+    }
+
+    private static Customer createCustomer(int index) {
+        return new Customer(new UUID(0, index), "Customer " + index, "customer" + index + "@example.com",
+                index * 10, new BigDecimal("1234.56").add(BigDecimal.valueOf(index)), (index % 2) == 0);
+    }
+
+    private static ArrayList<Customer> createCustomers(int count) {
+        var customers = new ArrayList<Customer>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(createCustomer(i));
+        }
+
+        return customers;
+    }
+
+    private static Order createOrder() {
+        var lines = new ArrayList<OrderLine>();
+        for (int i = 0; i < 20; i++) {
+            lines.add(new ProductLine("SKU-" + i, i + 1, new BigDecimal("9.99").add(BigDecimal.valueOf(i))));
+        }
+        lines.add(new DiscountLine("WELCOME", new BigDecimal("5.00")));
+
+        var attributes = new LinkedHashMap<String, Object>();
+        attributes.put("channel", "web");
+        attributes.put("giftWrap", Boolean.TRUE);
+        attributes.put("loyaltyPoints", 1500L);
+        attributes.put("deliverBy", LocalDate.of(2025, 1, 9));
+
+        return new Order(new UUID(1, 1), createCustomer(1), lines, attributes, CREATED_AT);
+    }
+
+    public enum PayloadType {
+
+        RECORD,
+        COLLECTION,
+        JAVA_TIME,
+        POLYMORPHIC_GRAPH
+
+    }
+
+    public record Customer(UUID id, String name, String email, int loyaltyPoints, BigDecimal balance,
+            boolean active) implements Serializable {
+    }
+
+    public record TimeValues(Instant instant, LocalDate localDate, LocalDateTime localDateTime,
+            OffsetDateTime offsetDateTime, Duration duration) implements Serializable {
+    }
+
+    public record Order(UUID id, Customer customer, List<OrderLine> lines, Map<String, Object> attributes,
+            Instant createdAt) implements Serializable {
+    }
+
+    /**
+     * Polymorphic - its implementation class is stored in serialized values.
+     */
+    public interface OrderLine extends Serializable {
+    }
+
+    public record ProductLine(String sku, int quantity, BigDecimal price) implements OrderLine {
+    }
+
+    public record DiscountLine(String code, BigDecimal percent) implements OrderLine {
+    }
+
+}
@@ -0,0 +1,130 @@
+package guru.nicks.commons.redis.benchmark;
+
+import guru.nicks.commons.redis.config.CommonsRedisAutoConfiguration;
+import guru.nicks.commons.redis.domain.RedisCompressionCodec;
+import guru.nicks.commons.redis.domain.RedisSerializationFormat;
+import guru.nicks.commons.redis.domain.RedisSerializerProperties;
+import guru.nicks.commons.serializer.NativeJavaSerializer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@code redisSerializer} bean in all the formats, with and without compression. Allocation rate is
+ * reported by the GC profiler ({@code -prof gc}, enabled in the 'jmh' Maven profile), payload size is printed during
+ * setup of each benchmark.
+ * <p>
+ * Compression applies to payloads of any size (see {@link #COMPRESSION_THRESHOLD}), otherwise the small ones would
+ * never be compressed and would be benchmarked without compression under the compression parameters.
+ * <p>
+ * New serialization formats and codecs are benchmarked once added to the parameter lists below.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisSerializerBenchmark {
+
+    /**
+     * Instead of {@link RedisSerializerProperties.Compression#DEFAULT_THRESHOLD}, which most payloads here are smaller
+     * than.
+     */
+    private static final int COMPRESSION_THRESHOLD = 1;
+
+    /**
+     * {@link RedisSerializationFormat} name.
+     */
+    @Param({"JSON", "SMILE", "NATIVE"})
+    public String format;
+
+    /**
+     * {@link RedisCompressionCodec} name or {@code NONE}.
+     */
+    @Param({"NONE", "LZ4", "DEFLATE"})
+    public String compression;
+
+    /**
+     * Whether payload classes are stored under type aliases instead of their names.
+     */
+    @Param({"false", "true"})
+    public boolean typeAliases;
+
+    /**
+     * {@link BenchmarkPayloads.PayloadType} name.
+     */
+    @Param({"RECORD", "COLLECTION", "JAVA_TIME", "POLYMORPHIC_GRAPH"})
+    public String payload;
+
+    private RedisSerializer<Object> serializer;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = createSerializer();
+        value = BenchmarkPayloads.create(BenchmarkPayloads.PayloadType.valueOf(payload));
+        bytes = serializer.serialize(value);
+
+        Object deserializedValue = serializer.deserialize(bytes);
+        if (!Objects.equals(value, deserializedValue)) {
+            throw new IllegalStateException("Value changed after serialization: " + deserializedValue);
+        }
+
+        System.out.printf("%nPayload size: %d bytes%n", bytes.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    private RedisSerializer<Object> createSerializer() {
+        var beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", new SimpleMeterRegistry());
+
+        RedisSerializationFormat serializationFormat = RedisSerializationFormat.valueOf(format);
+        if (serializationFormat == RedisSerializationFormat.NATIVE) {
+            beanFactory.addBean("nativeJavaSerializer", new NativeJavaSerializer());
+        }
+
+        var properties = RedisSerializerProperties.builder()
+                .format(serializationFormat)
+                .typeAliases(typeAliases ? BenchmarkPayloads.TYPE_ALIASES : null)
+                .compression("NONE".equals(compression)
+                        ? null
+                        : RedisSerializerProperties.Compression.builder()
+                                .enabled(true)
+                                .codec(RedisCompressionCodec.valueOf(compression))
+                                .threshold(COMPRESSION_THRESHOLD)
+                                .build())
+                .build();
+
+        return new CommonsRedisAutoConfiguration().redisSerializer(properties,
+                beanFactory.getBeanProvider(NativeJavaSerializer.class),
+                beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+}
@@ -13,13 +13,18 @@ import org.springframework.data.redis.core.TimeToLive;
 /**
  * Access token (presumably a JWT) that has been blocked.
  */
-@RedisHash("blocked-access-token")
+@RedisHash(BlockedTokenHash.KEYSPACE)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder(toBuilder = true)
 public class BlockedTokenHash {
 
+    /**
+     * Each hash is stored under {@code KEYSPACE:tokenChecksum}, and {@code KEYSPACE} itself is a set of all IDs.
+     */
+    public static final String KEYSPACE = "blocked-access-token";
+
     @Id
     private String tokenChecksum;
 
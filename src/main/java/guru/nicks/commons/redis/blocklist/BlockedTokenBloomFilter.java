@@ -0,0 +1,307 @@
+package guru.nicks.commons.redis.blocklist;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RAtomicLongAsync;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBitSetAsync;
+import org.redisson.api.RedissonClient;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bloom filter of blocked token checksums. The filter lives in Redis (as a bitmap) and each node keeps a local copy of
+ * it, so {@link #mightContain(String)} never goes to Redis synchronously.
+ * <p>
+ * Rotation: time is split into generations of {@code rotationPeriod} length, each generation has its own bitmap which
+ * expires when the generation ends. A checksum is added to all the generations the token lifetime spans, so only the
+ * current generation needs to be checked.
+ * <p>
+ * Refresh: the local copy is refreshed asynchronously on access, at most once per {@code refreshInterval}. Each
+ * generation has a version counter incremented on every addition, and the bitmap is downloaded only if the version has
+ * changed. Until the local copy of the current generation is loaded, {@link #mightContain(String)} returns
+ * {@code true}, which means 'ask Redis'.
+ */
+@Slf4j
+public class BlockedTokenBloomFilter {
+
+    /**
+     * Redis bitmaps are limited to 512 MB.
+     */
+    public static final long MAX_BIT_COUNT = 1L << 32;
+
+    /**
+     * Tokens living longer than this number of rotation periods are not added to later generations.
+     */
+    public static final int MAX_GENERATIONS_PER_TOKEN = 24;
+
+    private final RedissonClient redissonClient;
+    private final String keyPrefix;
+    private final long rotationPeriodMillis;
+    private final long refreshIntervalMillis;
+    private final Clock clock;
+
+    @Getter
+    private final long bitCount;
+
+    @Getter
+    private final int hashCount;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Constructor.
+     *
+     * @param redissonClient     Redisson client
+     * @param keyPrefix          Redis key prefix
+     * @param expectedInsertions expected number of checksums added per generation
+     * @param falsePositiveRate  desired false positive rate
+     * @param rotationPeriod     generation length
+     * @param refreshInterval    minimum interval between local copy refreshes
+     * @throws IllegalArgumentException the filter is too large for a Redis bitmap
+     */
+    public BlockedTokenBloomFilter(RedissonClient redissonClient, String keyPrefix, long expectedInsertions,
+            double falsePositiveRate, Duration rotationPeriod, Duration refreshInterval) {
+        this(redissonClient, keyPrefix, expectedInsertions, falsePositiveRate, rotationPeriod, refreshInterval,
+                Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param redissonClient     Redisson client
+     * @param keyPrefix          Redis key prefix
+     * @param expectedInsertions expected number of checksums added per generation
+     * @param falsePositiveRate  desired false positive rate
+     * @param rotationPeriod     generation length
+     * @param refreshInterval    minimum interval between local copy refreshes
+     * @param clock              defines generations and refresh moments
+     * @throws IllegalArgumentException the filter is too large for a Redis bitmap
+     */
+    public BlockedTokenBloomFilter(RedissonClient redissonClient, String keyPrefix, long expectedInsertions,
+            double falsePositiveRate, Duration rotationPeriod, Duration refreshInterval, Clock clock) {
+        this.redissonClient = redissonClient;
+        this.keyPrefix = keyPrefix;
+        rotationPeriodMillis = rotationPeriod.toMillis();
+        refreshIntervalMillis = refreshInterval.toMillis();
+        this.clock = clock;
+
+        bitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (bitCount > MAX_BIT_COUNT) {
+            throw new IllegalArgumentException("Bloom filter of " + bitCount + " bits exceeds Redis bitmap limit");
+        }
+
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        log.info("Blocked token Bloom filter: {} bits ({} KB), {} hash functions per checksum",
+                bitCount, bitCount / 8 / 1024, hashCount);
+    }
+
+    /**
+     * Adds checksum to all the generations from the current one to the one in which the token expires, in a single
+     * Redis round trip.
+     *
+     * @param checksum  token checksum
+     * @param expiresAt token expiration date
+     */
+    public void add(String checksum, Instant expiresAt) {
+        createAddBatch(checksum, expiresAt).execute();
+    }
+
+    /**
+     * Non-blocking version of {@link #add(String, Instant)}.
+     *
+     * @param checksum  token checksum
+     * @param expiresAt token expiration date
+     * @return future completed when the checksum has been added
+     */
+    public CompletableFuture<Void> addAsync(String checksum, Instant expiresAt) {
+        return createAddBatch(checksum, expiresAt)
+                .executeAsync()
+                .toCompletableFuture()
+                .thenAccept(result -> {
+                });
+    }
+
+    private RBatch createAddBatch(String checksum, Instant expiresAt) {
+        long[] indexes = calculateIndexes(checksum);
+        long now = clock.millis();
+        long firstGeneration = getGeneration(now);
+        long lastGeneration = Math.max(firstGeneration, getGeneration(expiresAt.toEpochMilli()));
+
+        if (lastGeneration - firstGeneration >= MAX_GENERATIONS_PER_TOKEN) {
+            log.warn("Token lifetime exceeds {} Bloom filter rotation periods, consider a longer period",
+                    MAX_GENERATIONS_PER_TOKEN);
+            lastGeneration = firstGeneration + MAX_GENERATIONS_PER_TOKEN - 1;
+        }
+
+        RBatch batch = redissonClient.createBatch();
+
+        for (long generation = firstGeneration; generation <= lastGeneration; generation++) {
+            // keep the key a bit longer than its generation lasts in order to let lagging nodes read it
+            Duration ttl = Duration.ofMillis((generation + 1) * rotationPeriodMillis - now + refreshIntervalMillis);
+
+            RBitSetAsync bitSet = batch.getBitSet(getBitSetKey(generation));
+            for (long index : indexes) {
+                bitSet.setAsync(index);
+            }
+            bitSet.expireAsync(ttl);
+
+            RAtomicLongAsync version = batch.getAtomicLong(getVersionKey(generation));
+            version.incrementAndGetAsync();
+            version.expireAsync(ttl);
+        }
+
+        return batch;
+    }
+
+    /**
+     * Checks the local copy of the current generation. Triggers an asynchronous refresh of the local copy if needed.
+     *
+     * @param checksum token checksum
+     * @return {@code false} if the checksum has definitely not been added (as of the last refresh), {@code true} if it
+     *         might have been added or if the local copy hasn't been loaded yet
+     */
+    public boolean mightContain(String checksum) {
+        long now = clock.millis();
+        long generation = getGeneration(now);
+        Snapshot currentSnapshot = snapshot;
+
+        if ((currentSnapshot == null) || (currentSnapshot.generation() != generation)) {
+            refreshAsync(generation);
+            return true;
+        }
+
+        if (now - currentSnapshot.loadedAt() >= refreshIntervalMillis) {
+            refreshAsync(generation);
+        }
+
+        for (long index : calculateIndexes(checksum)) {
+            if (!currentSnapshot.isSet(index)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reloads the local copy unless another refresh is in progress. Downloads the bitmap only if its version has
+     * changed.
+     *
+     * @param generation generation to load
+     */
+    private void refreshAsync(long generation) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        Snapshot previousSnapshot = snapshot;
+
+        redissonClient.getAtomicLong(getVersionKey(generation)).getAsync()
+                .<Snapshot>thenCompose(version -> {
+                    if ((previousSnapshot != null)
+                            && (previousSnapshot.generation() == generation)
+                            && (previousSnapshot.version() == version)) {
+                        return CompletableFuture.completedFuture(
+                                previousSnapshot.withLoadedAt(clock.millis()));
+                    }
+
+                    CompletionStage<byte[]> bits = redissonClient.getBitSet(getBitSetKey(generation))
+                            .toByteArrayAsync();
+                    return bits.thenApply(bytes -> new Snapshot(generation, version,
+                            (bytes == null) ? new byte[0] : bytes, clock.millis()));
+                })
+                .whenComplete((loadedSnapshot, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to refresh blocked token Bloom filter: {}", e.getMessage());
+                    } else {
+                        snapshot = loadedSnapshot;
+                    }
+
+                    refreshing.set(false);
+                });
+    }
+
+    private long getGeneration(long epochMillis) {
+        return epochMillis / rotationPeriodMillis;
+    }
+
+    private String getBitSetKey(long generation) {
+        return keyPrefix + ":" + generation;
+    }
+
+    private String getVersionKey(long generation) {
+        return keyPrefix + ":" + generation + ":version";
+    }
+
+    /**
+     * Uses double hashing (Kirsch-Mitzenmacher): {@code index[i] = hash1 + i * hash2}.
+     *
+     * @param checksum token checksum
+     * @return bit indexes
+     */
+    private long[] calculateIndexes(String checksum) {
+        long hash1 = fnv1a64(checksum);
+        // odd, therefore never 0
+        long hash2 = mix64(hash1) | 1;
+
+        long[] indexes = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            indexes[i] = Math.floorMod(hash1 + i * hash2, bitCount);
+        }
+
+        return indexes;
+    }
+
+    private static long fnv1a64(String str) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < str.length(); i++) {
+            hash ^= str.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        return hash;
+    }
+
+    /**
+     * MurmurHash3 finalizer.
+     */
+    private static long mix64(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Local copy of a generation bitmap.
+     *
+     * @param generation generation
+     * @param version    generation version as of loading
+     * @param bits       raw Redis bitmap (bit 0 is the most significant bit of the first byte)
+     * @param loadedAt   when the snapshot was loaded (or confirmed to be up-to-date), epoch millis
+     */
+    private record Snapshot(long generation, long version, byte[] bits, long loadedAt) {
+
+        boolean isSet(long index) {
+            long byteIndex = index >>> 3;
+            if (byteIndex >= bits.length) {
+                return false;
+            }
+
+            return (bits[(int) byteIndex] & (0x80 >>> (index & 7))) != 0;
+        }
+
+        Snapshot withLoadedAt(long newLoadedAt) {
+            return new Snapshot(generation, version, bits, newLoadedAt);
+        }
+
+    }
+
+}
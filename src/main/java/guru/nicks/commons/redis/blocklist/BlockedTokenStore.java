@@ -0,0 +1,108 @@
+package guru.nicks.commons.redis.blocklist;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Stores checksums of blocked tokens.
+ */
+public interface BlockedTokenStore {
+
+    /**
+     * Stores token checksum.
+     *
+     * @param checksum token checksum
+     * @param ttl      how long to keep the checksum (should be longer than the token lifetime)
+     */
+    void block(String checksum, Duration ttl);
+
+    /**
+     * Non-blocking version of {@link #block(String, Duration)}. The default implementation calls it in
+     * {@link CompletableFuture#runAsync(Runnable) ForkJoinPool.commonPool()}.
+     *
+     * @param checksum token checksum
+     * @param ttl      how long to keep the checksum
+     * @return future completed when the checksum has been stored
+     */
+    default CompletableFuture<Void> blockAsync(String checksum, Duration ttl) {
+        return CompletableFuture.runAsync(() -> block(checksum, ttl));
+    }
+
+    /**
+     * Checks if token checksum is stored.
+     *
+     * @param checksum token checksum
+     * @return {@code true} if the token has been blocked
+     */
+    boolean isBlocked(String checksum);
+
+    /**
+     * Non-blocking version of {@link #isBlocked(String)}. The default implementation calls it in
+     * {@link CompletableFuture#supplyAsync ForkJoinPool.commonPool()}.
+     *
+     * @param checksum token checksum
+     * @return future completed with {@code true} if the token has been blocked
+     */
+    default CompletableFuture<Boolean> isBlockedAsync(String checksum) {
+        return CompletableFuture.supplyAsync(() -> isBlocked(checksum));
+    }
+
+    /**
+     * Bulk version of {@link #isBlocked(String)}. The default implementation calls {@link #isBlocked(String)} for each
+     * checksum, implementations are encouraged to resolve all checksums in a single Redis round trip.
+     *
+     * @param checksums token checksums
+     * @return for each checksum, whether the token has been blocked
+     */
+    default Map<String, Boolean> areBlocked(Collection<String> checksums) {
+        Map<String, Boolean> result = new HashMap<>();
+
+        for (String checksum : checksums) {
+            result.put(checksum, isBlocked(checksum));
+        }
+
+        return result;
+    }
+
+    /**
+     * Sends one {@code EXISTS} per checksum, all of them in a single pipelined round trip.
+     *
+     * @param redissonClient Redisson client
+     * @param checksums      token checksums
+     * @param keysMapper     converts checksum to the keys any of which means the token has been blocked
+     * @return for each checksum, whether any of its keys exists
+     */
+    static Map<String, Boolean> areAnyKeysPresent(RedissonClient redissonClient, Collection<String> checksums,
+            Function<String, String[]> keysMapper) {
+        if (checksums.isEmpty()) {
+            return Map.of();
+        }
+
+        List<String> orderedChecksums = new ArrayList<>(checksums);
+        RBatch batch = redissonClient.createBatch();
+
+        for (String checksum : orderedChecksums) {
+            batch.getKeys().countExistsAsync(keysMapper.apply(checksum));
+        }
+
+        // responses come in the order of commands
+        List<?> responses = batch.execute().getResponses();
+        Map<String, Boolean> result = new HashMap<>();
+
+        for (int i = 0; i < orderedChecksums.size(); i++) {
+            result.put(orderedChecksums.get(i), ((Number) responses.get(i)).longValue() > 0);
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,33 @@
+package guru.nicks.commons.redis.blocklist;
+
+import guru.nicks.commons.utils.auth.AuthUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Key is {@link AuthUtils#calculateAccessTokenChecksum(String)} of the serialized token. Hashing a token (often over 1
+ * KB) is relatively expensive, therefore the checksum is memoized per {@link Jwt} instance: the same instance is
+ * typically checked several times while a request is being processed.
+ * <p>
+ * The memo holds instances weakly (and compares them by identity), so it doesn't extend their lifetime.
+ */
+public class ChecksumJwtKeyDerivationStrategy implements JwtKeyDerivationStrategy {
+
+    /**
+     * Upper bound in case tokens are retained elsewhere for long.
+     */
+    public static final int MEMO_MAXIMUM_SIZE = 10_000;
+
+    private final Cache<Jwt, String> checksums = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(MEMO_MAXIMUM_SIZE)
+            .build();
+
+    @Override
+    public String deriveKey(Jwt jwt) {
+        return checksums.get(jwt, key -> AuthUtils.calculateAccessTokenChecksum(key.getTokenValue()));
+    }
+
+}
@@ -0,0 +1,37 @@
+package guru.nicks.commons.redis.blocklist;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+
+/**
+ * Key is {@value #KEY_PREFIX}{@code <issuer>#<jti>} - no hashing at all. The prefix keeps such keys apart from
+ * checksums. Relies on the issuer to assign unique {@code jti} claims and on the token signature having been verified
+ * before the blocklist is checked, otherwise a forged token could reuse someone else's {@code jti}.
+ * <p>
+ * Tokens without the {@code jti} claim are keyed by the fallback strategy (the same for blocking and checking, because
+ * the claim set is the same).
+ */
+@RequiredArgsConstructor
+public class JtiJwtKeyDerivationStrategy implements JwtKeyDerivationStrategy {
+
+    public static final String KEY_PREFIX = "jti:";
+
+    @NonNull // Lombok creates runtime nullness check for this own annotation only
+    private final JwtKeyDerivationStrategy fallbackStrategy;
+
+    @Override
+    public String deriveKey(Jwt jwt) {
+        String jti = jwt.getId();
+        if (StringUtils.isBlank(jti)) {
+            return fallbackStrategy.deriveKey(jwt);
+        }
+
+        // Jwt#getIssuer() parses the claim as URL, which is not needed here
+        String issuer = StringUtils.defaultString(jwt.getClaimAsString(JwtClaimNames.ISS));
+        return KEY_PREFIX + issuer + "#" + jti;
+    }
+
+}
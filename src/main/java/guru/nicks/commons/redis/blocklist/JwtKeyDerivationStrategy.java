@@ -0,0 +1,23 @@
+package guru.nicks.commons.redis.blocklist;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * Derives the key under which a token is blocked (and looked up) in {@link BlockedTokenStore} and
+ * {@link BlockedTokenBloomFilter}. Called on every authenticated request, so implementations must be cheap.
+ * <p>
+ * WARNING: switching strategies on a live cluster makes the tokens blocked under the previous strategy look unblocked,
+ * so do that when such tokens have expired.
+ */
+@FunctionalInterface
+public interface JwtKeyDerivationStrategy {
+
+    /**
+     * Derives key for the token.
+     *
+     * @param jwt token
+     * @return key, must be the same for the same token across all nodes
+     */
+    String deriveKey(Jwt jwt);
+
+}
@@ -0,0 +1,117 @@
+package guru.nicks.commons.redis.blocklist;
+
+import guru.nicks.commons.auth.domain.BlockedTokenHash;
+
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stores each checksum as a single string key written with {@code SET NX PX} (one atomic round trip) and checked with
+ * {@code EXISTS}. There's no index set, so nothing grows without bound.
+ * <p>
+ * Migration from {@link RepositoryBlockedTokenStore}: if {@code legacyFallback} is {@code true}, lookups also check
+ * the legacy hash key ({@code blocked-access-token:checksum}) within the same {@code EXISTS} command, so tokens blocked
+ * before the migration remain blocked until they expire. After that, the fallback can be turned off and the legacy
+ * index set can be deleted with {@link #deleteLegacyIndex()}.
+ *
+ * @see MigratingBlockedTokenStore
+ */
+@Slf4j
+public class KeyBlockedTokenStore implements BlockedTokenStore {
+
+    /**
+     * The value is irrelevant, only the key existence matters.
+     */
+    private static final String VALUE = "1";
+
+    private final RedissonClient redissonClient;
+    private final String keyPrefix;
+    private final boolean legacyFallback;
+
+    /**
+     * Constructor.
+     *
+     * @param redissonClient Redisson client
+     * @param keyPrefix      key prefix, must differ from {@link BlockedTokenHash#KEYSPACE} - nodes still using
+     *                       {@link RepositoryBlockedTokenStore} would fail to read string keys as hashes
+     * @param legacyFallback whether to check legacy hash keys too
+     */
+    public KeyBlockedTokenStore(RedissonClient redissonClient, String keyPrefix, boolean legacyFallback) {
+        if (BlockedTokenHash.KEYSPACE.equals(keyPrefix)) {
+            throw new IllegalArgumentException("Key prefix must differ from legacy keyspace");
+        }
+
+        this.redissonClient = redissonClient;
+        this.keyPrefix = keyPrefix;
+        this.legacyFallback = legacyFallback;
+    }
+
+    @Override
+    public void block(String checksum, Duration ttl) {
+        // if the key already exists, the token has already been blocked, and its TTL is the same
+        redissonClient.getBucket(getKey(checksum), StringCodec.INSTANCE).setIfAbsent(VALUE, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> blockAsync(String checksum, Duration ttl) {
+        return redissonClient.getBucket(getKey(checksum), StringCodec.INSTANCE)
+                .setIfAbsentAsync(VALUE, ttl)
+                .toCompletableFuture()
+                .thenAccept(isSet -> {
+                });
+    }
+
+    @Override
+    public boolean isBlocked(String checksum) {
+        return redissonClient.getKeys().countExists(getKeys(checksum)) > 0;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isBlockedAsync(String checksum) {
+        return redissonClient.getKeys()
+                .countExistsAsync(getKeys(checksum))
+                .toCompletableFuture()
+                .thenApply(count -> count > 0);
+    }
+
+    /**
+     * Sends one {@code EXISTS} per checksum, all of them in a single pipelined round trip.
+     */
+    @Override
+    public Map<String, Boolean> areBlocked(Collection<String> checksums) {
+        return BlockedTokenStore.areAnyKeysPresent(redissonClient, checksums, this::getKeys);
+    }
+
+    /**
+     * Deletes the legacy index set (non-blocking for Redis). The legacy hashes and their phantom keys expire on their
+     * own.
+     */
+    public void deleteLegacyIndex() {
+        long deleted = redissonClient.getKeys().unlink(BlockedTokenHash.KEYSPACE);
+
+        if (deleted > 0) {
+            log.info("Deleted legacy blocked token index '{}'", BlockedTokenHash.KEYSPACE);
+        }
+    }
+
+    private String[] getKeys(String checksum) {
+        return legacyFallback
+                ? new String[]{getKey(checksum), getLegacyKey(checksum)}
+                : new String[]{getKey(checksum)};
+    }
+
+    protected String getKey(String checksum) {
+        return keyPrefix + ":" + checksum;
+    }
+
+    protected String getLegacyKey(String checksum) {
+        return BlockedTokenHash.KEYSPACE + ":" + checksum;
+    }
+
+}
@@ -0,0 +1,49 @@
+package guru.nicks.commons.redis.blocklist;
+
+import lombok.RequiredArgsConstructor;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Writes to both stores, reads from the target one only. Meant for rolling migrations: nodes still reading the legacy
+ * store see tokens blocked by migrated nodes, and the target store is supposed to check the legacy keys itself (see
+ * {@link KeyBlockedTokenStore}).
+ */
+@RequiredArgsConstructor
+public class MigratingBlockedTokenStore implements BlockedTokenStore {
+
+    // DI
+    private final BlockedTokenStore targetStore;
+    private final BlockedTokenStore legacyStore;
+
+    @Override
+    public void block(String checksum, Duration ttl) {
+        legacyStore.block(checksum, ttl);
+        targetStore.block(checksum, ttl);
+    }
+
+    @Override
+    public CompletableFuture<Void> blockAsync(String checksum, Duration ttl) {
+        return legacyStore.blockAsync(checksum, ttl)
+                .thenCompose(unused -> targetStore.blockAsync(checksum, ttl));
+    }
+
+    @Override
+    public boolean isBlocked(String checksum) {
+        return targetStore.isBlocked(checksum);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isBlockedAsync(String checksum) {
+        return targetStore.isBlockedAsync(checksum);
+    }
+
+    @Override
+    public Map<String, Boolean> areBlocked(Collection<String> checksums) {
+        return targetStore.areBlocked(checksums);
+    }
+
+}
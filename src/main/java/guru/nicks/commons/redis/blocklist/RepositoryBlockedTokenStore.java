@@ -0,0 +1,105 @@
+package guru.nicks.commons.redis.blocklist;
+
+import guru.nicks.commons.auth.domain.BlockedTokenHash;
+import guru.nicks.commons.redis.repository.BlockedTokenRepository;
+
+import lombok.NonNull;
+import org.redisson.api.RedissonClient;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Stores {@link BlockedTokenHash} via Spring Data repository. Each write costs several Redis commands (hash, index set,
+ * expiration), and the index set grows unless keyspace events are listened to.
+ * <p>
+ * If a Redisson client is passed, lookups bypass the repository: bulk lookups check the hash keys
+ * ({@code blocked-access-token:checksum}) in a single pipelined round trip, and asynchronous ones use Redisson's async
+ * API. Asynchronous writes always go through the repository (see {@link BlockedTokenStore#blockAsync}), use
+ * {@link KeyBlockedTokenStore} for single-round-trip writes.
+ *
+ * @see KeyBlockedTokenStore
+ */
+public class RepositoryBlockedTokenStore implements BlockedTokenStore {
+
+    private final BlockedTokenRepository blockedTokenRepository;
+
+    @Nullable
+    private final RedissonClient redissonClient;
+
+    /**
+     * Constructor. Bulk lookups call the repository for each checksum.
+     *
+     * @param blockedTokenRepository repository
+     */
+    public RepositoryBlockedTokenStore(BlockedTokenRepository blockedTokenRepository) {
+        this(blockedTokenRepository, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param blockedTokenRepository repository
+     * @param redissonClient         resolves bulk and asynchronous lookups, {@code null} means the repository is
+     *                               called
+     */
+    public RepositoryBlockedTokenStore(
+            @NonNull // Lombok creates runtime nullness check for this own annotation only
+            BlockedTokenRepository blockedTokenRepository,
+            @Nullable RedissonClient redissonClient) {
+        this.blockedTokenRepository = blockedTokenRepository;
+        this.redissonClient = redissonClient;
+    }
+
+    @Override
+    public void block(String checksum, Duration ttl) {
+        BlockedTokenHash blockedTokenHash = BlockedTokenHash.builder()
+                .tokenChecksum(checksum)
+                .timeToLiveSec(ttl.toSeconds())
+                .build();
+        blockedTokenRepository.save(blockedTokenHash);
+    }
+
+    @Override
+    public boolean isBlocked(String checksum) {
+        return blockedTokenRepository.existsById(checksum);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> isBlockedAsync(String checksum) {
+        if (redissonClient == null) {
+            return BlockedTokenStore.super.isBlockedAsync(checksum);
+        }
+
+        return redissonClient.getKeys()
+                .countExistsAsync(getKey(checksum))
+                .toCompletableFuture()
+                .thenApply(count -> count > 0);
+    }
+
+    /**
+     * Sends one {@code EXISTS} per checksum, all of them in a single pipelined round trip (if there's a Redisson
+     * client).
+     */
+    @Override
+    public Map<String, Boolean> areBlocked(Collection<String> checksums) {
+        if (redissonClient == null) {
+            return BlockedTokenStore.super.areBlocked(checksums);
+        }
+
+        return BlockedTokenStore.areAnyKeysPresent(redissonClient, checksums,
+                checksum -> new String[]{getKey(checksum)});
+    }
+
+    /**
+     * @param checksum token checksum
+     * @return key of the hash written by the repository
+     */
+    protected String getKey(String checksum) {
+        return BlockedTokenHash.KEYSPACE + ":" + checksum;
+    }
+
+}
@@ -0,0 +1,350 @@
+package guru.nicks.commons.redis.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Multi-key cache lookups: instead of one Redis round trip per key, all the hits are fetched with a single
+ * {@code MGET}, the loader is called once for all the misses, and the loaded values are written back in a single
+ * pipeline (with the TTL of the cache configuration). Usage:
+ * <pre>
+ *  &#64;Qualifier("cacheManagerName")
+ *  private final CacheManager cacheManager;
+ *  private final BulkCacheOperations bulkCacheOperations;
+ *  ...
+ *  Map&lt;Long, Product&gt; products = bulkCacheOperations.getAll(cacheManager.getCache("products"), productIds,
+ *          missingIds -&gt; productRepository.findMapByIds(missingIds));
+ * </pre>
+ * <p>
+ * Keys are the same as those of {@link RedisCache} (and therefore of {@code @Cacheable} with the same key), so the
+ * entries are shared with the usual cache operations. Near cache ({@link TwoLevelCache}) entries are read and written
+ * too, values are wrapped for refresh-ahead ({@link RefreshAheadCache}) if it's enabled. If the cache is
+ * transaction-aware, the write-back is deferred until the transaction commits.
+ * <p>
+ * Redis round trips of {@link MeteredRedisCache} are counted in its statistics ({@code cache.gets},
+ * {@code cache.puts}) and timers per key, the same way as single-key ones. Near cache hits are not counted, as with
+ * single-key lookups.
+ * <p>
+ * Caches not backed by {@link RedisCache} are supported too, key by key.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class BulkCacheOperations {
+
+    /**
+     * Same as in {@link RedisCache}, in order to read and write {@code null} values compatibly with it.
+     */
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    /**
+     * Returns cached values, loads missing ones and caches them.
+     *
+     * @param cache  cache (as returned by cache manager)
+     * @param keys   cache keys, duplicates are ignored
+     * @param loader called with missing keys only (and only if there are any), may omit keys it has found nothing
+     *               for - those are neither cached nor returned
+     * @param <K>    key type
+     * @param <V>    value type
+     * @return values (including {@code null} ones if the cache allows them) in the order of {@code keys}
+     */
+    public <K, V> Map<K, V> getAll(Cache cache, Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        var uniqueKeys = new LinkedHashSet<>(keys);
+        var result = new LinkedHashMap<K, V>();
+        if (uniqueKeys.isEmpty()) {
+            return result;
+        }
+
+        CacheLayers layers = unwrap(cache);
+        Set<K> missingKeys = (layers.redisCache() == null)
+                ? readOneByOne(cache, uniqueKeys, result)
+                : readAll(layers, uniqueKeys, result);
+
+        if (!missingKeys.isEmpty()) {
+            long start = System.nanoTime();
+            Map<K, V> loaded = loader.apply(missingKeys);
+            // the cost of each value is unknown, assume it's the same
+            long computeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                    / Math.max(1, loaded.size());
+            var cacheableValues = new LinkedHashMap<K, V>();
+            missingKeys.stream()
+                    .filter(loaded::containsKey)
+                    .forEach(key -> cacheableValues.put(key, loaded.get(key)));
+
+            result.putAll(cacheableValues);
+            write(cache, layers, cacheableValues, computeMillis);
+        }
+
+        // near cache hits and loaded values have been added out of order
+        var orderedResult = new LinkedHashMap<K, V>();
+        uniqueKeys.stream()
+                .filter(result::containsKey)
+                .forEach(key -> orderedResult.put(key, result.get(key)));
+        return orderedResult;
+    }
+
+    private <K, V> void write(Cache cache, CacheLayers layers, Map<K, V> values, long computeMillis) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        if (layers.redisCache() == null) {
+            values.forEach(cache::put);
+        } else if (layers.transactionAware() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    writeAll(layers, values, computeMillis);
+                }
+            });
+        } else {
+            writeAll(layers, values, computeMillis);
+        }
+    }
+
+    /**
+     * Fallback for caches not backed by Redis.
+     *
+     * @return missing keys
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> Set<K> readOneByOne(Cache cache, Set<K> keys, Map<K, V> result) {
+        var missingKeys = new LinkedHashSet<K>();
+
+        for (K key : keys) {
+            Cache.ValueWrapper valueWrapper = cache.get(key);
+
+            if (valueWrapper == null) {
+                missingKeys.add(key);
+            } else {
+                result.put(key, (V) valueWrapper.get());
+            }
+        }
+
+        return missingKeys;
+    }
+
+    /**
+     * Reads near cache (if any), then Redis - with a single {@code MGET}.
+     *
+     * @return missing keys
+     */
+    @SuppressWarnings("unchecked")
+    private <K, V> Set<K> readAll(CacheLayers layers, Set<K> keys, Map<K, V> result) {
+        var remoteKeys = new LinkedHashSet<K>();
+
+        for (K key : keys) {
+            Cache.ValueWrapper localValue = (layers.nearCache() == null)
+                    ? null
+                    : layers.nearCache().getLocal(key);
+
+            if (localValue == null) {
+                remoteKeys.add(key);
+            } else {
+                result.put(key, (V) localValue.get());
+            }
+        }
+
+        if (remoteKeys.isEmpty()) {
+            return remoteKeys;
+        }
+
+        RedisCache redisCache = layers.redisCache();
+        byte[][] redisKeys = remoteKeys.stream()
+                .map(key -> serializeKey(redisCache, key))
+                .toArray(byte[][]::new);
+
+        long start = System.nanoTime();
+        List<byte[]> redisValues;
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            redisValues = connection.stringCommands().mGet(redisKeys);
+        }
+
+        var missingKeys = new LinkedHashSet<K>();
+        int i = 0;
+
+        for (K key : remoteKeys) {
+            byte[] redisValue = (redisValues == null) ? null : redisValues.get(i);
+            i++;
+
+            if (redisValue == null) {
+                missingKeys.add(key);
+                continue;
+            }
+
+            Object value = deserializeValue(redisCache.getCacheConfiguration(), redisValue);
+            result.put(key, (V) value);
+
+            if (layers.nearCache() != null) {
+                layers.nearCache().putLocal(key, value, false);
+            }
+        }
+
+        if (redisCache instanceof MeteredRedisCache meteredCache) {
+            meteredCache.recordBulkGet(remoteKeys.size() - missingKeys.size(), missingKeys.size(),
+                    System.nanoTime() - start);
+        }
+
+        log.debug("Bulk read of cache '{}': {} keys, {} found locally, {} found in Redis", redisCache.getName(),
+                keys.size(), keys.size() - remoteKeys.size(), remoteKeys.size() - missingKeys.size());
+        return missingKeys;
+    }
+
+    /**
+     * Writes values to Redis in a single pipeline, then to near cache (if any). {@code null} values are skipped if the
+     * cache doesn't allow them (as {@link RedisCache} would throw an exception).
+     */
+    private <K, V> void writeAll(CacheLayers layers, Map<K, V> values, long computeMillis) {
+        RedisCache redisCache = layers.redisCache();
+        RedisCacheConfiguration cacheConfig = redisCache.getCacheConfiguration();
+
+        Map<K, V> cacheableValues = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if ((value != null) || cacheConfig.getAllowCacheNullValues()) {
+                cacheableValues.put(key, value);
+            }
+        });
+
+        if (cacheableValues.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            connection.openPipeline();
+
+            try {
+                cacheableValues.forEach((key, value) -> {
+                    Object storedValue = (layers.refreshAheadCache() == null)
+                            ? value
+                            : layers.refreshAheadCache().wrap(value, computeMillis);
+                    Duration ttl = cacheConfig.getTtlFunction().getTimeToLive(key, storedValue);
+                    Expiration expiration = ((ttl == null) || ttl.isZero() || ttl.isNegative())
+                            ? Expiration.persistent()
+                            : Expiration.from(ttl);
+
+                    connection.stringCommands().set(serializeKey(redisCache, key),
+                            serializeValue(cacheConfig, storedValue), expiration,
+                            RedisStringCommands.SetOption.upsert());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+
+        if (redisCache instanceof MeteredRedisCache meteredCache) {
+            meteredCache.recordBulkPut(cacheableValues.size(), System.nanoTime() - start);
+        }
+
+        if (layers.nearCache() != null) {
+            cacheableValues.forEach((key, value) -> layers.nearCache().putLocal(key, value, true));
+        }
+
+        log.debug("Bulk write to cache '{}': {} entries", redisCache.getName(), cacheableValues.size());
+    }
+
+    /**
+     * Same as {@code RedisCache#createCacheKey(Object)} followed by {@code RedisCache#serializeCacheKey(String)}.
+     */
+    private static byte[] serializeKey(RedisCache redisCache, Object key) {
+        RedisCacheConfiguration cacheConfig = redisCache.getCacheConfiguration();
+        String cacheKey = RedisCacheKeys.convertKey(key, cacheConfig.getConversionService());
+
+        if (cacheConfig.usePrefix()) {
+            cacheKey = cacheConfig.getKeyPrefixFor(redisCache.getName()) + cacheKey;
+        }
+
+        return ByteUtils.getBytes(cacheConfig.getKeySerializationPair().write(cacheKey));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] serializeValue(RedisCacheConfiguration cacheConfig, @Nullable Object value) {
+        if (value == null) {
+            return BINARY_NULL_VALUE;
+        }
+
+        var serializationPair = (RedisSerializationContext.SerializationPair<Object>)
+                cacheConfig.getValueSerializationPair();
+        return ByteUtils.getBytes(serializationPair.write(value));
+    }
+
+    @Nullable
+    private static Object deserializeValue(RedisCacheConfiguration cacheConfig, byte[] value) {
+        if (cacheConfig.getAllowCacheNullValues() && Arrays.equals(value, BINARY_NULL_VALUE)) {
+            return null;
+        }
+
+        Object deserialized = cacheConfig.getValueSerializationPair().read(ByteBuffer.wrap(value));
+        return (deserialized instanceof NullValue) ? null : RefreshAheadCache.unwrapValue(deserialized);
+    }
+
+    /**
+     * Strips decorators added by cache managers.
+     */
+    private static CacheLayers unwrap(Cache cache) {
+        Cache current = cache;
+        TwoLevelCache nearCache = null;
+        RefreshAheadCache refreshAheadCache = null;
+        boolean transactionAware = false;
+
+        while (true) {
+            if (current instanceof TransactionAwareCacheDecorator decorator) {
+                transactionAware = true;
+                current = decorator.getTargetCache();
+            } else if (current instanceof TwoLevelCache twoLevelCache) {
+                nearCache = twoLevelCache;
+                current = twoLevelCache.getTarget();
+            } else if (current instanceof RefreshAheadCache refreshAhead) {
+                refreshAheadCache = refreshAhead;
+                current = refreshAhead.getTarget();
+            } else if (current instanceof SingleFlightCache singleFlightCache) {
+                // bulk loads are single calls anyway
+                current = singleFlightCache.getTarget();
+            } else {
+                break;
+            }
+        }
+
+        return new CacheLayers((current instanceof RedisCache redisCache) ? redisCache : null, nearCache,
+                refreshAheadCache, transactionAware);
+    }
+
+    /**
+     * @param redisCache        {@code null} if the cache is not backed by Redis
+     * @param nearCache         {@code null} if there's no near cache
+     * @param refreshAheadCache {@code null} if values are stored as they are (not wrapped for refresh-ahead)
+     * @param transactionAware  whether writes must be deferred until the transaction commits
+     */
+    private record CacheLayers(@Nullable RedisCache redisCache, @Nullable TwoLevelCache nearCache,
+            @Nullable RefreshAheadCache refreshAheadCache, boolean transactionAware) {
+    }
+
+}
@@ -0,0 +1,110 @@
+package guru.nicks.commons.redis.cache;
+
+import guru.nicks.commons.utils.UuidUtils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Broadcasts near cache invalidations to other nodes (and receives theirs) over Redis pub/sub. One topic is shared by
+ * all caches of a cache manager.
+ * <p>
+ * Message format: {@code originId \n cacheName [\n key]}, no key means the whole cache has been cleared. Messages
+ * published by this node are ignored when received back.
+ */
+@Slf4j
+public class CacheInvalidationTopic implements DisposableBean {
+
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Distinguishes this node's messages from those of other nodes.
+     */
+    private final String originId = UuidUtils.generateUuidV4().toString();
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    @Getter
+    private final String channelName;
+
+    private final RTopic topic;
+    private final int listenerId;
+
+    public CacheInvalidationTopic(RedissonClient redissonClient, String channelName) {
+        this.channelName = channelName;
+        topic = redissonClient.getTopic(channelName, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+    }
+
+    /**
+     * Makes the cache receive invalidations published by other nodes.
+     *
+     * @param cache cache
+     */
+    public void register(TwoLevelCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    /**
+     * Tells other nodes to evict the key from their local caches.
+     *
+     * @param cacheName cache name
+     * @param key       key converted with {@link RedisCacheKeys#convertKey}
+     */
+    public void publishEvict(String cacheName, String key) {
+        publish(originId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    /**
+     * Tells other nodes to clear their local caches.
+     *
+     * @param cacheName cache name
+     */
+    public void publishClear(String cacheName) {
+        publish(originId + SEPARATOR + cacheName);
+    }
+
+    @Override
+    public void destroy() {
+        topic.removeListener(listenerId);
+    }
+
+    /**
+     * Doesn't wait for the message to be delivered - if it's lost, the local cache TTL limits the staleness.
+     */
+    private void publish(String message) {
+        topic.publishAsync(message).whenComplete((receivers, e) -> {
+            if (e != null) {
+                log.warn("Failed to publish near cache invalidation to '{}': {}", channelName, e.getMessage());
+            }
+        });
+    }
+
+    private void onMessage(String message) {
+        // key is the last part, it may contain anything, including the separator
+        String[] parts = StringUtils.splitByWholeSeparatorPreserveAllTokens(message, SEPARATOR, 3);
+        if ((parts.length < 2) || originId.equals(parts[0])) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+
+        if (parts.length == 2) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+}
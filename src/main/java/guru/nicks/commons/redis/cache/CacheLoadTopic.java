@@ -0,0 +1,122 @@
+package guru.nicks.commons.redis.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Wakes up callers (on all nodes, including this one) waiting for a cache entry being loaded by
+ * {@link SingleFlightCache} elsewhere. One topic is shared by all caches of a cache manager.
+ * <p>
+ * Message format: {@code cacheName \n key}.
+ */
+@Slf4j
+public class CacheLoadTopic implements DisposableBean {
+
+    private static final String SEPARATOR = "\n";
+
+    /**
+     * Keys are messages, each waiter is shared by all local callers waiting for the same entry.
+     */
+    private final Map<String, Waiter> waiters = new ConcurrentHashMap<>();
+
+    @Getter
+    private final String channelName;
+
+    private final RTopic topic;
+    private final int listenerId;
+
+    public CacheLoadTopic(RedissonClient redissonClient, String channelName) {
+        this.channelName = channelName;
+        topic = redissonClient.getTopic(channelName, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+    }
+
+    /**
+     * Subscribes to the load of the entry. Must be called before checking whether the entry has already been loaded,
+     * otherwise the notification may be missed.
+     *
+     * @param cacheName cache name
+     * @param key       key converted with {@link RedisCacheKeys#convertKey}
+     * @return future completed when the entry has been loaded (or failed to load), shared by all local callers waiting
+     *         for the same entry - therefore it must not be completed or cancelled by the caller
+     */
+    public CompletableFuture<Void> subscribe(String cacheName, String key) {
+        return waiters.compute(cacheName + SEPARATOR + key, (message, waiter) -> {
+            Waiter result = (waiter == null) ? new Waiter() : waiter;
+            result.subscribers++;
+            return result;
+        }).future;
+    }
+
+    /**
+     * Stops waiting (for example, on timeout), so that the subscription doesn't linger. Other local callers waiting
+     * for the same entry keep waiting.
+     *
+     * @param cacheName cache name
+     * @param key       key converted with {@link RedisCacheKeys#convertKey}
+     * @param future    future returned by {@link #subscribe(String, String)}
+     */
+    public void unsubscribe(String cacheName, String key, CompletableFuture<Void> future) {
+        waiters.computeIfPresent(cacheName + SEPARATOR + key, (message, waiter) -> {
+            // a newer subscription - the caller's one has already been completed and removed
+            if (waiter.future != future) {
+                return waiter;
+            }
+
+            return (--waiter.subscribers > 0) ? waiter : null;
+        });
+    }
+
+    /**
+     * Tells all nodes the entry has been loaded (or failed to load), so that they re-read it (or try to load it).
+     *
+     * @param cacheName cache name
+     * @param key       key converted with {@link RedisCacheKeys#convertKey}
+     */
+    public void publishLoaded(String cacheName, String key) {
+        topic.publishAsync(cacheName + SEPARATOR + key).whenComplete((receivers, e) -> {
+            if (e != null) {
+                log.warn("Failed to publish cache load notification to '{}': {}", channelName, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        topic.removeListener(listenerId);
+        // let the callers proceed without waiting for the timeout
+        waiters.values().forEach(waiter -> waiter.future.complete(null));
+    }
+
+    private void onMessage(String message) {
+        if (StringUtils.contains(message, SEPARATOR)) {
+            Waiter waiter = waiters.remove(message);
+
+            if (waiter != null) {
+                waiter.future.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Local callers waiting for the same entry. {@link #subscribers} is modified in {@link Map#compute} of the waiter
+     * map only.
+     */
+    private static class Waiter {
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private int subscribers;
+
+    }
+
+}
@@ -0,0 +1,49 @@
+package guru.nicks.commons.redis.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.lang.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Wraps each cache created by the delegate cache manager exactly once, on first access.
+ */
+@RequiredArgsConstructor
+public class DecoratingCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    @Getter
+    private final CacheManager delegate;
+
+    private final UnaryOperator<Cache> decorator;
+
+    @Nullable
+    @Override
+    public Cache getCache(String name) {
+        // fast path, no locking
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+
+        Cache targetCache = delegate.getCache(name);
+        if (targetCache == null) {
+            return null;
+        }
+
+        return caches.computeIfAbsent(name, key -> decorator.apply(targetCache));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+}
@@ -0,0 +1,136 @@
+package guru.nicks.commons.redis.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis cache measuring its round trips (including value serialization). Metrics (tagged with cache manager and cache):
+ * <ul>
+ *     <li>{@value #GET_TIME_METRIC} - lookup time (tagged with result: hit / miss)</li>
+ *     <li>{@value #PUT_TIME_METRIC} - put time, including {@code putIfAbsent}</li>
+ * </ul>
+ * Multi-key round trips made bypassing this cache ({@link BulkCacheOperations}) are recorded with
+ * {@link #recordBulkGet(int, int, long)} and {@link #recordBulkPut(int, long)}.
+ */
+public class MeteredRedisCache extends RedisCache {
+
+    public static final String GET_TIME_METRIC = "redis.cache.get.time";
+    public static final String PUT_TIME_METRIC = "redis.cache.put.time";
+
+    private final CacheStatisticsCollector statisticsCollector;
+    private final Timer hitTimer;
+    private final Timer missTimer;
+    private final Timer putTimer;
+
+    /**
+     * Constructor.
+     *
+     * @param name                cache name
+     * @param cacheWriter         cache writer
+     * @param cacheConfiguration  cache configuration
+     * @param statisticsCollector statistics collector of {@code cacheWriter}
+     * @param meterRegistry       meter registry
+     * @param tags                cache manager and cache tags
+     */
+    public MeteredRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfiguration,
+            CacheStatisticsCollector statisticsCollector, MeterRegistry meterRegistry, Iterable<Tag> tags) {
+        super(name, cacheWriter, cacheConfiguration);
+        this.statisticsCollector = statisticsCollector;
+
+        hitTimer = Timer.builder(GET_TIME_METRIC)
+                .tags(tags)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        missTimer = Timer.builder(GET_TIME_METRIC)
+                .tags(tags)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        putTimer = Timer.builder(PUT_TIME_METRIC)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    @Nullable
+    @Override
+    protected Object lookup(Object key) {
+        long start = System.nanoTime();
+        Object value = super.lookup(key);
+
+        Timer timer = (value == null) ? missTimer : hitTimer;
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        long start = System.nanoTime();
+        super.put(key, value);
+        putTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Nullable
+    @Override
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        long start = System.nanoTime();
+        ValueWrapper existingValue = super.putIfAbsent(key, value);
+        putTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return existingValue;
+    }
+
+    /**
+     * Records a multi-key lookup in the cache statistics and {@link #GET_TIME_METRIC} as if each key had been looked up
+     * separately, the duration being split evenly between the keys.
+     *
+     * @param hits   number of keys found
+     * @param misses number of keys not found
+     * @param nanos  duration of the whole lookup
+     */
+    public void recordBulkGet(int hits, int misses, long nanos) {
+        if (hits + misses == 0) {
+            return;
+        }
+
+        long nanosPerKey = nanos / (hits + misses);
+
+        for (int i = 0; i < hits; i++) {
+            statisticsCollector.incGets(getName());
+            statisticsCollector.incHits(getName());
+            hitTimer.record(nanosPerKey, TimeUnit.NANOSECONDS);
+        }
+
+        for (int i = 0; i < misses; i++) {
+            statisticsCollector.incGets(getName());
+            statisticsCollector.incMisses(getName());
+            missTimer.record(nanosPerKey, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Records a multi-key write in the cache statistics and {@link #PUT_TIME_METRIC} as if each entry had been put
+     * separately, the duration being split evenly between the entries.
+     *
+     * @param puts  number of entries written
+     * @param nanos duration of the whole write
+     */
+    public void recordBulkPut(int puts, long nanos) {
+        if (puts == 0) {
+            return;
+        }
+
+        long nanosPerKey = nanos / puts;
+
+        for (int i = 0; i < puts; i++) {
+            statisticsCollector.incPuts(getName());
+            putTimer.record(nanosPerKey, TimeUnit.NANOSECONDS);
+        }
+    }
+
+}
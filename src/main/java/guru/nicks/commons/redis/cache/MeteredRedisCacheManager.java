@@ -0,0 +1,74 @@
+package guru.nicks.commons.redis.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+
+/**
+ * Redis cache manager with statistics enabled and bound to Micrometer for each cache, including caches created at
+ * runtime (see {@link RedisCacheMeterBinder}, {@link MeteredRedisCache}, {@link MeteredRedisSerializer}). All meters
+ * are tagged with {@value #CACHE_MANAGER_TAG} and {@code cache} (cache name).
+ */
+public class MeteredRedisCacheManager extends RedisCacheManager {
+
+    /**
+     * The same tag Spring Boot Actuator uses for cache meters.
+     */
+    public static final String CACHE_MANAGER_TAG = "cache.manager";
+
+    private final CacheStatisticsCollector statisticsCollector;
+    private final RedisCacheConfiguration defaultCacheConfiguration;
+    private final RedisSerializer<Object> valueSerializer;
+    private final MeterRegistry meterRegistry;
+    private final Tags tags;
+
+    /**
+     * Constructor.
+     *
+     * @param cacheWriter               cache writer, statistics collection is enabled in it by this constructor
+     * @param defaultCacheConfiguration cache configuration whose value serializer is replaced with a
+     *                                  {@link MeteredRedisSerializer} around {@code valueSerializer}
+     * @param valueSerializer           value serializer
+     * @param cacheManagerName          cache manager name
+     * @param meterRegistry             meter registry
+     */
+    public MeteredRedisCacheManager(RedisCacheWriter cacheWriter, RedisCacheConfiguration defaultCacheConfiguration,
+            RedisSerializer<Object> valueSerializer, String cacheManagerName, MeterRegistry meterRegistry) {
+        this(cacheWriter, CacheStatisticsCollector.create(), defaultCacheConfiguration, valueSerializer,
+                cacheManagerName, meterRegistry);
+    }
+
+    private MeteredRedisCacheManager(RedisCacheWriter cacheWriter, CacheStatisticsCollector statisticsCollector,
+            RedisCacheConfiguration defaultCacheConfiguration, RedisSerializer<Object> valueSerializer,
+            String cacheManagerName, MeterRegistry meterRegistry) {
+        super(cacheWriter.withStatisticsCollector(statisticsCollector), defaultCacheConfiguration);
+
+        this.statisticsCollector = statisticsCollector;
+        this.defaultCacheConfiguration = defaultCacheConfiguration;
+        this.valueSerializer = valueSerializer;
+        this.meterRegistry = meterRegistry;
+        tags = Tags.of(CACHE_MANAGER_TAG, cacheManagerName);
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, @Nullable RedisCacheConfiguration cacheConfiguration) {
+        Tags cacheTags = tags.and("cache", name);
+        var serializer = new MeteredRedisSerializer(valueSerializer, meterRegistry, cacheTags);
+        RedisCacheConfiguration config = ObjectUtils.defaultIfNull(cacheConfiguration, defaultCacheConfiguration)
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+
+        var cache = new MeteredRedisCache(name, getCacheWriter(), config, statisticsCollector, meterRegistry,
+                cacheTags);
+        new RedisCacheMeterBinder(cache, tags).bindTo(meterRegistry);
+        return cache;
+    }
+
+}
@@ -0,0 +1,107 @@
+package guru.nicks.commons.redis.cache;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures cache values passing through the delegate. Metrics (tagged with cache manager, cache and operation:
+ * serialize / deserialize):
+ * <ul>
+ *     <li>{@value #VALUE_SIZE_METRIC} - serialized value size, in bytes, with a percentile histogram and buckets of
+ *         1 KiB, 10 KiB, 100 KiB and 1 MiB</li>
+ *     <li>{@value #SERIALIZATION_TIME_METRIC} - serialization and deserialization time</li>
+ * </ul>
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    public static final String VALUE_SIZE_METRIC = "redis.cache.value.size";
+    public static final String SERIALIZATION_TIME_METRIC = "redis.cache.serialization.time";
+
+    /**
+     * Bucket boundaries of {@link #VALUE_SIZE_METRIC}, in bytes: 1 KiB, 10 KiB, 100 KiB, 1 MiB.
+     */
+    private static final double[] VALUE_SIZE_BUCKETS = {1024, 10 * 1024, 100 * 1024, 1024 * 1024};
+
+    /**
+     * Bounds of the percentile histogram of {@link #VALUE_SIZE_METRIC}, in bytes: values above 64 MiB are unlikely to
+     * be cached.
+     */
+    private static final double MIN_EXPECTED_VALUE_SIZE = 1;
+    private static final double MAX_EXPECTED_VALUE_SIZE = 64 * 1024 * 1024;
+
+    private final RedisSerializer<Object> delegate;
+    private final DistributionSummary serializedSize;
+    private final DistributionSummary deserializedSize;
+    private final Timer serialization;
+    private final Timer deserialization;
+
+    /**
+     * Constructor.
+     *
+     * @param delegate      serializer to measure
+     * @param meterRegistry meter registry
+     * @param tags          cache manager and cache tags
+     */
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, MeterRegistry meterRegistry, Iterable<Tag> tags) {
+        this.delegate = delegate;
+
+        serializedSize = createValueSizeSummary(meterRegistry, tags, "serialize");
+        deserializedSize = createValueSizeSummary(meterRegistry, tags, "deserialize");
+        serialization = Timer.builder(SERIALIZATION_TIME_METRIC)
+                .tags(tags)
+                .tag("operation", "serialize")
+                .register(meterRegistry);
+        deserialization = Timer.builder(SERIALIZATION_TIME_METRIC)
+                .tags(tags)
+                .tag("operation", "deserialize")
+                .register(meterRegistry);
+    }
+
+    @Nullable
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        long start = System.nanoTime();
+        byte[] bytes = delegate.serialize(value);
+        serialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (bytes != null) {
+            serializedSize.record(bytes.length);
+        }
+
+        return bytes;
+    }
+
+    @Nullable
+    @Override
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            deserializedSize.record(bytes.length);
+        }
+
+        long start = System.nanoTime();
+        Object value = delegate.deserialize(bytes);
+        deserialization.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return value;
+    }
+
+    private static DistributionSummary createValueSizeSummary(MeterRegistry meterRegistry, Iterable<Tag> tags,
+            String operation) {
+        return DistributionSummary.builder(VALUE_SIZE_METRIC)
+                .baseUnit("bytes")
+                .tags(tags)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(VALUE_SIZE_BUCKETS)
+                .minimumExpectedValue(MIN_EXPECTED_VALUE_SIZE)
+                .maximumExpectedValue(MAX_EXPECTED_VALUE_SIZE)
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,41 @@
+package guru.nicks.commons.redis.cache;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.redis.cache.RedisCache;
+
+/**
+ * Converts cache keys to strings the same way {@link RedisCache} does, so that keys are stable across JVMs and can be
+ * used outside of {@link RedisCache} (in pub/sub messages, in-process caches, etc.).
+ */
+@UtilityClass
+public class RedisCacheKeys {
+
+    private static final TypeDescriptor STRING_TYPE = TypeDescriptor.valueOf(String.class);
+
+    /**
+     * Converts cache key to string: strings are returned as is, other objects are converted with the conversion
+     * service (if it's able to) or with {@link Object#toString()}.
+     *
+     * @param key               cache key
+     * @param conversionService conversion service of the cache configuration
+     * @return string key
+     */
+    public static String convertKey(Object key, ConversionService conversionService) {
+        if (key instanceof String stringKey) {
+            return stringKey;
+        }
+
+        if (conversionService.canConvert(TypeDescriptor.forObject(key), STRING_TYPE)) {
+            String converted = conversionService.convert(key, String.class);
+
+            if (converted != null) {
+                return converted;
+            }
+        }
+
+        return key.toString();
+    }
+
+}
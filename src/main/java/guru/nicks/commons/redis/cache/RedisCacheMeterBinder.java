@@ -0,0 +1,87 @@
+package guru.nicks.commons.redis.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds {@link RedisCache#getStatistics()} (which requires statistics to be enabled in the cache writer) to the
+ * standard cache meters ({@code cache.gets}, {@code cache.puts}, {@code cache.removals}, etc.), the same ones Spring
+ * Boot Actuator registers for Redis caches existing on startup. Unlike Actuator, this binder is applied to caches
+ * created at runtime too.
+ */
+public class RedisCacheMeterBinder extends CacheMeterBinder<RedisCache> {
+
+    /**
+     * Constructor.
+     *
+     * @param cache cache to measure
+     * @param tags  tags (cache name tag is added automatically)
+     */
+    public RedisCacheMeterBinder(RedisCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    /**
+     * @return {@code null} - counting keys would require a {@code SCAN}
+     */
+    @Nullable
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        return getStatistics().getHits();
+    }
+
+    @Override
+    protected Long missCount() {
+        return getStatistics().getMisses();
+    }
+
+    /**
+     * @return {@code null} - Redis expires and evicts entries on its own
+     */
+    @Nullable
+    @Override
+    protected Long evictionCount() {
+        return null;
+    }
+
+    @Override
+    protected long putCount() {
+        return getStatistics().getPuts();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("cache.removals", getCache(), cache -> cache.getStatistics().getDeletes())
+                .tags(getTagsWithCacheName())
+                .description("Cache removals")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.gets", getCache(), cache -> cache.getStatistics().getPending())
+                .tags(getTagsWithCacheName())
+                .tag("result", "pending")
+                .description("The number of pending requests")
+                .register(meterRegistry);
+        TimeGauge.builder("cache.lock.duration", getCache(), TimeUnit.NANOSECONDS,
+                        cache -> cache.getStatistics().getLockWaitDuration(TimeUnit.NANOSECONDS))
+                .tags(getTagsWithCacheName())
+                .description("The time the cache has spent waiting on a lock")
+                .register(meterRegistry);
+    }
+
+    private CacheStatistics getStatistics() {
+        return getCache().getStatistics();
+    }
+
+}
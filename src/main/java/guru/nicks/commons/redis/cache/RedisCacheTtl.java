@@ -0,0 +1,59 @@
+package guru.nicks.commons.redis.cache;
+
+import lombok.Getter;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cache entry TTL, optionally shortened by a random fraction (jitter) so that entries cached together don't expire
+ * together. Entries stored by {@link RefreshAheadCache} carry their own expiration date, which is honored.
+ */
+public class RedisCacheTtl implements RedisCacheWriter.TtlFunction {
+
+    /**
+     * Maximum TTL.
+     */
+    @Getter
+    private final Duration ttl;
+    private final double jitter;
+
+    /**
+     * Constructor.
+     *
+     * @param ttl    maximum TTL
+     * @param jitter maximum fraction the TTL is randomly shortened by, from 0 (inclusive) to 1 (exclusive)
+     */
+    public RedisCacheTtl(Duration ttl, double jitter) {
+        if ((jitter < 0) || (jitter >= 1)) {
+            throw new IllegalArgumentException("TTL jitter must be in [0, 1)");
+        }
+
+        this.ttl = ttl;
+        this.jitter = jitter;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, @Nullable Object value) {
+        if (value instanceof RefreshAheadValue refreshAheadValue) {
+            // never 0, which means 'no expiration'
+            return Duration.ofMillis(Math.max(1, refreshAheadValue.expiresAt() - System.currentTimeMillis()));
+        }
+
+        return nextTtl();
+    }
+
+    /**
+     * @return TTL with jitter applied
+     */
+    public Duration nextTtl() {
+        if (jitter == 0) {
+            return ttl;
+        }
+
+        return ttl.minusMillis((long) (ttl.toMillis() * jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+}
@@ -0,0 +1,283 @@
+package guru.nicks.commons.redis.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.lang.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Refresh-ahead: values are stored as {@link RefreshAheadValue} (with their creation time, compute cost and expiration
+ * date). When {@link #get(Object, Callable)} (which is what {@link Cacheable#sync() @Cacheable(sync = true)} calls)
+ * finds a value, it's recomputed in the background with a probability rising as the expiration approaches
+ * (<a href="https://cseweb.ucsd.edu/~avattani/papers/cache_stampede.pdf">XFetch</a>): the more expensive the value is,
+ * the earlier. The caller gets the current value without waiting.
+ * <p>
+ * Values not wrapped (stored before refresh-ahead was enabled, or by other means) are returned as is and just expire.
+ * The loader runs in a background thread, so it must not rely on thread-bound context (transactions, security).
+ * Refreshed values are written to the target cache directly, so decorators in front of this cache (such as
+ * {@link TwoLevelCache}) learn about them via {@link #setRefreshListener(BiConsumer)}.
+ */
+@Slf4j
+public class RefreshAheadCache implements Cache {
+
+    /**
+     * Target cache.
+     */
+    @Getter
+    private final Cache target;
+
+    private final RedisCacheTtl ttl;
+    private final double beta;
+    private final Executor executor;
+    private final ConversionService conversionService;
+
+    /**
+     * Keys being refreshed by this node, in order not to refresh them again concurrently.
+     */
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Called with the key and the (unwrapped) value after a background refresh has written the value to the target
+     * cache.
+     */
+    @Nullable
+    @Setter
+    private volatile BiConsumer<Object, Object> refreshListener;
+
+    /**
+     * Constructor.
+     *
+     * @param target            target cache
+     * @param ttl               entry TTL, the same as that of the Redis cache configuration
+     * @param beta              values above 1 make refreshes earlier, below 1 - later
+     * @param executor          runs background refreshes
+     * @param conversionService converts keys to strings, should be the one of the Redis cache configuration
+     */
+    public RefreshAheadCache(Cache target, RedisCacheTtl ttl, double beta, Executor executor,
+            ConversionService conversionService) {
+        this.target = target;
+        this.ttl = ttl;
+        this.beta = beta;
+        this.executor = executor;
+        this.conversionService = conversionService;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Nullable
+    @Override
+    public ValueWrapper get(Object key) {
+        return unwrap(target.get(key));
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = (valueWrapper == null) ? null : valueWrapper.get();
+
+        if ((value != null) && (type != null) && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: "
+                    + value);
+        }
+
+        return (T) value;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        var loaderCalled = new AtomicBoolean();
+        Object storedValue = target.get(key, () -> {
+            loaderCalled.set(true);
+            return compute(valueLoader);
+        });
+
+        if (!loaderCalled.get() && (storedValue instanceof RefreshAheadValue refreshAheadValue)
+                && shouldRefresh(refreshAheadValue)) {
+            refreshAsync(key, valueLoader);
+        }
+
+        return (T) unwrapValue(storedValue);
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        CompletableFuture<?> future = target.retrieve(key);
+        if (future == null) {
+            return null;
+        }
+
+        return future.thenApply(result -> (result instanceof ValueWrapper valueWrapper)
+                ? unwrap(valueWrapper)
+                : unwrapValue(result));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return target.<Object>retrieve(key, () -> {
+            long start = System.nanoTime();
+            return valueLoader.get().thenApply(value -> wrap(value, elapsedMillis(start)));
+        }).thenApply(storedValue -> (T) unwrapValue(storedValue));
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        target.put(key, wrap(value, 0));
+    }
+
+    @Nullable
+    @Override
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        return unwrap(target.putIfAbsent(key, wrap(value, 0)));
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    /**
+     * Wraps value to be stored in the target cache. {@code null} values are not wrapped, so that the target cache
+     * handles them as usual.
+     *
+     * @param value         value
+     * @param computeMillis how long the value took to compute, 0 means it's unknown (and the value won't be refreshed
+     *                      ahead)
+     * @return value to store
+     */
+    @Nullable
+    public Object wrap(@Nullable Object value, long computeMillis) {
+        if (value == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        return new RefreshAheadValue(value, now, computeMillis, now + ttl.nextTtl().toMillis());
+    }
+
+    /**
+     * @param storedValue value stored in the target cache
+     * @return value wrapped in {@link RefreshAheadValue}, or the stored value as is if it's not wrapped
+     */
+    @Nullable
+    public static Object unwrapValue(@Nullable Object storedValue) {
+        return (storedValue instanceof RefreshAheadValue refreshAheadValue)
+                ? refreshAheadValue.value()
+                : storedValue;
+    }
+
+    /**
+     * XFetch: {@code now - computeTime * beta * ln(random) >= expiresAt}, where {@code random} is in (0, 1].
+     */
+    private boolean shouldRefresh(RefreshAheadValue value) {
+        if (value.computeMillis() <= 0) {
+            return false;
+        }
+
+        double random = 1 - ThreadLocalRandom.current().nextDouble();
+        return System.currentTimeMillis() - value.computeMillis() * beta * Math.log(random) >= value.expiresAt();
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        String localKey = RedisCacheKeys.convertKey(key, conversionService);
+        if (!refreshingKeys.add(localKey)) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    Object storedValue = compute(valueLoader);
+                    target.put(key, storedValue);
+
+                    BiConsumer<Object, Object> listener = refreshListener;
+                    if (listener != null) {
+                        listener.accept(key, unwrapValue(storedValue));
+                    }
+
+                    log.debug("Cache '{}': refreshed key '{}' ahead of expiration", getName(), localKey);
+                } catch (Exception e) {
+                    log.warn("Cache '{}': failed to refresh key '{}' ahead of expiration: {}", getName(), localKey,
+                            e.getMessage());
+                } finally {
+                    refreshingKeys.remove(localKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the value will be refreshed by another caller, or will just expire
+            refreshingKeys.remove(localKey);
+        }
+    }
+
+    /**
+     * Calls the loader, measuring its duration. Loader exceptions are propagated as is, so that the target cache wraps
+     * them in {@link ValueRetrievalException} once.
+     */
+    @Nullable
+    private Object compute(Callable<?> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        Object value = valueLoader.call();
+        return wrap(value, elapsedMillis(start));
+    }
+
+    /**
+     * @return at least 1, so that the value can be refreshed ahead
+     */
+    private static long elapsedMillis(long startNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    @Nullable
+    private static ValueWrapper unwrap(@Nullable ValueWrapper valueWrapper) {
+        if ((valueWrapper == null) || !(valueWrapper.get() instanceof RefreshAheadValue refreshAheadValue)) {
+            return valueWrapper;
+        }
+
+        return new SimpleValueWrapper(refreshAheadValue.value());
+    }
+
+}
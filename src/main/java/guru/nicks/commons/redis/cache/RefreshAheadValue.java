@@ -0,0 +1,17 @@
+package guru.nicks.commons.redis.cache;
+
+import org.springframework.lang.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * Cached value stored by {@link RefreshAheadCache} along with what's needed to decide when to refresh it.
+ *
+ * @param value         cached value
+ * @param createdAt     when the value was computed, epoch millis
+ * @param computeMillis how long the value took to compute
+ * @param expiresAt     when the Redis entry expires, epoch millis
+ */
+public record RefreshAheadValue(@Nullable Object value, long createdAt, long computeMillis, long expiresAt)
+        implements Serializable {
+}
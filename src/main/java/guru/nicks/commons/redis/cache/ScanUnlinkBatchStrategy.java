@@ -0,0 +1,104 @@
+package guru.nicks.commons.redis.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Clears caches without blocking Redis: keys are found with incremental {@code SCAN} (unlike {@code KEYS} used by
+ * default) and deleted in batches with {@code UNLINK} (unlike {@code DEL} used by {@link BatchStrategies#scan(int)}),
+ * which frees memory in a background Redis thread.
+ * <p>
+ * Optionally, clearing is done asynchronously, in which case the number of deleted keys reported to the cache writer
+ * (and therefore to cache statistics) is 0.
+ */
+@Slf4j
+public class ScanUnlinkBatchStrategy implements BatchStrategy {
+
+    private final int batchSize;
+    private final RedisConnectionFactory redisConnectionFactory;
+
+    @Nullable
+    private final Executor executor;
+
+    /**
+     * Constructor.
+     *
+     * @param batchSize              {@code SCAN COUNT} hint and maximum number of keys per {@code UNLINK}
+     * @param redisConnectionFactory creates connections for asynchronous clearing (the connection passed by the cache
+     *                               writer is closed when {@link #cleanCache(RedisConnection, String, byte[])} returns)
+     * @param executor               runs asynchronous clearing, {@code null} means clearing is synchronous
+     */
+    public ScanUnlinkBatchStrategy(int batchSize, RedisConnectionFactory redisConnectionFactory,
+            @Nullable Executor executor) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+
+        this.batchSize = batchSize;
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.executor = executor;
+    }
+
+    @Override
+    public long cleanCache(RedisConnection connection, String name, byte[] pattern) {
+        if (executor == null) {
+            return unlinkAll(connection, pattern);
+        }
+
+        executor.execute(() -> {
+            try (RedisConnection asyncConnection = redisConnectionFactory.getConnection()) {
+                long count = unlinkAll(asyncConnection, pattern);
+                log.info("Cache '{}' cleared: {} keys deleted", name, count);
+            } catch (RuntimeException e) {
+                log.warn("Failed to clear cache '{}' (keys matching '{}'): {}", name,
+                        new String(pattern, StandardCharsets.UTF_8), e.getMessage());
+            }
+        });
+
+        return 0;
+    }
+
+    private long unlinkAll(RedisConnection connection, byte[] pattern) {
+        ScanOptions scanOptions = ScanOptions.scanOptions()
+                .count(batchSize)
+                .match(pattern)
+                .build();
+
+        long count = 0;
+        var batch = new ArrayList<byte[]>(batchSize);
+
+        try (Cursor<byte[]> cursor = connection.keyCommands().scan(scanOptions)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+
+                if (batch.size() >= batchSize) {
+                    count += unlink(connection, batch);
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            count += unlink(connection, batch);
+        }
+
+        return count;
+    }
+
+    private static long unlink(RedisConnection connection, List<byte[]> keys) {
+        Long count = connection.keyCommands().unlink(keys.toArray(byte[][]::new));
+        return (count == null) ? 0 : count;
+    }
+
+}
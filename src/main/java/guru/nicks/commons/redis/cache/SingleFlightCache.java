@@ -0,0 +1,219 @@
+package guru.nicks.commons.redis.cache;
+
+import guru.nicks.commons.utils.UuidUtils;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Cache stampede protection across nodes: on a miss in {@link #get(Object, Callable)} (which is what
+ * {@link Cacheable#sync() @Cacheable(sync = true)} calls), only the caller holding a short Redis lease
+ * ({@code SET NX PX}) for the key calls the loader. The others wait for {@link CacheLoadTopic} notification and re-read
+ * the entry, and if it's still not there when the wait time is over, they call the loader themselves.
+ * <p>
+ * If the lease holder dies, the lease expires after its TTL, and another caller takes it over. Other operations
+ * (including {@link #get(Object)}, used by {@link Cacheable @Cacheable} without {@code sync}, and asynchronous
+ * retrieval) go to the target cache as is.
+ */
+@Slf4j
+public class SingleFlightCache implements Cache {
+
+    /**
+     * Target cache.
+     */
+    @Getter
+    private final Cache target;
+    private final RedissonClient redissonClient;
+    private final String leaseKeyPrefix;
+    private final Duration leaseTtl;
+    private final long waitTimeNanos;
+    private final ConversionService conversionService;
+    private final CacheLoadTopic loadTopic;
+
+    /**
+     * Constructor.
+     *
+     * @param target            target cache
+     * @param redissonClient    Redisson client
+     * @param leaseKeyPrefix    lease key prefix, followed by cache name and key
+     * @param leaseTtl          lease TTL, should be longer than the loader usually takes
+     * @param waitTime          how long to wait for another caller to load the entry
+     * @param conversionService converts keys to strings, should be the one of the Redis cache configuration
+     * @param loadTopic         load notification topic
+     */
+    public SingleFlightCache(Cache target, RedissonClient redissonClient, String leaseKeyPrefix, Duration leaseTtl,
+            Duration waitTime, ConversionService conversionService, CacheLoadTopic loadTopic) {
+        this.target = target;
+        this.redissonClient = redissonClient;
+        this.leaseKeyPrefix = leaseKeyPrefix;
+        this.leaseTtl = leaseTtl;
+        waitTimeNanos = waitTime.toNanos();
+        this.conversionService = conversionService;
+        this.loadTopic = loadTopic;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Nullable
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Nullable
+    @Override
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = RedisCacheKeys.convertKey(key, conversionService);
+        long deadline = System.nanoTime() + waitTimeNanos;
+
+        while (true) {
+            ValueWrapper valueWrapper = target.get(key);
+            if (valueWrapper != null) {
+                return (T) valueWrapper.get();
+            }
+
+            RBucket<String> lease = redissonClient.getBucket(leaseKeyPrefix + ":" + getName() + ":" + localKey,
+                    StringCodec.INSTANCE);
+            String leaseToken = UuidUtils.generateUuidV4().toString();
+            if (lease.setIfAbsent(leaseToken, leaseTtl)) {
+                return loadUnderLease(key, localKey, valueLoader, lease, leaseToken);
+            }
+
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                break;
+            }
+
+            // subscribe first, then check again - otherwise the notification may come in between
+            CompletableFuture<Void> loaded = loadTopic.subscribe(getName(), localKey);
+            try {
+                valueWrapper = target.get(key);
+                if (valueWrapper != null) {
+                    return (T) valueWrapper.get();
+                }
+
+                loaded.get(remainingNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // the lease holder is too slow (or dead) - check the entry and the lease once more, then load locally
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ValueRetrievalException(key, valueLoader, e);
+            } catch (ExecutionException e) {
+                // never completed exceptionally
+                throw new IllegalStateException(e.getCause());
+            } finally {
+                loadTopic.unsubscribe(getName(), localKey, loaded);
+            }
+        }
+
+        log.debug("Cache '{}': gave up waiting for key '{}' to be loaded elsewhere", getName(), localKey);
+        T value = callLoader(key, valueLoader);
+        target.put(key, value);
+        return value;
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return target.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return target.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        target.put(key, value);
+    }
+
+    @Nullable
+    @Override
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    /**
+     * Loads the entry, releases the lease and wakes up the waiting callers (even if the loader has failed, so that one
+     * of them takes over the lease).
+     */
+    @Nullable
+    private <T> T loadUnderLease(Object key, String localKey, Callable<T> valueLoader, RBucket<String> lease,
+            String leaseToken) {
+        try {
+            T value = callLoader(key, valueLoader);
+            target.put(key, value);
+            return value;
+        } finally {
+            try {
+                // the lease may have expired and been taken over by another caller
+                lease.compareAndSet(leaseToken, null);
+            } catch (RuntimeException e) {
+                log.warn("Failed to release cache lease '{}': {}", lease.getName(), e.getMessage());
+            }
+
+            loadTopic.publishLoaded(getName(), localKey);
+        }
+    }
+
+    @Nullable
+    private static <T> T callLoader(Object key, Callable<T> valueLoader) {
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+}
@@ -0,0 +1,301 @@
+package guru.nicks.commons.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process (L1) cache in front of a Redis (L2) cache. Each modification of L2 is broadcast via
+ * {@link CacheInvalidationTopic} so other nodes drop their L1 copies. Lost messages and races between reads and
+ * invalidations are bounded by the L1 TTL.
+ * <p>
+ * L1 keys are converted to strings with {@link RedisCacheKeys#convertKey(Object, ConversionService)} in order to be
+ * comparable across JVMs. {@code null} values are stored in L1 as {@link NullValue#INSTANCE}.
+ */
+public class TwoLevelCache implements Cache {
+
+    /**
+     * L2 cache.
+     */
+    @Getter
+    private final Cache target;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final ConversionService conversionService;
+    private final CacheInvalidationTopic invalidationTopic;
+
+    /**
+     * Constructor. Registers the cache in the invalidation topic. If the L2 cache is {@link RefreshAheadCache}, its
+     * background refreshes update L1 and are broadcast, like {@link #put(Object, Object)}.
+     *
+     * @param target            L2 cache
+     * @param maximumSize       L1 maximum size
+     * @param ttl               L1 TTL
+     * @param conversionService converts keys to strings, should be the one of the Redis cache configuration
+     * @param invalidationTopic invalidation topic
+     */
+    public TwoLevelCache(Cache target, long maximumSize, Duration ttl, ConversionService conversionService,
+            CacheInvalidationTopic invalidationTopic) {
+        this.target = target;
+        this.conversionService = conversionService;
+        this.invalidationTopic = invalidationTopic;
+
+        localCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        invalidationTopic.register(this);
+
+        // background refreshes write to L2 bypassing this cache
+        if (target instanceof RefreshAheadCache refreshAheadCache) {
+            refreshAheadCache.setRefreshListener((key, value) -> putLocal(key, value, true));
+        }
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Nullable
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = toLocalKey(key);
+
+        Object localValue = localCache.getIfPresent(localKey);
+        if (localValue != null) {
+            return new SimpleValueWrapper(fromLocalValue(localValue));
+        }
+
+        ValueWrapper valueWrapper = target.get(key);
+        if (valueWrapper != null) {
+            localCache.put(localKey, toLocalValue(valueWrapper.get()));
+        }
+
+        return valueWrapper;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, @Nullable Class<T> type) {
+        ValueWrapper valueWrapper = get(key);
+        Object value = (valueWrapper == null) ? null : valueWrapper.get();
+
+        if ((value != null) && (type != null) && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: "
+                    + value);
+        }
+
+        return (T) value;
+    }
+
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = toLocalKey(key);
+
+        Object localValue = localCache.getIfPresent(localKey);
+        if (localValue != null) {
+            return (T) fromLocalValue(localValue);
+        }
+
+        var loaderCalled = new AtomicBoolean();
+        T value = target.get(key, () -> {
+            loaderCalled.set(true);
+            return valueLoader.call();
+        });
+
+        // don't overwrite the value of a background refresh triggered by this very read
+        localCache.asMap().putIfAbsent(localKey, toLocalValue(value));
+
+        // other nodes may still hold a value which has expired in L2
+        if (loaderCalled.get()) {
+            invalidationTopic.publishEvict(getName(), localKey);
+        }
+
+        return value;
+    }
+
+    @Nullable
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        String localKey = toLocalKey(key);
+
+        Object localValue = localCache.getIfPresent(localKey);
+        if (localValue != null) {
+            return CompletableFuture.completedFuture(new SimpleValueWrapper(fromLocalValue(localValue)));
+        }
+
+        CompletableFuture<?> future = target.retrieve(key);
+        if (future == null) {
+            return null;
+        }
+
+        return future.thenApply(result -> {
+            if (result instanceof ValueWrapper valueWrapper) {
+                localCache.put(localKey, toLocalValue(valueWrapper.get()));
+            }
+
+            return result;
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        String localKey = toLocalKey(key);
+
+        Object localValue = localCache.getIfPresent(localKey);
+        if (localValue != null) {
+            return CompletableFuture.completedFuture((T) fromLocalValue(localValue));
+        }
+
+        var loaderCalled = new AtomicBoolean();
+        return target.retrieve(key, () -> {
+            loaderCalled.set(true);
+            return valueLoader.get();
+        }).thenApply(value -> {
+            localCache.put(localKey, toLocalValue(value));
+
+            if (loaderCalled.get()) {
+                invalidationTopic.publishEvict(getName(), localKey);
+            }
+
+            return value;
+        });
+    }
+
+    @Override
+    public void put(Object key, @Nullable Object value) {
+        String localKey = toLocalKey(key);
+
+        target.put(key, value);
+        localCache.put(localKey, toLocalValue(value));
+        invalidationTopic.publishEvict(getName(), localKey);
+    }
+
+    @Nullable
+    @Override
+    public ValueWrapper putIfAbsent(Object key, @Nullable Object value) {
+        String localKey = toLocalKey(key);
+        ValueWrapper existingValue = target.putIfAbsent(key, value);
+
+        if (existingValue == null) {
+            localCache.put(localKey, toLocalValue(value));
+            invalidationTopic.publishEvict(getName(), localKey);
+        } else {
+            localCache.put(localKey, toLocalValue(existingValue.get()));
+        }
+
+        return existingValue;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String localKey = toLocalKey(key);
+
+        target.evict(key);
+        localCache.invalidate(localKey);
+        invalidationTopic.publishEvict(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        String localKey = toLocalKey(key);
+
+        boolean evicted = target.evictIfPresent(key);
+        localCache.invalidate(localKey);
+        invalidationTopic.publishEvict(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+        localCache.invalidateAll();
+        invalidationTopic.publishClear(getName());
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean invalidated = target.invalidate();
+        localCache.invalidateAll();
+        invalidationTopic.publishClear(getName());
+        return invalidated;
+    }
+
+    /**
+     * Reads L1 only, never L2.
+     *
+     * @param key cache key
+     * @return L1 entry, {@code null} if there's none
+     */
+    @Nullable
+    public ValueWrapper getLocal(Object key) {
+        Object localValue = localCache.getIfPresent(toLocalKey(key));
+        return (localValue == null) ? null : new SimpleValueWrapper(fromLocalValue(localValue));
+    }
+
+    /**
+     * Puts entry into L1 only. Called when L2 has been accessed bypassing this cache.
+     *
+     * @param key       cache key
+     * @param value     value read from or written to L2
+     * @param broadcast whether the value has been written to L2, so other nodes must drop their L1 copies
+     */
+    public void putLocal(Object key, @Nullable Object value, boolean broadcast) {
+        String localKey = toLocalKey(key);
+        localCache.put(localKey, toLocalValue(value));
+
+        if (broadcast) {
+            invalidationTopic.publishEvict(getName(), localKey);
+        }
+    }
+
+    /**
+     * Evicts entry from L1 only. Called when another node modifies L2.
+     *
+     * @param localKey key converted with {@link RedisCacheKeys#convertKey(Object, ConversionService)}
+     */
+    public void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    /**
+     * Clears L1 only. Called when another node clears L2.
+     */
+    public void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    private String toLocalKey(Object key) {
+        return RedisCacheKeys.convertKey(key, conversionService);
+    }
+
+    private static Object toLocalValue(@Nullable Object value) {
+        return (value == null) ? NullValue.INSTANCE : value;
+    }
+
+    @Nullable
+    private static Object fromLocalValue(Object localValue) {
+        return (localValue == NullValue.INSTANCE) ? null : localValue;
+    }
+
+}
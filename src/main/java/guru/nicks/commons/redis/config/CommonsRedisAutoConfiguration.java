@@ -1,52 +1,139 @@
 package guru.nicks.commons.redis.config;
 
+import guru.nicks.commons.redis.RedisSerializerAdapterImpl;
+import guru.nicks.commons.redis.blocklist.BlockedTokenBloomFilter;
+import guru.nicks.commons.redis.blocklist.BlockedTokenStore;
+import guru.nicks.commons.redis.blocklist.ChecksumJwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.JtiJwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.JwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.KeyBlockedTokenStore;
+import guru.nicks.commons.redis.blocklist.MigratingBlockedTokenStore;
+import guru.nicks.commons.redis.blocklist.RepositoryBlockedTokenStore;
+import guru.nicks.commons.redis.domain.BlockedJwtProperties;
+import guru.nicks.commons.redis.domain.BlockedTokenStorage;
+import guru.nicks.commons.redis.domain.DistributedLockProperties;
+import guru.nicks.commons.redis.domain.JwtKeyDerivation;
+import guru.nicks.commons.redis.domain.RateLimiterProperties;
+import guru.nicks.commons.redis.domain.RedisCompressionCodec;
 import guru.nicks.commons.redis.domain.RedisProperties;
+import guru.nicks.commons.redis.domain.RedisReadMode;
+import guru.nicks.commons.redis.domain.RedisSerializationFormat;
+import guru.nicks.commons.redis.domain.RedisSerializerProperties;
+import guru.nicks.commons.redis.domain.RedisTopology;
 import guru.nicks.commons.redis.impl.BlockedJwtServiceImpl;
 import guru.nicks.commons.redis.impl.DistributedLockServiceImpl;
+import guru.nicks.commons.redis.impl.DistributedRateLimiterServiceImpl;
 import guru.nicks.commons.redis.repository.BlockedTokenRepository;
+import guru.nicks.commons.redis.serializer.CompressingRedisSerializer;
+import guru.nicks.commons.redis.serializer.MultiFormatRedisSerializer;
+import guru.nicks.commons.redis.serializer.RedisSerializerCodec;
+import guru.nicks.commons.redis.serializer.StreamingRedisSerializer;
+import guru.nicks.commons.redis.serializer.TypeAliasJsonRedisSerializer;
+import guru.nicks.commons.redis.service.DistributedRateLimiterService;
+import guru.nicks.commons.serializer.NativeJavaSerializer;
 import guru.nicks.commons.service.BlockedJwtService;
 import guru.nicks.commons.service.DistributedLockService;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.lettuce.core.ReadFrom;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.redisson.api.RedissonClient;
+import org.redisson.config.BaseConfig;
+import org.redisson.config.BaseMasterSlaveServersConfig;
 import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
+import org.redisson.config.SingleServerConfig;
 import org.redisson.config.SslVerificationMode;
+import org.redisson.spring.data.connection.RedissonConnectionFactory;
 import org.redisson.spring.starter.RedissonAutoConfiguration;
 import org.redisson.spring.starter.RedissonAutoConfigurationCustomizer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.LettuceClientConfigurationBuilderCustomizer;
+import org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Why Redisson? - See <a href="https://redisson.org/feature-comparison-redisson-vs-jedis.html">here</a>.
  * <p>
+ * Runs before Redisson's and Spring Boot's Redis auto-configurations, so that the beans created here (such as
+ * {@link RedisTemplate} and, if {@link RedisProperties#isSharedConnectionFactory()} is {@code true},
+ * {@link RedisConnectionFactory}) take precedence over theirs.
+ * <p>
  * Creates a {@link RedisTemplate} bean with string keys, injectable as {@code RedisTemplate<String, Object>}. The
- * serialization format is JSON.
+ * serialization format is JSON by default, see {@link RedisSerializerProperties#getFormat()}.
  */
-@AutoConfiguration
-@EnableConfigurationProperties(RedisProperties.class)
+@AutoConfiguration(before = {RedissonAutoConfiguration.class, RedisAutoConfiguration.class})
+@EnableConfigurationProperties({RedisProperties.class, RedisSerializerProperties.class, BlockedJwtProperties.class,
+        DistributedLockProperties.class, RateLimiterProperties.class})
 @Slf4j
 public class CommonsRedisAutoConfiguration {
 
+    /**
+     * Redisson takes durations as {@code int} milliseconds.
+     */
+    private static final Duration MAX_TUNING_DURATION = Duration.ofMillis(Integer.MAX_VALUE);
+
     /**
      * Creates {@link BlockedJwtService} bean if it's not already present.
      */
     @ConditionalOnMissingBean
     @Bean
-    public BlockedJwtService blockedJwtService(BlockedTokenRepository blockedTokenRepository) {
+    public BlockedJwtService blockedJwtService(ObjectProvider<BlockedTokenRepository> blockedTokenRepositoryProvider,
+            BlockedJwtProperties blockedJwtProperties, ObjectProvider<RedissonClient> redissonClientProvider,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
         log.debug("Building {} bean", BlockedJwtService.class.getSimpleName());
-        return new BlockedJwtServiceImpl(blockedTokenRepository);
+        BlockedTokenStore blockedTokenStore = createBlockedTokenStore(blockedJwtProperties.getStorage(),
+                blockedTokenRepositoryProvider, redissonClientProvider);
+
+        BlockedJwtProperties.BloomFilter bloomFilterProperties = blockedJwtProperties.getBloomFilter();
+        BlockedTokenBloomFilter bloomFilter = ((bloomFilterProperties != null) && bloomFilterProperties.isEnabled())
+                ? createBloomFilter(bloomFilterProperties, redissonClientProvider.getObject())
+                : null;
+
+        var blockedJwtService = new BlockedJwtServiceImpl(blockedTokenStore, bloomFilter,
+                createKeyDerivationStrategy(blockedJwtProperties.getKeyDerivation()),
+                blockedJwtProperties.getLocalCache());
+        blockedJwtService.bindMetrics(meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+        return blockedJwtService;
     }
 
     /**
@@ -54,22 +141,68 @@ public class CommonsRedisAutoConfiguration {
      */
     @ConditionalOnMissingBean
     @Bean
-    public DistributedLockService distributedLockService(RedissonClient redissonClient) {
+    public DistributedLockService distributedLockService(RedissonClient redissonClient,
+            DistributedLockProperties distributedLockProperties, ObjectProvider<MeterRegistry> meterRegistryProvider) {
         log.debug("Building {} bean", DistributedLockService.class.getSimpleName());
-        return new DistributedLockServiceImpl(redissonClient);
+        return new DistributedLockServiceImpl(redissonClient, distributedLockProperties,
+                meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry));
     }
 
     /**
-     * Creates {@link RedisSerializer} bean if it's not already present (specifically, a subclass
-     * {@link GenericJackson2JsonRedisSerializer} aware of Java 8 dates).
+     * Creates {@link DistributedRateLimiterService} bean if it's not already present.
      */
     @ConditionalOnMissingBean
     @Bean
-    public RedisSerializer<Object> redisSerializer() {
+    public DistributedRateLimiterService distributedRateLimiterService(RedissonClient redissonClient,
+            RateLimiterProperties rateLimiterProperties) {
+        log.debug("Building {} bean", DistributedRateLimiterService.class.getSimpleName());
+        return new DistributedRateLimiterServiceImpl(redissonClient, rateLimiterProperties);
+    }
+
+    /**
+     * Creates {@link RedisSerializer} bean if it's not already present. Values are written in the format set in
+     * {@link RedisSerializerProperties#getFormat()}, and values written in any other format are readable too (native
+     * ones - only if there's a {@link NativeJavaSerializer} bean). Large values are compressed according to
+     * {@link RedisSerializerProperties#getCompression()}.
+     * <p>
+     * JSON is 2x slower than the native format, but the cache content is readable/debuggable.
+     */
+    @ConditionalOnMissingBean
+    @Bean
+    public RedisSerializer<Object> redisSerializer(RedisSerializerProperties redisSerializerProperties,
+            ObjectProvider<NativeJavaSerializer> nativeJavaSerializerProvider,
+            ObjectProvider<MeterRegistry> meterRegistryProvider) {
         log.debug("Building {} bean", RedisSerializer.class.getSimpleName());
-        //return new RedisSerializerAdapterImpl<>(nativeJavaSerializer);
-        // JSON is 2x slower than OneNioSerializer, but the cache content is readable/debuggable
-        return new CustomJsonSerializer();
+        RedisSerializationFormat format = ObjectUtils.defaultIfNull(redisSerializerProperties.getFormat(),
+                RedisSerializationFormat.JSON);
+        log.info("Redis serialization format: {}", format);
+
+        var jsonSerializer = new CustomJsonSerializer();
+        Map<RedisSerializationFormat, RedisSerializer<Object>> serializers =
+                new EnumMap<>(RedisSerializationFormat.class);
+        Map<String, Class<?>> typeAliases = redisSerializerProperties.getTypeAliases();
+
+        if ((typeAliases == null) || typeAliases.isEmpty()) {
+            serializers.put(RedisSerializationFormat.JSON, jsonSerializer);
+            serializers.put(RedisSerializationFormat.SMILE, jsonSerializer.withFactory(new SmileFactory()));
+        } else {
+            log.info("Redis type aliases: {}", typeAliases);
+            TypeAliasJsonRedisSerializer typeAliasSerializer = jsonSerializer.withTypeAliases(typeAliases);
+            serializers.put(RedisSerializationFormat.JSON, typeAliasSerializer);
+            serializers.put(RedisSerializationFormat.SMILE, typeAliasSerializer.withFactory(new SmileFactory()));
+        }
+
+        nativeJavaSerializerProvider.ifAvailable(nativeJavaSerializer -> serializers.put(
+                RedisSerializationFormat.NATIVE, new RedisSerializerAdapterImpl<>(nativeJavaSerializer)));
+
+        if (!serializers.containsKey(format)) {
+            throw new IllegalStateException("Redis serialization format " + format + " requires a "
+                    + NativeJavaSerializer.class.getSimpleName() + " bean");
+        }
+
+        return createCompressingSerializer(new MultiFormatRedisSerializer(format, serializers),
+                redisSerializerProperties.getCompression(),
+                meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry));
     }
 
     /**
@@ -82,9 +215,56 @@ public class CommonsRedisAutoConfiguration {
      */
     @Bean
     public RedissonAutoConfigurationCustomizer commonsRedissonAutoConfigurationCustomizer(
-            RedisProperties redisProperties) {
+            RedisProperties redisProperties, RedisSerializerProperties redisSerializerProperties,
+            ObjectProvider<RedisSerializer<Object>> redisSerializerProvider) {
         log.debug("Building {} bean", RedissonAutoConfigurationCustomizer.class.getSimpleName());
-        return config -> populateRedissonConfig(config, redisProperties);
+
+        return config -> {
+            populateRedissonConfig(config, redisProperties);
+
+            if (redisSerializerProperties.isRedissonCodec()) {
+                log.info("Redisson objects are serialized with {} bean", RedisSerializer.class.getSimpleName());
+                config.setCodec(new RedisSerializerCodec(redisSerializerProvider.getObject()));
+            }
+        };
+    }
+
+    /**
+     * Makes Lettuce connection factory (if used instead of Redisson's one) connect to the same Redis Cluster as
+     * Redisson does - Spring Boot prefers this bean to its own properties.
+     */
+    @ConditionalOnProperty(prefix = "spring.redis", name = "topology", havingValue = "cluster")
+    @ConditionalOnMissingBean
+    @Bean
+    public RedisClusterConfiguration redisClusterConfiguration(RedisProperties redisProperties) {
+        log.debug("Building {} bean", RedisClusterConfiguration.class.getSimpleName());
+
+        var clusterConfiguration = new RedisClusterConfiguration(getNodeAddresses(redisProperties));
+        if (StringUtils.isNotBlank(redisProperties.getPassword())) {
+            clusterConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        }
+
+        return clusterConfiguration;
+    }
+
+    /**
+     * Makes Lettuce connection factory (if used instead of Redisson's one) connect to the same sentinels as Redisson
+     * does - Spring Boot prefers this bean to its own properties.
+     */
+    @ConditionalOnProperty(prefix = "spring.redis", name = "topology", havingValue = "sentinel")
+    @ConditionalOnMissingBean
+    @Bean
+    public RedisSentinelConfiguration redisSentinelConfiguration(RedisProperties redisProperties) {
+        log.debug("Building {} bean", RedisSentinelConfiguration.class.getSimpleName());
+
+        var sentinelConfiguration = new RedisSentinelConfiguration(getSentinelMaster(redisProperties),
+                new LinkedHashSet<>(getNodeAddresses(redisProperties)));
+        sentinelConfiguration.setDatabase(redisProperties.getDatabase());
+        if (StringUtils.isNotBlank(redisProperties.getPassword())) {
+            sentinelConfiguration.setPassword(RedisPassword.of(redisProperties.getPassword()));
+        }
+
+        return sentinelConfiguration;
     }
 
     @ConditionalOnMissingBean
@@ -105,6 +285,88 @@ public class CommonsRedisAutoConfiguration {
         return redisTemplate;
     }
 
+    /**
+     * Creates storage engine according to {@link BlockedJwtProperties.Storage#getType()}. The repository is only
+     * required for {@link BlockedTokenStorage#REPOSITORY} and {@link BlockedTokenStorage#MIGRATING}.
+     */
+    private BlockedTokenStore createBlockedTokenStore(@Nullable BlockedJwtProperties.Storage properties,
+            ObjectProvider<BlockedTokenRepository> blockedTokenRepositoryProvider,
+            ObjectProvider<RedissonClient> redissonClientProvider) {
+        BlockedTokenStorage storage = (properties == null)
+                ? BlockedTokenStorage.REPOSITORY
+                : ObjectUtils.defaultIfNull(properties.getType(), BlockedTokenStorage.REPOSITORY);
+        log.info("Blocked JWT storage: {}", storage);
+
+        if (storage == BlockedTokenStorage.REPOSITORY) {
+            return new RepositoryBlockedTokenStore(blockedTokenRepositoryProvider.getObject(),
+                    redissonClientProvider.getIfAvailable());
+        }
+
+        boolean legacyFallback = ObjectUtils.defaultIfNull(properties.getLegacyFallback(), Boolean.TRUE);
+        var keyStore = new KeyBlockedTokenStore(redissonClientProvider.getObject(),
+                ObjectUtils.defaultIfNull(properties.getKeyPrefix(), BlockedJwtProperties.Storage.DEFAULT_KEY_PREFIX),
+                legacyFallback);
+
+        if (storage == BlockedTokenStorage.MIGRATING) {
+            return new MigratingBlockedTokenStore(keyStore,
+                    new RepositoryBlockedTokenStore(blockedTokenRepositoryProvider.getObject(),
+                            redissonClientProvider.getObject()));
+        }
+
+        // legacy hashes are no longer looked up, so their index set is garbage
+        if (!legacyFallback) {
+            keyStore.deleteLegacyIndex();
+        }
+
+        return keyStore;
+    }
+
+    /**
+     * Wraps serializer even if compression is disabled, in order to read values compressed by other nodes.
+     */
+    private RedisSerializer<Object> createCompressingSerializer(RedisSerializer<Object> serializer,
+            @Nullable RedisSerializerProperties.Compression properties, MeterRegistry meterRegistry) {
+        if ((properties == null) || !properties.isEnabled()) {
+            return new CompressingRedisSerializer(serializer, null,
+                    RedisSerializerProperties.Compression.DEFAULT_THRESHOLD,
+                    RedisSerializerProperties.Compression.DEFAULT_DEFLATE_LEVEL, meterRegistry);
+        }
+
+        RedisCompressionCodec codec = ObjectUtils.defaultIfNull(properties.getCodec(),
+                RedisSerializerProperties.Compression.DEFAULT_CODEC);
+        int threshold = ObjectUtils.defaultIfNull(properties.getThreshold(),
+                RedisSerializerProperties.Compression.DEFAULT_THRESHOLD);
+        log.info("Redis values larger than {} bytes are compressed with {}", threshold, codec);
+
+        return new CompressingRedisSerializer(serializer, codec, threshold,
+                ObjectUtils.defaultIfNull(properties.getDeflateLevel(),
+                        RedisSerializerProperties.Compression.DEFAULT_DEFLATE_LEVEL),
+                meterRegistry);
+    }
+
+    private JwtKeyDerivationStrategy createKeyDerivationStrategy(@Nullable JwtKeyDerivation keyDerivation) {
+        var checksumStrategy = new ChecksumJwtKeyDerivationStrategy();
+
+        return (keyDerivation == JwtKeyDerivation.JTI)
+                ? new JtiJwtKeyDerivationStrategy(checksumStrategy)
+                : checksumStrategy;
+    }
+
+    private BlockedTokenBloomFilter createBloomFilter(BlockedJwtProperties.BloomFilter properties,
+            RedissonClient redissonClient) {
+        return new BlockedTokenBloomFilter(redissonClient,
+                ObjectUtils.defaultIfNull(properties.getKeyPrefix(),
+                        BlockedJwtProperties.BloomFilter.DEFAULT_KEY_PREFIX),
+                ObjectUtils.defaultIfNull(properties.getExpectedInsertions(),
+                        BlockedJwtProperties.BloomFilter.DEFAULT_EXPECTED_INSERTIONS),
+                ObjectUtils.defaultIfNull(properties.getFalsePositiveRate(),
+                        BlockedJwtProperties.BloomFilter.DEFAULT_FALSE_POSITIVE_RATE),
+                ObjectUtils.defaultIfNull(properties.getRotationPeriod(),
+                        BlockedJwtProperties.BloomFilter.DEFAULT_ROTATION_PERIOD),
+                ObjectUtils.defaultIfNull(properties.getRefreshInterval(),
+                        BlockedJwtProperties.BloomFilter.DEFAULT_REFRESH_INTERVAL));
+    }
+
     /**
      * Populates Redisson config instance with actual values.
      *
@@ -112,10 +374,13 @@ public class CommonsRedisAutoConfiguration {
      * @return same as argument
      */
     private Config populateRedissonConfig(Config redissonConfig, RedisProperties redisProperties) {
+        RedisTopology topology = ObjectUtils.defaultIfNull(redisProperties.getTopology(), RedisTopology.SINGLE);
+        List<String> addresses = getNodeAddresses(redisProperties).stream()
+                .map(node -> redisProperties.getScheme() + "://" + node)
+                .toList();
+
         // avoid accidentally exposing passwords in logs
-        log.info("Connecting to Redis at '{}://{}:{}' (database: '{}')",
-                redisProperties.getScheme(), redisProperties.getHost(), redisProperties.getPort(),
-                redisProperties.getDatabase());
+        log.info("Connecting to Redis {} at {} (database: '{}')", topology, addresses, redisProperties.getDatabase());
 
         if (!"rediss".equalsIgnoreCase(redisProperties.getScheme())) {
             log.warn("Redis is not SSL protected - your password and data may leak!");
@@ -125,30 +390,298 @@ public class CommonsRedisAutoConfiguration {
             }
         }
 
-        var config = redissonConfig.useSingleServer()
-                .setDatabase(redisProperties.getDatabase())
-                .setConnectionMinimumIdleSize(redisProperties.getConnectionMinimumIdleSize())
-                .setSslVerificationMode(redisProperties.isTrustAnyCertificate()
-                        ? SslVerificationMode.NONE
-                        : SslVerificationMode.STRICT)
-                .setKeepAlive(true)
-                .setAddress(redisProperties.getScheme() + "://"
-                        + redisProperties.getHost() + ":"
-                        + redisProperties.getPort());
-
+        SslVerificationMode sslVerificationMode = redisProperties.isTrustAnyCertificate()
+                ? SslVerificationMode.NONE
+                : SslVerificationMode.STRICT;
         // Redis isn't always password-protected. Passing something to server when nothing is expected causes an error.
-        if (StringUtils.isNotBlank(redisProperties.getPassword())) {
-            config.setPassword(redisProperties.getPassword());
+        String password = StringUtils.isNotBlank(redisProperties.getPassword())
+                ? redisProperties.getPassword()
+                : null;
+
+        RedisProperties.Tuning tuning = resolveTuning(redisProperties);
+        if (tuning.getNettyThreads() != null) {
+            redissonConfig.setNettyThreads(tuning.getNettyThreads());
+        }
+
+        switch (topology) {
+            case SINGLE -> {
+                SingleServerConfig serverConfig = redissonConfig.useSingleServer()
+                        .setDatabase(redisProperties.getDatabase())
+                        .setConnectionMinimumIdleSize(redisProperties.getConnectionMinimumIdleSize())
+                        .setSslVerificationMode(sslVerificationMode)
+                        .setKeepAlive(true)
+                        .setPassword(password)
+                        .setAddress(addresses.get(0));
+
+                applyCommonTuning(serverConfig, tuning);
+                if (tuning.getConnectionPoolSize() != null) {
+                    serverConfig.setConnectionPoolSize(tuning.getConnectionPoolSize());
+                }
+                if (tuning.getSubscriptionConnectionPoolSize() != null) {
+                    serverConfig.setSubscriptionConnectionPoolSize(tuning.getSubscriptionConnectionPoolSize());
+                }
+                if (tuning.getSubscriptionConnectionMinimumIdleSize() != null) {
+                    serverConfig.setSubscriptionConnectionMinimumIdleSize(
+                            tuning.getSubscriptionConnectionMinimumIdleSize());
+                }
+            }
+
+            case CLUSTER -> {
+                if (redisProperties.getDatabase() != 0) {
+                    log.warn("Redis Cluster has database 0 only, database {} is ignored",
+                            redisProperties.getDatabase());
+                }
+
+                applyTuning(redissonConfig.useClusterServers()
+                        .setReadMode(toRedissonReadMode(redisProperties.getReadMode()))
+                        .setMasterConnectionMinimumIdleSize(redisProperties.getConnectionMinimumIdleSize())
+                        .setSlaveConnectionMinimumIdleSize(redisProperties.getConnectionMinimumIdleSize())
+                        .setSslVerificationMode(sslVerificationMode)
+                        .setKeepAlive(true)
+                        .setPassword(password)
+                        .addNodeAddress(addresses.toArray(String[]::new)), tuning);
+            }
+
+            case SENTINEL -> applyTuning(redissonConfig.useSentinelServers()
+                    .setMasterName(getSentinelMaster(redisProperties))
+                    .setDatabase(redisProperties.getDatabase())
+                    .setReadMode(toRedissonReadMode(redisProperties.getReadMode()))
+                    .setMasterConnectionMinimumIdleSize(redisProperties.getConnectionMinimumIdleSize())
+                    .setSlaveConnectionMinimumIdleSize(redisProperties.getConnectionMinimumIdleSize())
+                    .setSslVerificationMode(sslVerificationMode)
+                    .setKeepAlive(true)
+                    .setPassword(password)
+                    .addSentinelAddress(addresses.toArray(String[]::new)), tuning);
         }
 
         return redissonConfig;
     }
 
+    /**
+     * Merges {@link RedisProperties#getTuning()} with {@link RedisProperties#getPreset()}: explicit settings win.
+     *
+     * @return tuning whose {@code null} settings mean Redisson defaults
+     * @throws IllegalStateException connection pool is smaller than its minimum idle size, or a duration is negative
+     *                               or exceeds {@link #MAX_TUNING_DURATION}
+     */
+    private static RedisProperties.Tuning resolveTuning(RedisProperties redisProperties) {
+        RedisProperties.Tuning explicit = ObjectUtils.defaultIfNull(redisProperties.getTuning(),
+                RedisProperties.Tuning.builder().build());
+        RedisProperties.Tuning preset = (redisProperties.getPreset() == null)
+                ? RedisProperties.Tuning.builder().build()
+                : redisProperties.getPreset().getTuning();
+
+        var tuning = RedisProperties.Tuning.builder()
+                .connectionPoolSize(ObjectUtils.firstNonNull(
+                        explicit.getConnectionPoolSize(), preset.getConnectionPoolSize()))
+                .subscriptionConnectionPoolSize(ObjectUtils.firstNonNull(
+                        explicit.getSubscriptionConnectionPoolSize(), preset.getSubscriptionConnectionPoolSize()))
+                .subscriptionConnectionMinimumIdleSize(ObjectUtils.firstNonNull(
+                        explicit.getSubscriptionConnectionMinimumIdleSize(),
+                        preset.getSubscriptionConnectionMinimumIdleSize()))
+                .nettyThreads(ObjectUtils.firstNonNull(explicit.getNettyThreads(), preset.getNettyThreads()))
+                .connectTimeout(ObjectUtils.firstNonNull(explicit.getConnectTimeout(), preset.getConnectTimeout()))
+                .timeout(ObjectUtils.firstNonNull(explicit.getTimeout(), preset.getTimeout()))
+                .retryAttempts(ObjectUtils.firstNonNull(explicit.getRetryAttempts(), preset.getRetryAttempts()))
+                .retryInterval(ObjectUtils.firstNonNull(explicit.getRetryInterval(), preset.getRetryInterval()))
+                .idleConnectionTimeout(ObjectUtils.firstNonNull(
+                        explicit.getIdleConnectionTimeout(), preset.getIdleConnectionTimeout()))
+                .pingConnectionInterval(ObjectUtils.firstNonNull(
+                        explicit.getPingConnectionInterval(), preset.getPingConnectionInterval()))
+                .tcpNoDelay(ObjectUtils.firstNonNull(explicit.getTcpNoDelay(), preset.getTcpNoDelay()))
+                .build();
+
+        if ((tuning.getConnectionPoolSize() != null)
+                && (tuning.getConnectionPoolSize() < redisProperties.getConnectionMinimumIdleSize())) {
+            throw new IllegalStateException("Redis connection pool size (" + tuning.getConnectionPoolSize()
+                    + ") is less than its minimum idle size (" + redisProperties.getConnectionMinimumIdleSize() + ")");
+        }
+
+        if ((tuning.getSubscriptionConnectionPoolSize() != null)
+                && (tuning.getSubscriptionConnectionMinimumIdleSize() != null)
+                && (tuning.getSubscriptionConnectionPoolSize() < tuning.getSubscriptionConnectionMinimumIdleSize())) {
+            throw new IllegalStateException("Redis subscription connection pool size ("
+                    + tuning.getSubscriptionConnectionPoolSize() + ") is less than its minimum idle size ("
+                    + tuning.getSubscriptionConnectionMinimumIdleSize() + ")");
+        }
+
+        checkTuningDuration("connect timeout", tuning.getConnectTimeout());
+        checkTuningDuration("timeout", tuning.getTimeout());
+        checkTuningDuration("retry interval", tuning.getRetryInterval());
+        checkTuningDuration("idle connection timeout", tuning.getIdleConnectionTimeout());
+        checkTuningDuration("ping connection interval", tuning.getPingConnectionInterval());
+
+        log.info("Redis connection tuning (preset: {}): {}", redisProperties.getPreset(), tuning);
+        return tuning;
+    }
+
+    /**
+     * Applies pool sizes to primaries and replicas, then the common settings.
+     */
+    private static void applyTuning(BaseMasterSlaveServersConfig<?> serversConfig, RedisProperties.Tuning tuning) {
+        if (tuning.getConnectionPoolSize() != null) {
+            serversConfig.setMasterConnectionPoolSize(tuning.getConnectionPoolSize());
+            serversConfig.setSlaveConnectionPoolSize(tuning.getConnectionPoolSize());
+        }
+        if (tuning.getSubscriptionConnectionPoolSize() != null) {
+            serversConfig.setSubscriptionConnectionPoolSize(tuning.getSubscriptionConnectionPoolSize());
+        }
+        if (tuning.getSubscriptionConnectionMinimumIdleSize() != null) {
+            serversConfig.setSubscriptionConnectionMinimumIdleSize(tuning.getSubscriptionConnectionMinimumIdleSize());
+        }
+
+        applyCommonTuning(serversConfig, tuning);
+    }
+
+    /**
+     * Applies settings common to all topologies, leaves Redisson defaults for those not set.
+     */
+    @SuppressWarnings("deprecation") // retry interval is still supported
+    private static void applyCommonTuning(BaseConfig<?> serverConfig, RedisProperties.Tuning tuning) {
+        if (tuning.getConnectTimeout() != null) {
+            serverConfig.setConnectTimeout(toMillis(tuning.getConnectTimeout()));
+        }
+        if (tuning.getTimeout() != null) {
+            serverConfig.setTimeout(toMillis(tuning.getTimeout()));
+        }
+        if (tuning.getRetryAttempts() != null) {
+            serverConfig.setRetryAttempts(tuning.getRetryAttempts());
+        }
+        if (tuning.getRetryInterval() != null) {
+            serverConfig.setRetryInterval(toMillis(tuning.getRetryInterval()));
+        }
+        if (tuning.getIdleConnectionTimeout() != null) {
+            serverConfig.setIdleConnectionTimeout(toMillis(tuning.getIdleConnectionTimeout()));
+        }
+        if (tuning.getPingConnectionInterval() != null) {
+            serverConfig.setPingConnectionInterval(toMillis(tuning.getPingConnectionInterval()));
+        }
+        if (tuning.getTcpNoDelay() != null) {
+            serverConfig.setTcpNoDelay(tuning.getTcpNoDelay());
+        }
+    }
+
+    /**
+     * Redisson takes durations as {@code int} milliseconds.
+     *
+     * @throws IllegalStateException duration is negative or exceeds {@link #MAX_TUNING_DURATION}
+     */
+    private static void checkTuningDuration(String name, @Nullable Duration duration) {
+        if ((duration != null) && (duration.isNegative() || (duration.compareTo(MAX_TUNING_DURATION) > 0))) {
+            throw new IllegalStateException("Redis " + name + " (" + duration + ") must be between 0 and "
+                    + MAX_TUNING_DURATION);
+        }
+    }
+
+    /**
+     * @param duration duration checked by {@link #checkTuningDuration(String, Duration)}
+     */
+    private static int toMillis(Duration duration) {
+        return Math.toIntExact(duration.toMillis());
+    }
+
+    /**
+     * @return {@link RedisProperties#getHost()} and {@link RedisProperties#getPort()} followed by
+     *         {@link RedisProperties#getNodes()} (for topologies other than {@link RedisTopology#SINGLE}), as
+     *         {@code host:port}
+     */
+    private static List<String> getNodeAddresses(RedisProperties redisProperties) {
+        var addresses = new ArrayList<String>();
+        addresses.add(redisProperties.getHost() + ":" + redisProperties.getPort());
+
+        if ((redisProperties.getTopology() != null) && (redisProperties.getTopology() != RedisTopology.SINGLE)
+                && (redisProperties.getNodes() != null)) {
+            redisProperties.getNodes().stream()
+                    .filter(node -> !addresses.contains(node))
+                    .forEach(addresses::add);
+        }
+
+        return addresses;
+    }
+
+    private static String getSentinelMaster(RedisProperties redisProperties) {
+        if (StringUtils.isBlank(redisProperties.getSentinelMaster())) {
+            throw new IllegalStateException("Sentinel master name is required for " + RedisTopology.SENTINEL
+                    + " Redis topology");
+        }
+
+        return redisProperties.getSentinelMaster();
+    }
+
+    private static ReadMode toRedissonReadMode(@Nullable RedisReadMode readMode) {
+        return switch (ObjectUtils.defaultIfNull(readMode, RedisReadMode.PRIMARY)) {
+            case PRIMARY -> ReadMode.MASTER;
+            // Redisson falls back to masters if there are no slaves
+            case REPLICA_PREFERRED -> ReadMode.SLAVE;
+            case ANY -> ReadMode.MASTER_SLAVE;
+        };
+    }
+
+    /**
+     * Lettuce-specific beans, not created if Lettuce is not on the classpath.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ReadFrom.class)
+    public static class LettuceConfiguration {
+
+        /**
+         * Applies {@link RedisProperties#getReadMode()} to Lettuce connection factory (if used instead of Redisson's
+         * one).
+         */
+        @Bean
+        public LettuceClientConfigurationBuilderCustomizer commonsLettuceClientConfigurationBuilderCustomizer(
+                RedisProperties redisProperties) {
+            log.debug("Building {} bean", LettuceClientConfigurationBuilderCustomizer.class.getSimpleName());
+
+            return builder -> {
+                if ((redisProperties.getReadMode() != null)
+                        && (redisProperties.getTopology() != null)
+                        && (redisProperties.getTopology() != RedisTopology.SINGLE)) {
+                    builder.readFrom(toLettuceReadFrom(redisProperties.getReadMode()));
+                }
+            };
+        }
+
+        private static ReadFrom toLettuceReadFrom(RedisReadMode readMode) {
+            return switch (readMode) {
+                case PRIMARY -> ReadFrom.UPSTREAM;
+                case REPLICA_PREFERRED -> ReadFrom.REPLICA_PREFERRED;
+                case ANY -> ReadFrom.ANY;
+            };
+        }
+
+    }
+
+    /**
+     * Beans created only if {@link RedisProperties#isSharedConnectionFactory()} is {@code true}.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "spring.redis", name = "shared-connection-factory", havingValue = "true")
+    public static class SharedConnectionFactoryConfiguration {
+
+        /**
+         * Exposes Redisson as {@link RedisConnectionFactory}, so that no other connection pools are created (Spring
+         * Boot creates Lettuce connection factory only if there's no such bean). Primary in case there's another
+         * connection factory.
+         */
+        @Primary
+        @Bean
+        public RedissonConnectionFactory commonsRedissonConnectionFactory(RedissonClient redissonClient) {
+            log.info("Redis connection factory shares Redisson connections");
+            return new RedissonConnectionFactory(redissonClient);
+        }
+
+    }
+
     /**
      * Can't just use a custom {@link ObjectMapper} - {@link GenericJackson2JsonRedisSerializer} sets up Jackson to
      * store class names as property names, which is not trivial to do.
      */
-    public static class CustomJsonSerializer extends GenericJackson2JsonRedisSerializer {
+    public static class CustomJsonSerializer extends GenericJackson2JsonRedisSerializer
+            implements StreamingRedisSerializer {
+
+        private final ObjectWriter streamWriter;
+        private final ObjectReader streamReader;
 
         public CustomJsonSerializer() {
             super();
@@ -157,6 +690,67 @@ public class CommonsRedisAutoConfiguration {
                     .setSerializationInclusion(JsonInclude.Include.NON_NULL)
                     // process Java 8 dates
                     .registerModule(new JavaTimeModule());
+
+            streamWriter = createStreamWriter(getObjectMapper());
+            streamReader = createStreamReader(getObjectMapper());
+        }
+
+        private CustomJsonSerializer(ObjectMapper objectMapper) {
+            super(objectMapper);
+            streamWriter = createStreamWriter(objectMapper);
+            streamReader = createStreamReader(objectMapper);
+        }
+
+        /**
+         * Creates a serializer with the same settings (including type information) but another data format.
+         *
+         * @param jsonFactory data format, such as {@link SmileFactory}
+         * @return serializer
+         */
+        public CustomJsonSerializer withFactory(JsonFactory jsonFactory) {
+            return new CustomJsonSerializer(getObjectMapper().copyWith(jsonFactory));
+        }
+
+        @Override
+        public void serialize(@Nullable Object value, OutputStream outputStream) throws IOException {
+            if (value != null) {
+                streamWriter.writeValue(outputStream, value);
+            }
+        }
+
+        @Nullable
+        @Override
+        public Object deserialize(InputStream inputStream, int length) throws IOException {
+            return (length == 0)
+                    ? null
+                    : streamReader.readValue(inputStream);
+        }
+
+        /**
+         * Creates a serializer with the same settings, but storing the given classes under short aliases instead of
+         * their names.
+         *
+         * @param typeAliases classes by aliases
+         * @return serializer
+         */
+        public TypeAliasJsonRedisSerializer withTypeAliases(Map<String, Class<?>> typeAliases) {
+            return new TypeAliasJsonRedisSerializer(getObjectMapper(), typeAliases);
+        }
+
+        /**
+         * @return writer which doesn't close streams (other data may follow)
+         */
+        private static ObjectWriter createStreamWriter(ObjectMapper objectMapper) {
+            return objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        /**
+         * @return reader which doesn't close streams
+         */
+        private static ObjectReader createStreamReader(ObjectMapper objectMapper) {
+            return objectMapper.readerFor(Object.class)
+                    .without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
         }
 
     }
@@ -2,28 +2,58 @@ package guru.nicks.commons.redis.config;
 
 import guru.nicks.commons.cache.domain.CacheConstants;
 import guru.nicks.commons.cache.domain.CacheProperties;
+import guru.nicks.commons.redis.cache.BulkCacheOperations;
+import guru.nicks.commons.redis.cache.CacheInvalidationTopic;
+import guru.nicks.commons.redis.cache.CacheLoadTopic;
+import guru.nicks.commons.redis.cache.DecoratingCacheManager;
+import guru.nicks.commons.redis.cache.MeteredRedisCacheManager;
+import guru.nicks.commons.redis.cache.RedisCacheTtl;
+import guru.nicks.commons.redis.cache.RefreshAheadCache;
+import guru.nicks.commons.redis.cache.ScanUnlinkBatchStrategy;
+import guru.nicks.commons.redis.cache.SingleFlightCache;
+import guru.nicks.commons.redis.cache.TwoLevelCache;
+import guru.nicks.commons.redis.domain.RedisCacheProperties;
 import guru.nicks.commons.utils.text.TimeUtils;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.beans.factory.config.BeanDefinitionCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.data.redis.cache.BatchStrategy;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.time.Duration;
 import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.IntFunction;
+import java.util.function.UnaryOperator;
 
 /**
  * Creates Redis caches with various TTLs according to {@link CacheProperties#getDurations()}. Put/evict operations are
@@ -38,18 +68,46 @@ import java.util.function.IntFunction;
  *  cacheManager.getCache("myCache").put("myKey", "myValue");
  * </pre>
  * <p>
+ * If {@link RedisCacheProperties.NearCache#isEnabled()} is {@code true}, each cache gets a bounded in-process tier
+ * ({@link TwoLevelCache}) in front of Redis, and modifications are broadcast to other nodes via Redis pub/sub.
+ * <p>
+ * If {@link RedisCacheProperties.SingleFlight#isEnabled()} is {@code true}, only one caller cluster-wide loads a
+ * missing entry ({@link SingleFlightCache}), which requires {@code @Cacheable(sync = true)}.
+ * <p>
+ * If {@link RedisCacheProperties.RefreshAhead#isEnabled()} is {@code true}, entries read with
+ * {@code @Cacheable(sync = true)} are recomputed in the background shortly before they expire
+ * ({@link RefreshAheadCache}). TTLs are randomly shortened by up to {@link RedisCacheProperties#getTtlJitter()}.
+ * <p>
+ * Caches are cleared with {@code SCAN} and {@code UNLINK} ({@link ScanUnlinkBatchStrategy}), optionally in the
+ * background, see {@link RedisCacheProperties.Clear}.
+ * <p>
+ * Multi-key lookups (one {@code MGET} for hits, one loader call for misses, one pipeline to cache them) are done with
+ * {@link BulkCacheOperations}.
+ * <p>
+ * Cache statistics (hits, misses, puts, removals), GET/PUT time, serialized value sizes and serialization time are
+ * published to Micrometer for each cache, tagged with cache manager name and cache name
+ * ({@link MeteredRedisCacheManager}).
+ * <p>
  * NOTE: only results of public bean methods can be cached with {@link Cacheable @Cacheable} (because of proxies).
  */
-@EnableConfigurationProperties(CacheProperties.class)
+@EnableConfigurationProperties({CacheProperties.class, RedisCacheProperties.class})
 @EnableCaching // to honor @Cacheable
 @RequiredArgsConstructor
 @Slf4j
 public class CommonsRedisCacheAutoConfiguration {
 
+    /**
+     * Background refreshes waiting for a free thread, the others are rejected.
+     */
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
     // DI
     private final CacheProperties cacheProperties;
+    private final RedisCacheProperties redisCacheProperties;
     private final RedisSerializer<?> redisSerializer;
     private final RedisConnectionFactory redisConnectionFactory;
+    private final ObjectProvider<RedissonClient> redissonClientProvider;
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
     private final GenericApplicationContext appContext;
 
     /**
@@ -57,6 +115,16 @@ public class CommonsRedisCacheAutoConfiguration {
      */
     private RedisSerializationContext.SerializationPair<?> valueSerializer;
 
+    /**
+     * @see #createBatchStrategy()
+     */
+    private BatchStrategy batchStrategy;
+
+    /**
+     * @see #getCacheRefreshExecutor(int)
+     */
+    private ExecutorService cacheRefreshExecutor;
+
     /**
      * Spring-native setting - optional prefix.
      */
@@ -73,6 +141,13 @@ public class CommonsRedisCacheAutoConfiguration {
         createRedisCacheManagers(cacheProperties.getDurations().getDays(), Duration::ofDays);
     }
 
+    @ConditionalOnMissingBean
+    @Bean
+    public BulkCacheOperations bulkCacheOperations() {
+        log.debug("Building {} bean", BulkCacheOperations.class.getSimpleName());
+        return new BulkCacheOperations(redisConnectionFactory);
+    }
+
     /**
      * Creates cache managers based on {@link CacheProperties.CacheDefinition}.
      *
@@ -107,7 +182,7 @@ public class CommonsRedisCacheAutoConfiguration {
                         + "@Cacheable(cacheNames = \"someCache\", key = \"#someArg\", cacheManager = \"{}\")",
                 TimeUtils.humanFormatDuration(ttl), cacheManagerName);
         var cacheConfig = createRedisCacheConfig(ttl);
-        registerRedisCacheManagerBean(cacheManagerName, cacheConfig);
+        registerRedisCacheManagerBean(cacheManagerName, cacheConfig, ttl);
     }
 
     private RedisCacheConfiguration createRedisCacheConfig(Duration ttl) {
@@ -115,8 +190,9 @@ public class CommonsRedisCacheAutoConfiguration {
             valueSerializer = RedisSerializationContext.SerializationPair.fromSerializer(redisSerializer);
         }
 
+        double ttlJitter = ObjectUtils.defaultIfNull(redisCacheProperties.getTtlJitter(), 0.0);
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(ttl)
+                .entryTtl(new RedisCacheTtl(ttl, ttlJitter))
                 .serializeValuesWith(valueSerializer);
 
         if (StringUtils.isNotBlank(keyPrefix)) {
@@ -126,19 +202,196 @@ public class CommonsRedisCacheAutoConfiguration {
         return config;
     }
 
-    private void registerRedisCacheManagerBean(String beanName, RedisCacheConfiguration cacheConfig,
+    @SuppressWarnings("unchecked")
+    private void registerRedisCacheManagerBean(String beanName, RedisCacheConfiguration cacheConfig, Duration ttl,
             BeanDefinitionCustomizer... customizers) {
-        var builder = RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(cacheConfig);
+        if (batchStrategy == null) {
+            batchStrategy = createBatchStrategy();
+        }
+
+        var redisCacheManager = new MeteredRedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory, batchStrategy), cacheConfig,
+                (RedisSerializer<Object>) redisSerializer, beanName,
+                meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+
+        RedisCacheProperties.NearCache nearCache = redisCacheProperties.getNearCache();
+        boolean nearCacheEnabled = (nearCache != null) && nearCache.isEnabled();
+        RedisCacheProperties.SingleFlight singleFlight = redisCacheProperties.getSingleFlight();
+        boolean singleFlightEnabled = (singleFlight != null) && singleFlight.isEnabled();
+        RedisCacheProperties.RefreshAhead refreshAhead = redisCacheProperties.getRefreshAhead();
+        boolean refreshAheadEnabled = (refreshAhead != null) && refreshAhead.isEnabled();
+        boolean decorated = nearCacheEnabled || singleFlightEnabled || refreshAheadEnabled;
 
         // synchronize put/evict operations with ongoing Spring-managed transactions
         if (cacheProperties.isTransactionAware()) {
             log.warn("Redis cache is now transaction-aware - counter-intuitive side effects may arise");
-            builder.transactionAware();
+
+            // otherwise the other decorators (such as near cache) would act before the transaction commits
+            if (!decorated) {
+                redisCacheManager.setTransactionAware(true);
+            }
+        }
+
+        if (!decorated) {
+            appContext.registerBean(beanName, CacheManager.class, () -> redisCacheManager, customizers);
+            return;
+        }
+
+        // not a bean, so Spring won't call this
+        redisCacheManager.initializeCaches();
+
+        // from the innermost decorator to the outermost one
+        UnaryOperator<Cache> decorator = UnaryOperator.identity();
+        if (singleFlightEnabled) {
+            decorator = chain(decorator, createSingleFlightDecorator(beanName, singleFlight, cacheConfig));
+        }
+        // outside of single-flight, so that misses are still loaded by one caller (refreshes are rare anyway)
+        if (refreshAheadEnabled) {
+            decorator = chain(decorator, createRefreshAheadDecorator(beanName, refreshAhead, cacheConfig));
+        }
+        if (nearCacheEnabled) {
+            decorator = chain(decorator, createNearCacheDecorator(beanName, nearCache, cacheConfig, ttl));
+        }
+        if (cacheProperties.isTransactionAware()) {
+            decorator = chain(decorator, TransactionAwareCacheDecorator::new);
         }
 
-        RedisCacheManager cacheManager = builder.build();
+        var cacheManager = new DecoratingCacheManager(redisCacheManager, decorator);
         appContext.registerBean(beanName, CacheManager.class, () -> cacheManager, customizers);
     }
 
+    /**
+     * Creates the strategy shared by all cache managers. For asynchronous clearing, the executor is registered as a
+     * bean, so that the application context shuts it down.
+     *
+     * @return strategy clearing caches with {@code SCAN} and {@code UNLINK}
+     */
+    private BatchStrategy createBatchStrategy() {
+        RedisCacheProperties.Clear clear = ObjectUtils.defaultIfNull(redisCacheProperties.getClear(),
+                RedisCacheProperties.Clear.builder().build());
+        int batchSize = ObjectUtils.defaultIfNull(clear.getBatchSize(),
+                RedisCacheProperties.Clear.DEFAULT_BATCH_SIZE);
+        log.info("Redis caches are cleared {} with SCAN and UNLINK, {} keys per batch",
+                clear.isAsync() ? "asynchronously" : "synchronously", batchSize);
+
+        if (!clear.isAsync()) {
+            return new ScanUnlinkBatchStrategy(batchSize, redisConnectionFactory, null);
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("cache-clear")
+                .daemon(true)
+                .build());
+        appContext.registerBean("cacheClearExecutor", ExecutorService.class, () -> executor,
+                beanDefinition -> beanDefinition.setDestroyMethodName("shutdownNow"));
+
+        return new ScanUnlinkBatchStrategy(batchSize, redisConnectionFactory, executor);
+    }
+
+    /**
+     * Creates a decorator which lets only one caller cluster-wide load a missing entry ({@link SingleFlightCache}).
+     * The load notification topic is registered as a bean in order to unsubscribe on shutdown.
+     *
+     * @param cacheManagerName cache manager name
+     * @param singleFlight     stampede protection properties
+     * @param cacheConfig      Redis cache configuration
+     * @return decorator
+     */
+    private UnaryOperator<Cache> createSingleFlightDecorator(String cacheManagerName,
+            RedisCacheProperties.SingleFlight singleFlight, RedisCacheConfiguration cacheConfig) {
+        String prefix = ObjectUtils.defaultIfNull(singleFlight.getKeyPrefix(),
+                RedisCacheProperties.SingleFlight.DEFAULT_KEY_PREFIX) + ":" + keyPrefix + cacheManagerName;
+        RedissonClient redissonClient = redissonClientProvider.getObject();
+        var loadTopic = new CacheLoadTopic(redissonClient, prefix);
+        appContext.registerBean(cacheManagerName + "LoadTopic", CacheLoadTopic.class, () -> loadTopic);
+
+        Duration leaseTtl = ObjectUtils.defaultIfNull(singleFlight.getLeaseTtl(),
+                RedisCacheProperties.SingleFlight.DEFAULT_LEASE_TTL);
+        Duration waitTime = ObjectUtils.defaultIfNull(singleFlight.getWaitTime(),
+                RedisCacheProperties.SingleFlight.DEFAULT_WAIT_TIME);
+
+        log.info("Stampede protection for '{}': lease TTL of {}, wait time of {}, lease key prefix '{}'",
+                cacheManagerName, TimeUtils.humanFormatDuration(leaseTtl), TimeUtils.humanFormatDuration(waitTime),
+                prefix);
+        return cache -> new SingleFlightCache(cache, redissonClient, prefix, leaseTtl, waitTime,
+                cacheConfig.getConversionService(), loadTopic);
+    }
+
+    /**
+     * Creates a decorator which refreshes entries ahead of their expiration ({@link RefreshAheadCache}).
+     *
+     * @param cacheManagerName cache manager name
+     * @param refreshAhead     refresh-ahead properties
+     * @param cacheConfig      Redis cache configuration
+     * @return decorator
+     */
+    private UnaryOperator<Cache> createRefreshAheadDecorator(String cacheManagerName,
+            RedisCacheProperties.RefreshAhead refreshAhead, RedisCacheConfiguration cacheConfig) {
+        double beta = ObjectUtils.defaultIfNull(refreshAhead.getBeta(), RedisCacheProperties.RefreshAhead.DEFAULT_BETA);
+        Executor executor = getCacheRefreshExecutor(ObjectUtils.defaultIfNull(refreshAhead.getThreads(),
+                RedisCacheProperties.RefreshAhead.DEFAULT_THREADS));
+        // see createRedisCacheConfig()
+        var ttl = (RedisCacheTtl) cacheConfig.getTtlFunction();
+
+        log.info("Refresh-ahead for '{}': beta of {}", cacheManagerName, beta);
+        return cache -> new RefreshAheadCache(cache, ttl, beta, executor, cacheConfig.getConversionService());
+    }
+
+    /**
+     * Creates the executor shared by all cache managers on first call, and registers it as a bean to be shut down with
+     * the application context.
+     *
+     * @param threads number of threads
+     * @return executor which rejects tasks if it's overloaded (refreshes are optional)
+     */
+    private Executor getCacheRefreshExecutor(int threads) {
+        if (cacheRefreshExecutor == null) {
+            ThreadFactory threadFactory = new BasicThreadFactory.Builder()
+                    .namingPattern("cache-refresh-%d")
+                    .daemon(true)
+                    .build();
+            cacheRefreshExecutor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY), threadFactory);
+
+            appContext.registerBean("cacheRefreshExecutor", ExecutorService.class, () -> cacheRefreshExecutor,
+                    beanDefinition -> beanDefinition.setDestroyMethodName("shutdownNow"));
+        }
+
+        return cacheRefreshExecutor;
+    }
+
+    /**
+     * Creates a decorator which puts {@link TwoLevelCache} in front of each Redis cache. The invalidation topic is
+     * registered as a bean in order to unsubscribe on shutdown.
+     *
+     * @param cacheManagerName cache manager name
+     * @param nearCache        near cache properties
+     * @param cacheConfig      Redis cache configuration
+     * @param ttl              Redis cache TTL
+     * @return decorator
+     */
+    private UnaryOperator<Cache> createNearCacheDecorator(String cacheManagerName,
+            RedisCacheProperties.NearCache nearCache, RedisCacheConfiguration cacheConfig, Duration ttl) {
+        String channelName = ObjectUtils.defaultIfNull(nearCache.getTopicPrefix(),
+                RedisCacheProperties.NearCache.DEFAULT_TOPIC_PREFIX) + ":" + keyPrefix + cacheManagerName;
+        var invalidationTopic = new CacheInvalidationTopic(redissonClientProvider.getObject(), channelName);
+        appContext.registerBean(cacheManagerName + "InvalidationTopic", CacheInvalidationTopic.class,
+                () -> invalidationTopic);
+
+        int maximumSize = ObjectUtils.defaultIfNull(nearCache.getMaximumSize(),
+                RedisCacheProperties.NearCache.DEFAULT_MAXIMUM_SIZE);
+        // local entries must not outlive Redis ones
+        Duration localTtl = ObjectUtils.min(ttl, ObjectUtils.defaultIfNull(nearCache.getTtl(),
+                RedisCacheProperties.NearCache.DEFAULT_TTL));
+
+        log.info("Near cache for '{}': up to {} entries per cache, TTL of {}, invalidation channel '{}'",
+                cacheManagerName, maximumSize, TimeUtils.humanFormatDuration(localTtl), channelName);
+        return cache -> new TwoLevelCache(cache, maximumSize, localTtl, cacheConfig.getConversionService(),
+                invalidationTopic);
+    }
+
+    private static UnaryOperator<Cache> chain(UnaryOperator<Cache> inner, UnaryOperator<Cache> outer) {
+        return cache -> outer.apply(inner.apply(cache));
+    }
+
 }
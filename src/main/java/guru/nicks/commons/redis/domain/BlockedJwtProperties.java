@@ -0,0 +1,180 @@
+package guru.nicks.commons.redis.domain;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.NonFinal;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Blocked JWT storage properties.
+ */
+@ConfigurationProperties(prefix = "spring.redis.blocked-jwt")
+@Validated
+// immutability
+@Value
+@NonFinal // CGLIB creates a subclass to bind property values (nested classes don't need this)
+@Builder(toBuilder = true)
+public class BlockedJwtProperties {
+
+    /**
+     * Nullable - {@link BlockedTokenStorage#REPOSITORY} is used if not set.
+     */
+    @Valid
+    Storage storage;
+
+    /**
+     * Nullable - Bloom filter is disabled if not set.
+     */
+    @Valid
+    BloomFilter bloomFilter;
+
+    /**
+     * Nullable - {@link JwtKeyDerivation#CHECKSUM} is used if not set.
+     */
+    JwtKeyDerivation keyDerivation;
+
+    /**
+     * Nullable - defaults are used if not set.
+     */
+    @Valid
+    LocalCache localCache;
+
+    /**
+     * Blocked token storage engine.
+     * <p>
+     * Migration from {@link BlockedTokenStorage#REPOSITORY} to {@link BlockedTokenStorage#KEY}: first, roll out
+     * {@link BlockedTokenStorage#MIGRATING} to all nodes, then {@link BlockedTokenStorage#KEY}. When the tokens blocked
+     * before that have expired, set {@link #getLegacyFallback()} to {@code false} - the legacy index set will be
+     * deleted on startup.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Storage {
+
+        public static final String DEFAULT_KEY_PREFIX = "blocked-jwt";
+
+        BlockedTokenStorage type;
+
+        /**
+         * Key prefix for {@link BlockedTokenStorage#KEY}, must differ from the legacy keyspace. Default is
+         * {@value #DEFAULT_KEY_PREFIX}.
+         */
+        String keyPrefix;
+
+        /**
+         * Whether {@link BlockedTokenStorage#KEY} lookups check legacy hash keys too (in the same Redis command).
+         * Default is {@code true}.
+         */
+        Boolean legacyFallback;
+
+    }
+
+    /**
+     * Redis-backed Bloom filter of blocked token checksums, each node keeps a local copy of it. Negative answers skip
+     * Redis lookups.
+     * <p>
+     * WARNING: tokens blocked before the filter has been enabled are not in the filter, so enable it when such tokens
+     * have already expired (or accept that they'll be considered not blocked).
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class BloomFilter {
+
+        public static final long DEFAULT_EXPECTED_INSERTIONS = 100_000;
+        public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.01;
+        public static final Duration DEFAULT_ROTATION_PERIOD = Duration.ofHours(1);
+        public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(10);
+        public static final String DEFAULT_KEY_PREFIX = "blocked-access-token:bloom";
+
+        boolean enabled;
+
+        /**
+         * Expected number of tokens blocked during {@link #getRotationPeriod()}, determines the filter size. Default is
+         * {@value #DEFAULT_EXPECTED_INSERTIONS}.
+         */
+        @Positive
+        Long expectedInsertions;
+
+        /**
+         * Desired false positive rate when {@link #getExpectedInsertions()} is reached. Default is
+         * {@value #DEFAULT_FALSE_POSITIVE_RATE}.
+         */
+        @Positive
+        @DecimalMax(value = "1", inclusive = false)
+        Double falsePositiveRate;
+
+        /**
+         * Each period has its own filter, so entries of expired tokens age out. A token is added to all the filters
+         * its lifetime spans, so the period doesn't have to be longer than the token lifetime. Default is 1 hour.
+         */
+        Duration rotationPeriod;
+
+        /**
+         * How often the local copy is refreshed (lazily, on access). Tokens blocked on other nodes may be considered
+         * not blocked for that long. Default is 10 seconds.
+         */
+        Duration refreshInterval;
+
+        /**
+         * Redis key prefix. Default is {@value #DEFAULT_KEY_PREFIX}.
+         */
+        String keyPrefix;
+
+    }
+
+    /**
+     * In-memory cache of 'is token blocked' answers, each node has its own one. Its statistics are exported as
+     * Micrometer metrics (cache name is {@value #METRIC_CACHE_NAME}) - compare the size with the number of active
+     * tokens and watch the eviction count.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class LocalCache {
+
+        public static final String METRIC_CACHE_NAME = "blockedJwt";
+
+        public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+        public static final Duration DEFAULT_POSITIVE_TTL = Duration.ofMinutes(10);
+        public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofMinutes(10);
+        public static final Duration DEFAULT_REFRESH_BATCH_DELAY = Duration.ofMillis(10);
+
+        /**
+         * Default is {@value #DEFAULT_MAXIMUM_SIZE}.
+         */
+        @Positive
+        Long maximumSize;
+
+        /**
+         * How long 'blocked' answers are cached. Blocked tokens never get unblocked, so this can be as long as the
+         * token lifetime. Default is 10 minutes.
+         */
+        Duration positiveTtl;
+
+        /**
+         * How long 'not blocked' answers are cached, i.e. for how long tokens blocked on other nodes may still be
+         * accepted by this node. Default is 10 minutes.
+         */
+        Duration negativeTtl;
+
+        /**
+         * Nullable - refresh-ahead is disabled if not set. If set, 'not blocked' answers older than that are reloaded
+         * in the background on access (while the current answer is still returned). Must be shorter than
+         * {@link #getNegativeTtl()} to make any sense.
+         */
+        Duration refreshAfterWrite;
+
+        /**
+         * Background reloads requested within this period are resolved with a single Redis call. Default is 10
+         * milliseconds.
+         */
+        Duration refreshBatchDelay;
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package guru.nicks.commons.redis.domain;
+
+import guru.nicks.commons.redis.blocklist.KeyBlockedTokenStore;
+import guru.nicks.commons.redis.blocklist.MigratingBlockedTokenStore;
+import guru.nicks.commons.redis.blocklist.RepositoryBlockedTokenStore;
+
+/**
+ * Blocked token storage engine.
+ */
+public enum BlockedTokenStorage {
+
+    /**
+     * @see RepositoryBlockedTokenStore
+     */
+    REPOSITORY,
+
+    /**
+     * @see KeyBlockedTokenStore
+     */
+    KEY,
+
+    /**
+     * Writes to both {@link #REPOSITORY} and {@link #KEY}, reads from {@link #KEY} (with legacy fallback).
+     *
+     * @see MigratingBlockedTokenStore
+     */
+    MIGRATING
+
+}
@@ -0,0 +1,112 @@
+package guru.nicks.commons.redis.domain;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.NonFinal;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.PatternMatchUtils;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distributed lock properties.
+ */
+@ConfigurationProperties(prefix = "spring.redis.lock")
+@Validated
+// immutability
+@Value
+@NonFinal // CGLIB creates a subclass to bind property values (nested classes don't need this)
+@Builder(toBuilder = true)
+public class DistributedLockProperties {
+
+    /**
+     * Nullable - {@link LockMode#FAIR} is used if not set.
+     */
+    LockMode defaultMode;
+
+    /**
+     * Nullable - lock modes by lock name patterns (see {@link PatternMatchUtils#simpleMatch(String, String)}), the
+     * first match wins. Patterns containing special characters must be bracketed:
+     * {@code spring.redis.lock.modes[order-*]=NON_FAIR}.
+     */
+    Map<String, LockMode> modes;
+
+    /**
+     * Nullable - how long to wait for locks unless specified per call, {@code null} means forever.
+     */
+    Duration defaultWaitTime;
+
+    /**
+     * Nullable - local coalescing is disabled if not set.
+     */
+    @Valid
+    LocalCoalescing localCoalescing;
+
+    /**
+     * Nullable - defaults are used if not set.
+     */
+    @Valid
+    Metrics metrics;
+
+    /**
+     * Threads of the same node wanting the same lock first queue locally, and only the head of the local queue
+     * competes for the Redis lock. When the holder finishes while other local threads are waiting, the Redis lock is
+     * handed off to the next one without being released.
+     * <p>
+     * Handoffs make the lock unfair to other nodes, so their number in a row is limited.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class LocalCoalescing {
+
+        public static final int DEFAULT_MAX_HANDOFFS = 8;
+
+        boolean enabled;
+
+        /**
+         * How many times in a row the Redis lock can be handed off locally before being released to let other nodes
+         * acquire it. Default is {@value #DEFAULT_MAX_HANDOFFS}.
+         */
+        @PositiveOrZero
+        Integer maxHandoffs;
+
+    }
+
+    /**
+     * Lock metrics (acquisition and hold times, contention, lease overruns, unlock failures) are tagged with lock name
+     * patterns rather than lock names, which may be unbounded (for example, contain entity IDs).
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Metrics {
+
+        public static final String OTHER_LOCKS_TAG = "other";
+        public static final Duration DEFAULT_CONTENTION_THRESHOLD = Duration.ofMillis(10);
+
+        /**
+         * Nullable - lock name patterns used as metric tags (see
+         * {@link PatternMatchUtils#simpleMatch(String, String)}), the first match wins. Then the patterns of
+         * {@link DistributedLockProperties#getModes()} are tried. Locks matching none of them are tagged as
+         * {@value #OTHER_LOCKS_TAG}.
+         */
+        List<String> namePatterns;
+
+        /**
+         * Nullable - if set, waiting for or holding a lock longer than that is logged as a warning.
+         */
+        Duration slowLockThreshold;
+
+        /**
+         * Nullable - acquisitions taking longer than that are counted as contended (uncontended ones take a single
+         * Redis round trip). Default is 10 milliseconds.
+         */
+        Duration contentionThreshold;
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package guru.nicks.commons.redis.domain;
+
+import guru.nicks.commons.redis.blocklist.ChecksumJwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.JtiJwtKeyDerivationStrategy;
+
+/**
+ * How blocked token keys are derived from tokens.
+ */
+public enum JwtKeyDerivation {
+
+    /**
+     * @see ChecksumJwtKeyDerivationStrategy
+     */
+    CHECKSUM,
+
+    /**
+     * Falls back to {@link #CHECKSUM} for tokens without the {@code jti} claim.
+     *
+     * @see JtiJwtKeyDerivationStrategy
+     */
+    JTI
+
+}
@@ -0,0 +1,44 @@
+package guru.nicks.commons.redis.domain;
+
+import org.redisson.api.RFencedLock;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+/**
+ * Distributed lock flavor.
+ */
+public enum LockMode {
+
+    /**
+     * Waiters acquire the lock in the order of their arrival. The most expensive one: maintains a waiter queue and a
+     * timeout sorted set in Redis.
+     *
+     * @see RedissonClient#getFairLock(String)
+     */
+    FAIR,
+
+    /**
+     * Plain {@link RLock}: waiters are notified via pub/sub and race for the lock.
+     *
+     * @see RedissonClient#getLock(String)
+     */
+    NON_FAIR,
+
+    /**
+     * Waiters poll with exponential backoff instead of subscribing to pub/sub. Cheaper when there are lots of
+     * different locks held for a short time each.
+     *
+     * @see RedissonClient#getSpinLock(String)
+     */
+    SPIN,
+
+    /**
+     * Non-fair lock which issues a monotonically increasing fencing token on each acquisition, so that resources can
+     * reject writes of holders whose lease has expired.
+     *
+     * @see RedissonClient#getFencedLock(String)
+     * @see RFencedLock
+     */
+    FENCED
+
+}
@@ -0,0 +1,27 @@
+package guru.nicks.commons.redis.domain;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Per-call lock settings, both are nullable - {@link DistributedLockProperties} defaults are used if not set.
+ */
+@Value
+@Builder(toBuilder = true)
+public class LockOptions {
+
+    /**
+     * All settings come from {@link DistributedLockProperties}.
+     */
+    public static final LockOptions DEFAULT = LockOptions.builder().build();
+
+    LockMode mode;
+
+    /**
+     * How long to wait for the lock, {@code null} means forever.
+     */
+    Duration waitTime;
+
+}
@@ -0,0 +1,79 @@
+package guru.nicks.commons.redis.domain;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.NonFinal;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Distributed rate limiter properties.
+ */
+@ConfigurationProperties(prefix = "spring.redis.rate-limiter")
+@Validated
+// immutability
+@Value
+@NonFinal // CGLIB creates a subclass to bind property values (nested classes don't need this)
+@Builder(toBuilder = true)
+public class RateLimiterProperties {
+
+    public static final String DEFAULT_KEY_PREFIX = "rate-limiter";
+
+    /**
+     * Redis key prefix. Default is {@value #DEFAULT_KEY_PREFIX}.
+     */
+    String keyPrefix;
+
+    /**
+     * Nullable - limiters by name.
+     */
+    @Valid
+    Map<String, Limiter> limiters;
+
+    /**
+     * Token bucket: up to {@link #getRate()} permits per {@link #getPeriod()}, the bucket capacity is the same as the
+     * rate.
+     * <p>
+     * Each node leases permits from Redis in batches of {@link #getLeaseSize()} and hands them out locally. Therefore,
+     * permits leased by a node are unavailable to other nodes until used or returned (when the lease expires), and the
+     * global rate may be exceeded by up to one lease per node within a period (for permits leased at the end of one
+     * period and used at the beginning of the next one). The lease size should be much smaller than the rate divided
+     * by the number of nodes.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Limiter {
+
+        public static final int DEFAULT_LEASE_SIZE = 100;
+        public static final Duration DEFAULT_LEASE_TTL = Duration.ofSeconds(1);
+
+        @NotNull
+        @Positive
+        Long rate;
+
+        /**
+         * At least 1 millisecond.
+         */
+        @NotNull
+        Duration period;
+
+        /**
+         * Permits leased from Redis at once. Default is {@value #DEFAULT_LEASE_SIZE}.
+         */
+        @Positive
+        Integer leaseSize;
+
+        /**
+         * Unused leased permits are returned to Redis after this period. Default is 1 second.
+         */
+        Duration leaseTtl;
+
+    }
+
+}
@@ -0,0 +1,177 @@
+package guru.nicks.commons.redis.domain;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.NonFinal;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Redis cache manager properties (extra to TTL-based cache definitions which are part of common cache properties).
+ */
+@ConfigurationProperties(prefix = "spring.redis.cache")
+@Validated
+// immutability
+@Value
+@NonFinal // CGLIB creates a subclass to bind property values (nested classes don't need this)
+@Builder(toBuilder = true)
+public class RedisCacheProperties {
+
+    /**
+     * Nullable - near cache is disabled if not set.
+     */
+    @Valid
+    NearCache nearCache;
+
+    /**
+     * Nullable - stampede protection is disabled if not set.
+     */
+    @Valid
+    SingleFlight singleFlight;
+
+    /**
+     * Nullable - refresh-ahead is disabled if not set.
+     */
+    @Valid
+    RefreshAhead refreshAhead;
+
+    /**
+     * Nullable - maximum fraction each entry TTL is randomly shortened by, so that entries cached together don't expire
+     * together. No jitter if not set.
+     */
+    @DecimalMin("0")
+    @DecimalMax(value = "1", inclusive = false)
+    Double ttlJitter;
+
+    /**
+     * Nullable - defaults are used if not set.
+     */
+    @Valid
+    Clear clear;
+
+    /**
+     * Bounded in-process (Caffeine) tier in front of each Redis cache. Puts and evicts are broadcast over Redis pub/sub
+     * so that other nodes drop their local copies.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class NearCache {
+
+        public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+        public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+        public static final String DEFAULT_TOPIC_PREFIX = "cache-invalidation";
+
+        boolean enabled;
+
+        /**
+         * Maximum number of entries per cache (not per cache manager). Default is {@value #DEFAULT_MAXIMUM_SIZE}.
+         */
+        @Positive
+        Integer maximumSize;
+
+        /**
+         * Local entry TTL, never longer than the TTL of the cache manager. Bounds the staleness in case an invalidation
+         * message gets lost. Default is 5 minutes.
+         */
+        Duration ttl;
+
+        /**
+         * Redis pub/sub channel prefix, the channel name is this prefix + cache key prefix (if any) + cache manager
+         * name. Default is {@value #DEFAULT_TOPIC_PREFIX}.
+         */
+        String topicPrefix;
+
+    }
+
+    /**
+     * Cache stampede protection: on a miss in {@code @Cacheable(sync = true)}, only one caller cluster-wide (holding a
+     * short Redis lease for the key) calls the loader, the others wait for it to finish.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class SingleFlight {
+
+        public static final Duration DEFAULT_LEASE_TTL = Duration.ofSeconds(10);
+        public static final Duration DEFAULT_WAIT_TIME = Duration.ofSeconds(3);
+        public static final String DEFAULT_KEY_PREFIX = "cache-lease";
+
+        boolean enabled;
+
+        /**
+         * Should be longer than the loaders usually take - if a lease expires, another caller calls the loader too.
+         * Default is 10 seconds.
+         */
+        Duration leaseTtl;
+
+        /**
+         * How long to wait for the lease holder, then the loader is called anyway. Default is 3 seconds.
+         */
+        Duration waitTime;
+
+        /**
+         * Prefix of Redis lease keys and of the pub/sub channel name, followed by cache key prefix (if any) and cache
+         * manager name. Default is {@value #DEFAULT_KEY_PREFIX}.
+         */
+        String keyPrefix;
+
+    }
+
+    /**
+     * Probabilistic early refresh: as an entry read by {@code @Cacheable(sync = true)} approaches its expiration, it's
+     * recomputed in the background (with a probability rising over time), while the callers get the current value.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class RefreshAhead {
+
+        public static final double DEFAULT_BETA = 1.0;
+        public static final int DEFAULT_THREADS = 4;
+
+        boolean enabled;
+
+        /**
+         * Values above 1 make refreshes earlier, below 1 - later. Default is {@value #DEFAULT_BETA}.
+         */
+        @Positive
+        Double beta;
+
+        /**
+         * Background refresh threads shared by all cache managers. Default is {@value #DEFAULT_THREADS}.
+         */
+        @Positive
+        Integer threads;
+
+    }
+
+    /**
+     * How caches are cleared ({@code @CacheEvict(allEntries = true)}, {@code Cache.clear()}): always with {@code SCAN}
+     * and {@code UNLINK}, never with {@code KEYS} which blocks Redis.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Clear {
+
+        public static final int DEFAULT_BATCH_SIZE = 1000;
+
+        /**
+         * {@code SCAN COUNT} hint and maximum number of keys per {@code UNLINK}. Default is
+         * {@value #DEFAULT_BATCH_SIZE}.
+         */
+        @Positive
+        Integer batchSize;
+
+        /**
+         * Whether caches are cleared in the background, so that callers don't wait for caches of millions of keys to
+         * be cleared. Entries may be read after {@code clear()} has returned.
+         */
+        boolean async;
+
+    }
+
+}
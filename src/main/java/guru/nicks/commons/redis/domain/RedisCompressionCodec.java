@@ -0,0 +1,45 @@
+package guru.nicks.commons.redis.domain;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+
+/**
+ * Compression codec of values written to Redis. Compressed values are prefixed with the codec header byte (which
+ * differs from {@link RedisSerializationFormat} header bytes and never starts a JSON document), so uncompressed values
+ * are recognized as such.
+ */
+@RequiredArgsConstructor
+public enum RedisCompressionCodec {
+
+    /**
+     * Fast, moderate compression ratio. Decompression is several times faster than compression.
+     */
+    LZ4((byte) 0x10),
+
+    /**
+     * JDK Deflate (no native libraries needed) - slower, but compresses JSON about 1.5x better than {@link #LZ4}.
+     */
+    DEFLATE((byte) 0x11);
+
+    @Getter
+    private final byte header;
+
+    /**
+     * Detects codec by the first byte of a serialized value.
+     *
+     * @param firstByte first byte of a serialized value
+     * @return codec, {@code null} if the value is not compressed
+     */
+    @Nullable
+    public static RedisCompressionCodec fromFirstByte(byte firstByte) {
+        for (RedisCompressionCodec codec : values()) {
+            if (codec.header == firstByte) {
+                return codec;
+            }
+        }
+
+        return null;
+    }
+
+}
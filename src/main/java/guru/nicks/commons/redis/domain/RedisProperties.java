@@ -1,9 +1,11 @@
 package guru.nicks.commons.redis.domain;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Builder;
 import lombok.ToString;
 import lombok.Value;
@@ -11,6 +13,9 @@ import lombok.experimental.NonFinal;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
  * Redis connection properties.
  */
@@ -22,12 +27,40 @@ import org.springframework.validation.annotation.Validated;
 @Builder(toBuilder = true)
 public class RedisProperties {
 
+    /**
+     * Nullable - {@link RedisTopology#SINGLE} is used if not set.
+     */
+    RedisTopology topology;
+
+    /**
+     * Redis server for {@link RedisTopology#SINGLE}, any cluster node for {@link RedisTopology#CLUSTER}, a sentinel
+     * for {@link RedisTopology#SENTINEL}.
+     */
     @NotBlank
     String host;
 
     @Positive
     int port;
 
+    /**
+     * Nullable - other cluster nodes / sentinels (in addition to {@link #getHost()} and {@link #getPort()}), as
+     * {@code host:port}. Ignored for {@link RedisTopology#SINGLE}.
+     */
+    List<String> nodes;
+
+    /**
+     * Name of the primary monitored by sentinels, required for {@link RedisTopology#SENTINEL}.
+     */
+    String sentinelMaster;
+
+    /**
+     * Applies to Redisson and to Lettuce (if Lettuce connection factory is used). Read-heavy workloads (caches, JWT
+     * blocklist) scale with replicas if set to {@link RedisReadMode#REPLICA_PREFERRED}, while locks keep working on
+     * primaries. Nullable - {@link RedisReadMode#PRIMARY} is used if not set. Ignored for
+     * {@link RedisTopology#SINGLE}.
+     */
+    RedisReadMode readMode;
+
     /**
      * Usually between 0 and 16, inclusive. Default database is always 0, yet this property is non-nullable to make the
      * choice explicit.
@@ -51,10 +84,92 @@ public class RedisProperties {
 
     boolean trustAnyCertificate;
 
+    /**
+     * Whether Redisson is exposed as the primary
+     * {@link org.springframework.data.redis.connection.RedisConnectionFactory} (used by Redis templates, cache
+     * managers, repositories), so that everything shares Redisson's multiplexed connections instead of opening another
+     * connection pool (for example, Lettuce one) to each Redis node.
+     */
+    boolean sharedConnectionFactory;
+
     /**
      * Default (24) is rejected by Redis when there are many microservices and each one wants that much.
      */
     @Min(1)
     int connectionMinimumIdleSize;
 
+    /**
+     * Nullable - Redisson defaults are used for settings not set in {@link #getTuning()}.
+     */
+    RedisTuningPreset preset;
+
+    /**
+     * Nullable - settings of {@link #getPreset()} (or Redisson defaults) are used if not set.
+     */
+    @Valid
+    Tuning tuning;
+
+    /**
+     * Redisson connection settings, each one is nullable. For cluster and sentinel topologies, pool sizes apply to
+     * primaries and replicas separately. Durations can't be negative or longer than {@link Integer#MAX_VALUE}
+     * milliseconds (about 24 days).
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Tuning {
+
+        /**
+         * Maximum number of connections per node. Can't be less than
+         * {@link RedisProperties#getConnectionMinimumIdleSize()}.
+         */
+        @Positive
+        Integer connectionPoolSize;
+
+        /**
+         * Maximum number of pub/sub connections per node.
+         */
+        @Positive
+        Integer subscriptionConnectionPoolSize;
+
+        /**
+         * Can't be greater than {@link #getSubscriptionConnectionPoolSize()}.
+         */
+        @PositiveOrZero
+        Integer subscriptionConnectionMinimumIdleSize;
+
+        /**
+         * Threads serving all Redis connections, 0 means twice the number of CPU cores.
+         */
+        @PositiveOrZero
+        Integer nettyThreads;
+
+        Duration connectTimeout;
+
+        /**
+         * How long to wait for a command response (after the command has been sent).
+         */
+        Duration timeout;
+
+        /**
+         * How many times a failed command is resent.
+         */
+        @PositiveOrZero
+        Integer retryAttempts;
+
+        Duration retryInterval;
+
+        /**
+         * Connections idle for longer than that are closed (unless the pool would shrink below its minimum idle size).
+         */
+        Duration idleConnectionTimeout;
+
+        /**
+         * How often each connection is checked with {@code PING}, 0 disables the checks.
+         */
+        Duration pingConnectionInterval;
+
+        Boolean tcpNoDelay;
+
+    }
+
 }
@@ -0,0 +1,26 @@
+package guru.nicks.commons.redis.domain;
+
+/**
+ * Where read commands go in {@link RedisTopology#CLUSTER} and {@link RedisTopology#SENTINEL} topologies. Writes
+ * (including all lock operations and scripts) always go to primaries.
+ * <p>
+ * Replication is asynchronous: reading from replicas may return stale data for a short while after a write.
+ */
+public enum RedisReadMode {
+
+    /**
+     * All reads go to primaries.
+     */
+    PRIMARY,
+
+    /**
+     * Reads go to replicas, or to primaries if there are no replicas available.
+     */
+    REPLICA_PREFERRED,
+
+    /**
+     * Reads go to primaries and replicas.
+     */
+    ANY
+
+}
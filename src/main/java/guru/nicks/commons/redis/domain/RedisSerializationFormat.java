@@ -0,0 +1,59 @@
+package guru.nicks.commons.redis.domain;
+
+import guru.nicks.commons.serializer.NativeJavaSerializer;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+
+/**
+ * Format of values written to Redis. Each format except {@link #JSON} prefixes values with its header byte, so values
+ * written in any format can be read regardless of the currently configured one.
+ * <p>
+ * Header bytes are control characters which never start a JSON document, so legacy (headerless) JSON values are
+ * recognized as such.
+ */
+@RequiredArgsConstructor
+public enum RedisSerializationFormat {
+
+    /**
+     * Jackson JSON with class names stored as properties. Human-readable, but the slowest and the largest one. Written
+     * without a header byte, for compatibility with values written before formats became selectable.
+     */
+    JSON(null),
+
+    /**
+     * {@link NativeJavaSerializer} - the fastest one, but the values are not readable outside of JVM. Requires a
+     * {@link NativeJavaSerializer} bean.
+     */
+    NATIVE((byte) 0x01),
+
+    /**
+     * Jackson Smile - binary JSON with the same type information as {@link #JSON}, more compact and faster to parse.
+     */
+    SMILE((byte) 0x02);
+
+    /**
+     * Nullable - values are written without a header byte.
+     */
+    @Getter
+    @Nullable
+    private final Byte header;
+
+    /**
+     * Detects format by the first byte of a serialized value.
+     *
+     * @param firstByte first byte of a serialized value
+     * @return format, {@link #JSON} if the byte is not a known header
+     */
+    public static RedisSerializationFormat fromFirstByte(byte firstByte) {
+        for (RedisSerializationFormat format : values()) {
+            if ((format.header != null) && (format.header == firstByte)) {
+                return format;
+            }
+        }
+
+        return JSON;
+    }
+
+}
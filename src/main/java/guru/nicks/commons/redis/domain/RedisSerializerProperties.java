@@ -0,0 +1,93 @@
+package guru.nicks.commons.redis.domain;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import lombok.Builder;
+import lombok.Value;
+import lombok.experimental.NonFinal;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.Map;
+
+/**
+ * Redis value serialization properties.
+ */
+@ConfigurationProperties(prefix = "spring.redis.serializer")
+@Validated
+// immutability
+@Value
+@NonFinal // CGLIB creates a subclass to bind property values (nested classes don't need this)
+@Builder(toBuilder = true)
+public class RedisSerializerProperties {
+
+    /**
+     * Format of written values. Values written in other formats are still readable, therefore the format can be
+     * changed on a live cluster without flushing caches (nodes not yet restarted can't read the new format though,
+     * unless they're already aware of it). Nullable - {@link RedisSerializationFormat#JSON} is used if not set.
+     */
+    RedisSerializationFormat format;
+
+    /**
+     * Short stable IDs stored (by {@link RedisSerializationFormat#JSON} and {@link RedisSerializationFormat#SMILE})
+     * instead of fully qualified names of the given classes, for example {@code type-aliases.user=com.example.User}.
+     * Often shrinks small values by a third. Classes not listed are stored under their names.
+     * <p>
+     * Aliases are persisted in Redis, so never reassign them. Register new aliases on all nodes before they start
+     * writing values with them: nodes unaware of an alias can't read such values. Aliases can't contain dots. Nullable
+     * - class names are stored if not set.
+     */
+    Map<String, Class<?>> typeAliases;
+
+    /**
+     * Whether Redisson objects (without an explicit codec) are serialized with the {@code redisSerializer} bean
+     * instead of Redisson's default codec, so that Redisson and Spring Data Redis share one format. WARNING: values
+     * previously written by Redisson's default codec become unreadable.
+     */
+    boolean redissonCodec;
+
+    /**
+     * Nullable - compression is disabled if not set. Compressed values are readable regardless of this setting.
+     */
+    @Valid
+    Compression compression;
+
+    /**
+     * Values larger than {@link #getThreshold()} (after serialization) are compressed, unless compression doesn't make
+     * them any smaller. Saves Redis memory and network bandwidth, and shortens large replies which otherwise stall the
+     * Redis event loop.
+     */
+    @Value
+    @Builder(toBuilder = true)
+    public static class Compression {
+
+        public static final RedisCompressionCodec DEFAULT_CODEC = RedisCompressionCodec.LZ4;
+        public static final int DEFAULT_THRESHOLD = 1024;
+        public static final int DEFAULT_DEFLATE_LEVEL = 6;
+
+        boolean enabled;
+
+        /**
+         * Default is {@link RedisCompressionCodec#LZ4}.
+         */
+        RedisCompressionCodec codec;
+
+        /**
+         * Minimum serialized value size (in bytes) to compress. Default is {@value #DEFAULT_THRESHOLD}.
+         */
+        @Positive
+        Integer threshold;
+
+        /**
+         * Compression level for {@link RedisCompressionCodec#DEFLATE}, 1 (fastest) to 9 (best compression). Default
+         * is {@value #DEFAULT_DEFLATE_LEVEL}.
+         */
+        @Min(1)
+        @Max(9)
+        Integer deflateLevel;
+
+    }
+
+}
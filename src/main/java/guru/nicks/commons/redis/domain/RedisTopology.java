@@ -0,0 +1,24 @@
+package guru.nicks.commons.redis.domain;
+
+/**
+ * Redis deployment topology.
+ */
+public enum RedisTopology {
+
+    /**
+     * Single server, all reads and writes go to it.
+     */
+    SINGLE,
+
+    /**
+     * Redis Cluster: keys are sharded between primaries, each primary may have replicas. Only database 0 is
+     * available.
+     */
+    CLUSTER,
+
+    /**
+     * Primary with replicas, monitored by Redis Sentinel which promotes a replica if the primary fails.
+     */
+    SENTINEL
+
+}
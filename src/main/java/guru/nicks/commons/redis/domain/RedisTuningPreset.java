@@ -0,0 +1,48 @@
+package guru.nicks.commons.redis.domain;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Coherent groups of Redisson connection settings for typical workloads. Each setting explicitly set in
+ * {@link RedisProperties#getTuning()} overrides the preset one, settings absent in both are Redisson defaults.
+ */
+public enum RedisTuningPreset {
+
+    /**
+     * Interactive requests: commands fail fast (and are retried once, shortly) instead of waiting for a stalled node,
+     * dead connections are detected early.
+     */
+    LOW_LATENCY(RedisProperties.Tuning.builder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .timeout(Duration.ofSeconds(1))
+            .retryAttempts(1)
+            .retryInterval(Duration.ofMillis(50))
+            .pingConnectionInterval(Duration.ofSeconds(5))
+            .tcpNoDelay(true)
+            .build()),
+
+    /**
+     * Batch jobs, bulk cache loading: more connections and Netty threads, more patient timeouts and retries.
+     */
+    HIGH_THROUGHPUT(RedisProperties.Tuning.builder()
+            .connectionPoolSize(128)
+            .subscriptionConnectionPoolSize(64)
+            .nettyThreads(64)
+            .connectTimeout(Duration.ofSeconds(10))
+            .timeout(Duration.ofSeconds(10))
+            .retryAttempts(4)
+            .retryInterval(Duration.ofSeconds(1))
+            .idleConnectionTimeout(Duration.ofSeconds(60))
+            .tcpNoDelay(true)
+            .build());
+
+    @Getter
+    private final RedisProperties.Tuning tuning;
+
+    RedisTuningPreset(RedisProperties.Tuning tuning) {
+        this.tuning = tuning;
+    }
+
+}
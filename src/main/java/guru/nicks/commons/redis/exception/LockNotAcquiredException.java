@@ -0,0 +1,25 @@
+package guru.nicks.commons.redis.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Distributed lock hasn't been acquired within the wait time (or the wait has been interrupted).
+ */
+@Getter
+public class LockNotAcquiredException extends RuntimeException {
+
+    private final String lockName;
+
+    public LockNotAcquiredException(String lockName, Duration waitTime) {
+        super("Lock '" + lockName + "' not acquired within " + waitTime);
+        this.lockName = lockName;
+    }
+
+    public LockNotAcquiredException(String lockName, Throwable cause) {
+        super("Lock '" + lockName + "' not acquired: " + cause.getMessage(), cause);
+        this.lockName = lockName;
+    }
+
+}
@@ -0,0 +1,4 @@
+@NonNullApi
+package guru.nicks.commons.redis.exception;
+
+import org.springframework.lang.NonNullApi;
@@ -1,43 +1,175 @@
 package guru.nicks.commons.redis.impl;
 
-import guru.nicks.commons.auth.domain.BlockedTokenHash;
 import guru.nicks.commons.exception.http.ForbiddenException;
+import guru.nicks.commons.redis.blocklist.BlockedTokenBloomFilter;
+import guru.nicks.commons.redis.blocklist.BlockedTokenStore;
+import guru.nicks.commons.redis.blocklist.ChecksumJwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.JwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.RepositoryBlockedTokenStore;
+import guru.nicks.commons.redis.domain.BlockedJwtProperties;
 import guru.nicks.commons.redis.repository.BlockedTokenRepository;
 import guru.nicks.commons.service.BlockedJwtService;
-import guru.nicks.commons.utils.auth.AuthUtils;
 
 import am.ik.yavi.meta.ConstraintArguments;
-import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
-import org.springframework.data.keyvalue.repository.KeyValueRepository;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
 import static guru.nicks.commons.validation.dsl.ValiDsl.checkNotNull;
 
 /**
- * Redis-based implementation.
+ * Redis-based implementation, the storage engine is pluggable ({@link BlockedTokenStore}). Optionally, checks
+ * {@link BlockedTokenBloomFilter} before going to Redis. Keys are derived from tokens by
+ * {@link JwtKeyDerivationStrategy}.
+ * <p>
+ * Non-blocking counterparts ({@link #isJwtBlockedAsync(Jwt)}, {@link #blockJwtAsync(Jwt)}) share the same in-memory
+ * cache, so concurrent lookups of the same token (both blocking and non-blocking) result in a single Redis call.
+ * <p>
+ * If {@link BlockedJwtProperties.LocalCache#getRefreshAfterWrite()} is set, background reloads are resolved in batches
+ * by a dedicated thread, which is stopped on shutdown.
  */
-@RequiredArgsConstructor
-public class BlockedJwtServiceImpl implements BlockedJwtService {
+public class BlockedJwtServiceImpl implements BlockedJwtService, DisposableBean {
 
+    /**
+     * @deprecated default of {@link BlockedJwtProperties.LocalCache#getPositiveTtl()} and
+     *         {@link BlockedJwtProperties.LocalCache#getNegativeTtl()}, use those instead
+     */
+    @Deprecated
     public static final int IS_JWT_BLOCKED_CACHE_TTL_MINUTES = 10;
 
     /**
+     * Asynchronous in order to coalesce concurrent lookups of the same key. Loads run in the calling thread: blocking
+     * lookups must not hop to another thread, and non-blocking ones return a future without blocking anyway.
+     *
      * @see #isJwtBlocked(Jwt)
+     * @see #isJwtBlockedAsync(Jwt)
+     */
+    private final AsyncLoadingCache<String, Boolean> isJwtBlockedCache;
+
+    private final BlockedTokenStore blockedTokenStore;
+
+    @Nullable
+    private final BlockedTokenBloomFilter bloomFilter;
+
+    private final JwtKeyDerivationStrategy keyDerivationStrategy;
+
+    /**
+     * Background reloads waiting to be resolved with a single Redis call.
+     */
+    private final Queue<PendingRefresh> pendingRefreshes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final long refreshBatchDelayNanos;
+
+    /**
+     * Single thread, at most one queued task (see {@link #refreshScheduled}): each run resolves all the pending
+     * reloads with a single blocking Redis call, which must not occupy the common pool. {@code null} if reloads are
+     * disabled.
+     */
+    @Nullable
+    private final ScheduledExecutorService refreshExecutor;
+
+    public BlockedJwtServiceImpl(BlockedTokenRepository blockedTokenRepository) {
+        this(new RepositoryBlockedTokenStore(blockedTokenRepository), null);
+    }
+
+    /**
+     * Constructor. Keys are derived with {@link ChecksumJwtKeyDerivationStrategy}.
+     *
+     * @param blockedTokenStore storage engine
+     * @param bloomFilter       optional Bloom filter, negative answers of which skip Redis lookups
+     */
+    public BlockedJwtServiceImpl(BlockedTokenStore blockedTokenStore, @Nullable BlockedTokenBloomFilter bloomFilter) {
+        this(blockedTokenStore, bloomFilter, new ChecksumJwtKeyDerivationStrategy());
+    }
+
+    /**
+     * Constructor. The in-memory cache has default settings.
+     *
+     * @param blockedTokenStore     storage engine
+     * @param bloomFilter           optional Bloom filter, negative answers of which skip Redis lookups
+     * @param keyDerivationStrategy derives keys from tokens
+     */
+    public BlockedJwtServiceImpl(BlockedTokenStore blockedTokenStore, @Nullable BlockedTokenBloomFilter bloomFilter,
+            JwtKeyDerivationStrategy keyDerivationStrategy) {
+        this(blockedTokenStore, bloomFilter, keyDerivationStrategy, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param blockedTokenStore     storage engine
+     * @param bloomFilter           optional Bloom filter, negative answers of which skip Redis lookups
+     * @param keyDerivationStrategy derives keys from tokens
+     * @param localCacheProperties  in-memory cache settings, defaults are used if {@code null}
      */
-    private final Cache<String, Boolean> isJwtBlockedCache = Caffeine.newBuilder()
-            .maximumSize(10_000)
-            .expireAfterWrite(Duration.ofMinutes(IS_JWT_BLOCKED_CACHE_TTL_MINUTES))
-            .build();
+    public BlockedJwtServiceImpl(
+            @NonNull // Lombok creates runtime nullness check for this own annotation only
+            BlockedTokenStore blockedTokenStore,
+            @Nullable BlockedTokenBloomFilter bloomFilter,
+            @NonNull JwtKeyDerivationStrategy keyDerivationStrategy,
+            @Nullable BlockedJwtProperties.LocalCache localCacheProperties) {
+        this.blockedTokenStore = blockedTokenStore;
+        this.bloomFilter = bloomFilter;
+        this.keyDerivationStrategy = keyDerivationStrategy;
+
+        BlockedJwtProperties.LocalCache properties = ObjectUtils.defaultIfNull(localCacheProperties,
+                BlockedJwtProperties.LocalCache.builder().build());
+        Duration refreshBatchDelay = ObjectUtils.defaultIfNull(properties.getRefreshBatchDelay(),
+                BlockedJwtProperties.LocalCache.DEFAULT_REFRESH_BATCH_DELAY);
+        refreshBatchDelayNanos = refreshBatchDelay.toNanos();
+        refreshExecutor = (properties.getRefreshAfterWrite() == null)
+                ? null
+                : Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                        .namingPattern("blocked-jwt-refresh")
+                        .daemon(true)
+                        .build());
+        isJwtBlockedCache = createCache(properties);
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
 
-    @NonNull // Lombok creates runtime nullness check for this own annotation only
-    private final BlockedTokenRepository blockedTokenRepository;
+    /**
+     * Exports statistics of the in-memory cache.
+     *
+     * @param meterRegistry meter registry
+     */
+    public void bindMetrics(MeterRegistry meterRegistry) {
+        CaffeineCacheMetrics.monitor(meterRegistry, isJwtBlockedCache,
+                BlockedJwtProperties.LocalCache.METRIC_CACHE_NAME);
+    }
 
     @Override
     public <T> T ifBelongsToUser(Jwt jwt, String userId, Function<? super Jwt, T> mapper) {
@@ -58,23 +190,50 @@ public class BlockedJwtServiceImpl implements BlockedJwtService {
         Instant expiresAt = jwt.getExpiresAt();
         String cacheKey = generateCacheKey(jwt);
 
-        BlockedTokenHash blockedTokenHash = BlockedTokenHash.builder()
-                .tokenChecksum(cacheKey)
-                // add some extra time to account for JWT expiration time precision
-                .timeToLiveSec(Duration
-                        .between(Instant.now(), expiresAt)
-                        .toSeconds() + 60)
-                .build();
-        blockedTokenRepository.save(blockedTokenHash);
-        isJwtBlockedCache.put(cacheKey, true);
+        // add some extra time to account for JWT expiration time precision
+        Duration ttl = Duration.between(Instant.now(), expiresAt).plusSeconds(60);
+
+        // first, so that a failure here doesn't leave a blocked token invisible to other nodes
+        if (bloomFilter != null) {
+            bloomFilter.add(cacheKey, expiresAt);
+        }
+
+        blockedTokenStore.block(cacheKey, ttl);
+        isJwtBlockedCache.synchronous().put(cacheKey, true);
+    }
+
+    /**
+     * Non-blocking version of {@link #blockJwt(Jwt)}.
+     *
+     * @param jwt token
+     * @return future completed when the token has been blocked
+     */
+    public CompletableFuture<Void> blockJwtAsync(Jwt jwt) {
+        checkNotNull(jwt, "jwt");
+
+        Instant expiresAt = jwt.getExpiresAt();
+        String cacheKey = generateCacheKey(jwt);
+        // add some extra time to account for JWT expiration time precision
+        Duration ttl = Duration.between(Instant.now(), expiresAt).plusSeconds(60);
+
+        // first, so that a failure here doesn't leave a blocked token invisible to other nodes
+        CompletableFuture<Void> bloomFilterFuture = (bloomFilter == null)
+                ? CompletableFuture.completedFuture(null)
+                : bloomFilter.addAsync(cacheKey, expiresAt);
+
+        return bloomFilterFuture
+                .thenCompose(unused -> blockedTokenStore.blockAsync(cacheKey, ttl))
+                .thenRun(() -> isJwtBlockedCache.put(cacheKey, CompletableFuture.completedFuture(true)));
     }
 
     /**
-     * Caches the result for {@value #IS_JWT_BLOCKED_CACHE_TTL_MINUTES} minutes in memory to reduce the load on Redis
-     * and make authentication faster ({@link KeyValueRepository#existsById(Object)} takes almost 50ms according to 99
-     * percentile metrics).
+     * Caches the result in memory (see {@link BlockedJwtProperties.LocalCache}) to reduce the load on Redis
+     * and make authentication faster ({@link RepositoryBlockedTokenStore#isBlocked(String)} takes almost 50ms according
+     * to 99 percentile metrics).
      * <p>
      * WARNING: caching in memory means each app maintains its own cache (this is intentional for performance reasons).
+     * The same applies to the Bloom filter (if any): tokens blocked on other nodes may be considered not blocked until
+     * the local copy of the filter is refreshed.
      */
     @Override
     public boolean isJwtBlocked(Jwt jwt) {
@@ -83,18 +242,213 @@ public class BlockedJwtServiceImpl implements BlockedJwtService {
 
         // theoretically, Caffeine may return null (for a missing key), but in this use case, it should not
         return Boolean.TRUE.equals(
-                isJwtBlockedCache.get(cacheKey, blockedTokenRepository::existsById));
+                isJwtBlockedCache.synchronous().get(cacheKey, this::isBlockedInRedis));
+    }
+
+    /**
+     * Non-blocking version of {@link #isJwtBlocked(Jwt)}: never parks the calling thread if the storage engine supports
+     * asynchronous lookups (see {@link BlockedTokenStore#isBlockedAsync(String)}).
+     *
+     * @param jwt token
+     * @return future completed with {@code true} if the token is blocked
+     */
+    public CompletableFuture<Boolean> isJwtBlockedAsync(Jwt jwt) {
+        checkNotNull(jwt, "jwt");
+        String cacheKey = generateCacheKey(jwt);
+
+        return isJwtBlockedCache
+                .get(cacheKey, (key, executor) -> isBlockedInRedisAsync(key))
+                .thenApply(Boolean.TRUE::equals);
+    }
+
+    /**
+     * Bulk version of {@link #isJwtBlocked(Jwt)}: cached answers come from memory, all the others are resolved with a
+     * single Redis round trip (if the storage engine supports that, see {@link BlockedTokenStore#areBlocked}) and then
+     * cached.
+     *
+     * @param jwts tokens
+     * @return for each token (in the iteration order of the argument), whether it's blocked
+     */
+    public Map<Jwt, Boolean> areJwtsBlocked(Collection<Jwt> jwts) {
+        checkNotNull(jwts, "jwts");
+
+        Map<Jwt, String> cacheKeys = new LinkedHashMap<>();
+        for (Jwt jwt : jwts) {
+            cacheKeys.put(jwt, generateCacheKey(jwt));
+        }
+
+        Map<String, Boolean> blockedFlags = isJwtBlockedCache.synchronous()
+                .getAll(cacheKeys.values(), this::areBlockedInRedis);
+
+        Map<Jwt, Boolean> result = new LinkedHashMap<>();
+        cacheKeys.forEach((jwt, cacheKey) ->
+                result.put(jwt, Boolean.TRUE.equals(blockedFlags.get(cacheKey))));
+        return result;
+    }
+
+    private boolean isBlockedInRedis(String cacheKey) {
+        if ((bloomFilter != null) && !bloomFilter.mightContain(cacheKey)) {
+            return false;
+        }
+
+        return blockedTokenStore.isBlocked(cacheKey);
+    }
+
+    private CompletableFuture<Boolean> isBlockedInRedisAsync(String cacheKey) {
+        if ((bloomFilter != null) && !bloomFilter.mightContain(cacheKey)) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return blockedTokenStore.isBlockedAsync(cacheKey);
+    }
+
+    private AsyncLoadingCache<String, Boolean> createCache(BlockedJwtProperties.LocalCache properties) {
+        Caffeine<String, Boolean> builder = Caffeine.newBuilder()
+                .maximumSize(ObjectUtils.defaultIfNull(properties.getMaximumSize(),
+                        BlockedJwtProperties.LocalCache.DEFAULT_MAXIMUM_SIZE))
+                .executor(Runnable::run)
+                .recordStats()
+                .expireAfter(new BlockedFlagExpiry(
+                        ObjectUtils.defaultIfNull(properties.getPositiveTtl(),
+                                BlockedJwtProperties.LocalCache.DEFAULT_POSITIVE_TTL),
+                        ObjectUtils.defaultIfNull(properties.getNegativeTtl(),
+                                BlockedJwtProperties.LocalCache.DEFAULT_NEGATIVE_TTL)));
+
+        if (properties.getRefreshAfterWrite() != null) {
+            builder.refreshAfterWrite(properties.getRefreshAfterWrite());
+        }
+
+        return builder.buildAsync(new AsyncCacheLoader<String, Boolean>() {
+            @Override
+            public CompletableFuture<Boolean> asyncLoad(String cacheKey, Executor executor) {
+                return isBlockedInRedisAsync(cacheKey);
+            }
+
+            @Override
+            public CompletableFuture<Boolean> asyncReload(String cacheKey, Boolean oldValue, Executor executor) {
+                // blocked tokens never get unblocked
+                return Boolean.TRUE.equals(oldValue)
+                        ? CompletableFuture.completedFuture(true)
+                        : scheduleRefresh(cacheKey);
+            }
+        });
+    }
+
+    /**
+     * Queues the key to be reloaded along with other keys whose reload has been requested within the batch delay.
+     * Called by Caffeine only if {@link BlockedJwtProperties.LocalCache#getRefreshAfterWrite()} is set, therefore
+     * {@link #refreshExecutor} exists.
+     *
+     * @param cacheKey cache key
+     * @return future completed when the batch has been reloaded
+     */
+    private CompletableFuture<Boolean> scheduleRefresh(String cacheKey) {
+        var future = new CompletableFuture<Boolean>();
+        pendingRefreshes.add(new PendingRefresh(cacheKey, future));
+
+        if (refreshScheduled.compareAndSet(false, true)) {
+            refreshExecutor.schedule(this::refreshPending, refreshBatchDelayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        return future;
+    }
+
+    private void refreshPending() {
+        // keys queued from now on will be picked up by the next batch (or by this one, which is harmless)
+        refreshScheduled.set(false);
+
+        List<PendingRefresh> batch = new ArrayList<>();
+        for (PendingRefresh pendingRefresh = pendingRefreshes.poll(); pendingRefresh != null;
+                pendingRefresh = pendingRefreshes.poll()) {
+            batch.add(pendingRefresh);
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            Set<String> cacheKeys = new LinkedHashSet<>();
+            batch.forEach(pendingRefresh -> cacheKeys.add(pendingRefresh.cacheKey()));
+
+            // single round trip if the storage engine supports that
+            Map<String, Boolean> blockedFlags = areBlockedInRedis(cacheKeys);
+            batch.forEach(pendingRefresh -> pendingRefresh.future()
+                    .complete(Boolean.TRUE.equals(blockedFlags.get(pendingRefresh.cacheKey()))));
+        } catch (RuntimeException e) {
+            // Caffeine keeps the current values
+            batch.forEach(pendingRefresh -> pendingRefresh.future().completeExceptionally(e));
+        }
+    }
+
+    private Map<String, Boolean> areBlockedInRedis(Set<? extends String> cacheKeys) {
+        Map<String, Boolean> result = new LinkedHashMap<>();
+        List<String> maybeBlocked = new ArrayList<>(cacheKeys.size());
+
+        for (String cacheKey : cacheKeys) {
+            if ((bloomFilter != null) && !bloomFilter.mightContain(cacheKey)) {
+                result.put(cacheKey, false);
+            } else {
+                maybeBlocked.add(cacheKey);
+            }
+        }
+
+        if (!maybeBlocked.isEmpty()) {
+            result.putAll(blockedTokenStore.areBlocked(maybeBlocked));
+        }
+
+        return result;
     }
 
     /**
-     * Generates a cache key for the given JWT by calling {@link AuthUtils#calculateAccessTokenChecksum(String)} on the
-     * serialized token value.
+     * Generates a cache key for the given JWT with {@link JwtKeyDerivationStrategy}.
      *
      * @param jwt token
      * @return cache key
      */
     protected String generateCacheKey(Jwt jwt) {
-        return AuthUtils.calculateAccessTokenChecksum(jwt.getTokenValue());
+        return keyDerivationStrategy.deriveKey(jwt);
+    }
+
+    /**
+     * Background reload waiting to be resolved.
+     *
+     * @param cacheKey cache key
+     * @param future   completed with the reloaded value
+     */
+    private record PendingRefresh(String cacheKey, CompletableFuture<Boolean> future) {
+    }
+
+    /**
+     * Different TTLs for 'blocked' and 'not blocked' answers. Reads don't prolong entries.
+     */
+    private static class BlockedFlagExpiry implements Expiry<String, Boolean> {
+
+        private final long positiveTtlNanos;
+        private final long negativeTtlNanos;
+
+        BlockedFlagExpiry(Duration positiveTtl, Duration negativeTtl) {
+            positiveTtlNanos = positiveTtl.toNanos();
+            negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String cacheKey, Boolean isBlocked, long currentTime) {
+            return Boolean.TRUE.equals(isBlocked) ? positiveTtlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String cacheKey, Boolean isBlocked, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(cacheKey, isBlocked, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String cacheKey, Boolean isBlocked, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+
     }
 
 }
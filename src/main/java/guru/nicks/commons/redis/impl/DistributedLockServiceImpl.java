@@ -1,34 +1,708 @@
 package guru.nicks.commons.redis.impl;
 
+import guru.nicks.commons.redis.domain.DistributedLockProperties;
+import guru.nicks.commons.redis.domain.LockMode;
+import guru.nicks.commons.redis.domain.LockOptions;
+import guru.nicks.commons.redis.exception.LockNotAcquiredException;
 import guru.nicks.commons.service.DistributedLockService;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.redisson.api.RFencedLock;
+import org.redisson.api.RFuture;
 import org.redisson.api.RLock;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.lang.Nullable;
+import org.springframework.util.PatternMatchUtils;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
 import java.util.function.Supplier;
 
 /**
- * {@link RLock}-based implementation.
+ * {@link RLock}-based implementation. Lock mode ({@link LockMode}) and wait time can be chosen per call
+ * ({@link LockOptions}) or per lock name ({@link DistributedLockProperties}). By default, locks are fair and waits are
+ * unlimited.
+ * <p>
+ * If {@link DistributedLockProperties.LocalCoalescing#isEnabled()} is {@code true}, threads of this node first queue
+ * on a local lock, and the Redis lock is owned by the node-wide synthetic owner ID rather than by a thread, which
+ * makes it possible to hand the Redis lock off from one local thread to another. Nested calls for the same lock name
+ * in the same thread don't touch the Redis lock, which is released or handed off when the outermost call finishes.
+ * <p>
+ * Metrics (tagged with lock name pattern and lock mode, see {@link DistributedLockProperties.Metrics}):
+ * <ul>
+ *     <li>{@value #ACQUIRE_METRIC} - time to acquire the lock (tagged with result: acquired / timeout)</li>
+ *     <li>{@value #HOLD_METRIC} - time the lock is held for</li>
+ *     <li>{@value #CONTENTION_METRIC} - acquisitions (including timed out ones) which had to wait because the lock was
+ *     held, i.e. took longer than {@link DistributedLockProperties.Metrics#getContentionThreshold()}</li>
+ *     <li>{@value #LEASE_OVERRUN_METRIC} - locks held longer than their TTL, i.e. mutual exclusion may have been
+ *     broken</li>
+ *     <li>{@value #UNLOCK_FAILURE_METRIC} - failed unlocks (typically because the lease has already expired)</li>
+ * </ul>
  */
 @RequiredArgsConstructor
+@Slf4j
 public class DistributedLockServiceImpl implements DistributedLockService {
 
+    public static final String ACQUIRE_METRIC = "redis.lock.acquire";
+    public static final String HOLD_METRIC = "redis.lock.hold";
+    public static final String CONTENTION_METRIC = "redis.lock.contention";
+    public static final String LEASE_OVERRUN_METRIC = "redis.lock.lease.overruns";
+    public static final String UNLOCK_FAILURE_METRIC = "redis.lock.unlock.failures";
+
+    /**
+     * Synthetic Redis lock owner IDs are negative in order not to clash with thread IDs.
+     */
+    private static final AtomicLong OWNER_ID_SEQUENCE = new AtomicLong();
+
+    /**
+     * KEYS: lock name. ARGV: lease time (millis), lock owner entry. Renews the lease only if the owner still holds the
+     * lock (the same check Redisson does when it prolongs leases). Returns 1 if the lease has been renewed.
+     */
+    private static final String RENEW_LEASE_SCRIPT = """
+            if redis.call('HEXISTS', KEYS[1], ARGV[2]) == 1 then
+                redis.call('PEXPIRE', KEYS[1], ARGV[1])
+                return 1
+            end
+            return 0
+            """;
+
     // DI
     private final RedissonClient redissonClient;
 
+    @NonNull // Lombok creates runtime nullness check for this own annotation only
+    private final DistributedLockProperties properties;
+
+    @NonNull
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Local locks which are in use, by lock name.
+     */
+    private final ConcurrentMap<String, LocalLock> localLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Meters by lock name pattern and lock mode.
+     */
+    private final ConcurrentMap<String, LockMeters> lockMeters = new ConcurrentHashMap<>();
+
+    public DistributedLockServiceImpl(RedissonClient redissonClient) {
+        this(redissonClient, DistributedLockProperties.builder().build());
+    }
+
+    public DistributedLockServiceImpl(RedissonClient redissonClient, DistributedLockProperties properties) {
+        this(redissonClient, properties, Metrics.globalRegistry);
+    }
+
     @Override
     public <T> T withExclusiveLock(String lockName, Duration lockTtl, Supplier<T> code) {
-        RLock lock = redissonClient.getFairLock(lockName);
+        return withExclusiveLock(lockName, lockTtl, LockOptions.DEFAULT, code);
+    }
+
+    /**
+     * Same as {@link #withExclusiveLock(String, Duration, Supplier)}, but with custom options.
+     *
+     * @param lockName lock name
+     * @param lockTtl  lock lease time
+     * @param options  lock options
+     * @param code     code to run under the lock
+     * @param <T>      result type
+     * @return code result
+     * @throws LockNotAcquiredException the lock hasn't been acquired within the wait time
+     */
+    public <T> T withExclusiveLock(String lockName, Duration lockTtl, LockOptions options, Supplier<T> code) {
+        return withExclusiveLockOrElse(lockName, lockTtl, options, code, null);
+    }
+
+    /**
+     * Same as {@link #withExclusiveLock(String, Duration, LockOptions, Supplier)}, but calls the fallback (without
+     * the lock) instead of throwing an exception if the lock hasn't been acquired within the wait time.
+     *
+     * @param lockName lock name
+     * @param lockTtl  lock lease time
+     * @param options  lock options
+     * @param code     code to run under the lock
+     * @param fallback code to run if the lock hasn't been acquired
+     * @param <T>      result type
+     * @return result of code or fallback
+     */
+    public <T> T withExclusiveLockOrElse(String lockName, Duration lockTtl, LockOptions options, Supplier<T> code,
+            @Nullable Supplier<T> fallback) {
+        LockMode mode = resolveMode(lockName, options);
+        Duration waitTime = resolveWaitTime(options);
+
+        DistributedLockProperties.LocalCoalescing localCoalescing = properties.getLocalCoalescing();
+        if ((localCoalescing != null) && localCoalescing.isEnabled()) {
+            int maxHandoffs = ObjectUtils.defaultIfNull(localCoalescing.getMaxHandoffs(),
+                    DistributedLockProperties.LocalCoalescing.DEFAULT_MAX_HANDOFFS);
+            return withLocallyCoalescedLock(lockName, mode, lockTtl, waitTime, maxHandoffs, code, fallback);
+        }
+
+        RLock lock = getLock(lockName, mode);
+        LockMeters meters = getLockMeters(lockName, mode);
+        long waitStartNanos = System.nanoTime();
 
+        if (!acquire(lock, lockName, waitTime, lockTtl)) {
+            meters.recordTimeout(System.nanoTime() - waitStartNanos);
+
+            if (fallback == null) {
+                throw new LockNotAcquiredException(lockName, waitTime);
+            }
+
+            return fallback.get();
+        }
+
+        long holdStartNanos = meters.recordAcquired(lockName, System.nanoTime() - waitStartNanos);
         try {
-            lock.lock(lockTtl.toMillis(), TimeUnit.MILLISECONDS);
             return code.get();
         } finally {
-            lock.unlock();
+            meters.recordHold(lockName, lockTtl, System.nanoTime() - holdStartNanos);
+            meters.unlock(lock::unlock);
+        }
+    }
+
+    /**
+     * Non-blocking version of {@link #withExclusiveLock(String, Duration, Supplier)} for code which returns a future
+     * and therefore may complete in another thread. The lock is owned by a synthetic owner ID unique to this call
+     * rather than by the calling thread, and both waiting for and releasing the lock never block a thread (which
+     * matters for virtual threads too: they don't get pinned inside Redisson's waits).
+     * <p>
+     * Local coalescing ({@link DistributedLockProperties#getLocalCoalescing()}) doesn't apply here.
+     *
+     * @param lockName lock name
+     * @param lockTtl  lock lease time
+     * @param code     code to run under the lock, called in a {@link ForkJoinPool#commonPool() common pool} thread -
+     *                 not in a Redisson I/O thread, so it may block (though it shouldn't, for the sake of the pool)
+     * @param <T>      result type
+     * @return future completed with the code result after the lock has been released
+     */
+    public <T> CompletableFuture<T> withExclusiveLockAsync(String lockName, Duration lockTtl,
+            Supplier<? extends CompletionStage<T>> code) {
+        return withExclusiveLockAsync(lockName, lockTtl, LockOptions.DEFAULT, code);
+    }
+
+    /**
+     * Same as {@link #withExclusiveLockAsync(String, Duration, Supplier)}, but with custom options.
+     *
+     * @param lockName lock name
+     * @param lockTtl  lock lease time
+     * @param options  lock options
+     * @param code     code to run under the lock
+     * @param <T>      result type
+     * @return future completed with the code result after the lock has been released, or failed with
+     *         {@link LockNotAcquiredException} if the lock hasn't been acquired within the wait time
+     */
+    public <T> CompletableFuture<T> withExclusiveLockAsync(String lockName, Duration lockTtl, LockOptions options,
+            Supplier<? extends CompletionStage<T>> code) {
+        LockMode mode = resolveMode(lockName, options);
+        Duration waitTime = resolveWaitTime(options);
+        RLock lock = getLock(lockName, mode);
+        LockMeters meters = getLockMeters(lockName, mode);
+        long ownerId = nextOwnerId();
+        long waitStartNanos = System.nanoTime();
+
+        CompletionStage<Boolean> acquisition = (waitTime == null)
+                ? lock.lockAsync(lockTtl.toMillis(), TimeUnit.MILLISECONDS, ownerId).thenApply(unused -> true)
+                : lock.tryLockAsync(waitTime.toMillis(), lockTtl.toMillis(), TimeUnit.MILLISECONDS, ownerId);
+
+        return acquisition.toCompletableFuture().thenComposeAsync(acquired -> {
+            if (!Boolean.TRUE.equals(acquired)) {
+                meters.recordTimeout(System.nanoTime() - waitStartNanos);
+                return CompletableFuture.failedFuture(new LockNotAcquiredException(lockName, waitTime));
+            }
+
+            long holdStartNanos = meters.recordAcquired(lockName, System.nanoTime() - waitStartNanos);
+            CompletionStage<T> codeStage;
+            try {
+                codeStage = code.get();
+            } catch (RuntimeException e) {
+                codeStage = CompletableFuture.failedFuture(e);
+            }
+
+            var result = new CompletableFuture<T>();
+            codeStage.whenComplete((value, codeError) -> {
+                meters.recordHold(lockName, lockTtl, System.nanoTime() - holdStartNanos);
+
+                lock.unlockAsync(ownerId).whenComplete((unused, unlockError) -> {
+                    if (unlockError != null) {
+                        meters.unlockFailures.increment();
+                    }
+
+                    // the code error is more important than the unlock one
+                    if (codeError != null) {
+                        result.completeExceptionally(codeError);
+                    } else if (unlockError != null) {
+                        result.completeExceptionally(unlockError);
+                    } else {
+                        result.complete(value);
+                    }
+                });
+            });
+
+            return result;
+        });
+    }
+
+    /**
+     * Runs code under a {@link LockMode#FENCED} lock. The code receives the fencing token - a number which is greater
+     * than that of any previous holder, so a resource can reject writes of holders whose lease has expired.
+     *
+     * @param lockName lock name
+     * @param lockTtl  lock lease time
+     * @param waitTime how long to wait for the lock, {@code null} means the default wait time
+     * @param code     code to run under the lock
+     * @param <T>      result type
+     * @return code result
+     * @throws LockNotAcquiredException the lock hasn't been acquired within the wait time
+     */
+    public <T> T withFencedLock(String lockName, Duration lockTtl, @Nullable Duration waitTime,
+            LongFunction<T> code) {
+        RFencedLock lock = redissonClient.getFencedLock(lockName);
+        Duration effectiveWaitTime = ObjectUtils.defaultIfNull(waitTime, properties.getDefaultWaitTime());
+        LockMeters meters = getLockMeters(lockName, LockMode.FENCED);
+        long waitStartNanos = System.nanoTime();
+        Long token;
+
+        if (effectiveWaitTime == null) {
+            token = lock.lockAndGetToken(lockTtl.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            try {
+                token = lock.tryLockAndGetToken(effectiveWaitTime.toMillis(), lockTtl.toMillis(),
+                        TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LockNotAcquiredException(lockName, e);
+            }
+
+            if (token == null) {
+                meters.recordTimeout(System.nanoTime() - waitStartNanos);
+                throw new LockNotAcquiredException(lockName, effectiveWaitTime);
+            }
+        }
+
+        long holdStartNanos = meters.recordAcquired(lockName, System.nanoTime() - waitStartNanos);
+        try {
+            return code.apply(token);
+        } finally {
+            meters.recordHold(lockName, lockTtl, System.nanoTime() - holdStartNanos);
+            meters.unlock(lock::unlock);
+        }
+    }
+
+    /**
+     * Resolves lock mode: the one passed explicitly, then the first matching pattern, then the default one.
+     *
+     * @param lockName lock name
+     * @param options  lock options
+     * @return lock mode
+     */
+    protected LockMode resolveMode(String lockName, LockOptions options) {
+        if (options.getMode() != null) {
+            return options.getMode();
+        }
+
+        Map<String, LockMode> modes = properties.getModes();
+        if (modes != null) {
+            for (Map.Entry<String, LockMode> entry : modes.entrySet()) {
+                if (PatternMatchUtils.simpleMatch(entry.getKey(), lockName)) {
+                    return entry.getValue();
+                }
+            }
+        }
+
+        return ObjectUtils.defaultIfNull(properties.getDefaultMode(), LockMode.FAIR);
+    }
+
+    private <T> T withLocallyCoalescedLock(String lockName, LockMode mode, Duration lockTtl,
+            @Nullable Duration waitTime, int maxHandoffs, Supplier<T> code, @Nullable Supplier<T> fallback) {
+        LockMeters meters = getLockMeters(lockName, mode);
+        long waitStartNanos = System.nanoTime();
+        LocalLock localLock = retainLocalLock(lockName);
+
+        try {
+            if (localLock.acquireLocally(lockName, waitTime)) {
+                try {
+                    // nested call of the holder (the mutex is reentrant): the Redis lock is held already, and only
+                    // the outermost call may hand it off or release it
+                    if (localLock.mutex.getHoldCount() > 1) {
+                        return code.get();
+                    }
+
+                    Duration remainingWaitTime = (waitTime == null)
+                            ? null
+                            : waitTime.minusNanos(System.nanoTime() - waitStartNanos);
+
+                    if (localLock.acquireRedisLock(() -> getLock(lockName, mode), lockTtl, remainingWaitTime)) {
+                        long holdStartNanos = meters.recordAcquired(lockName, System.nanoTime() - waitStartNanos);
+
+                        try {
+                            return code.get();
+                        } finally {
+                            meters.recordHold(lockName, lockTtl, System.nanoTime() - holdStartNanos);
+                            meters.unlock(() -> localLock.releaseRedisLock(maxHandoffs));
+                        }
+                    }
+                } finally {
+                    localLock.mutex.unlock();
+                }
+            }
+        } finally {
+            releaseLocalLock(lockName);
         }
+
+        // reached only if the lock hasn't been acquired
+        meters.recordTimeout(System.nanoTime() - waitStartNanos);
+        if (fallback == null) {
+            throw new LockNotAcquiredException(lockName, waitTime);
+        }
+
+        return fallback.get();
+    }
+
+    private LocalLock retainLocalLock(String lockName) {
+        return localLocks.compute(lockName, (name, localLock) -> {
+            LocalLock result = (localLock == null) ? new LocalLock() : localLock;
+            result.users++;
+            return result;
+        });
+    }
+
+    private void releaseLocalLock(String lockName) {
+        localLocks.computeIfPresent(lockName, (name, current) -> {
+            if (--current.users > 0) {
+                return current;
+            }
+
+            // handed off to a waiter which has given up - nobody else can pick up the lock now
+            RLock redisLock = current.redisLock;
+            if (redisLock != null) {
+                current.redisLock = null;
+                redisLock.unlockAsync(current.ownerId).whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to release abandoned lock '{}': {}", lockName, e.getMessage());
+                    }
+                });
+            }
+
+            return null;
+        });
+    }
+
+    @Nullable
+    private Duration resolveWaitTime(LockOptions options) {
+        return ObjectUtils.defaultIfNull(options.getWaitTime(), properties.getDefaultWaitTime());
+    }
+
+    private RLock getLock(String lockName, LockMode mode) {
+        return switch (mode) {
+            case FAIR -> redissonClient.getFairLock(lockName);
+            case NON_FAIR -> redissonClient.getLock(lockName);
+            case SPIN -> redissonClient.getSpinLock(lockName);
+            case FENCED -> redissonClient.getFencedLock(lockName);
+        };
+    }
+
+    /**
+     * Acquires the lock with a single call. Contention is derived from the time it takes (see
+     * {@link LockMeters#recordAcquired(String, long)}), so that no extra Redis round trip is needed for metrics.
+     */
+    private static boolean acquire(RLock lock, String lockName, @Nullable Duration waitTime, Duration lockTtl) {
+        if (waitTime == null) {
+            lock.lock(lockTtl.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        }
+
+        return tryLock(lock, lockName, waitTime, lockTtl);
+    }
+
+    private LockMeters getLockMeters(String lockName, LockMode mode) {
+        String nameTag = resolveMetricNameTag(lockName);
+        return lockMeters.computeIfAbsent(nameTag + ":" + mode, key -> new LockMeters(nameTag, mode));
+    }
+
+    /**
+     * Resolves the lock name pattern used as a metric tag.
+     *
+     * @param lockName lock name
+     * @return lock name pattern
+     */
+    protected String resolveMetricNameTag(String lockName) {
+        DistributedLockProperties.Metrics metricsProperties = properties.getMetrics();
+
+        if ((metricsProperties != null) && (metricsProperties.getNamePatterns() != null)) {
+            for (String pattern : metricsProperties.getNamePatterns()) {
+                if (PatternMatchUtils.simpleMatch(pattern, lockName)) {
+                    return pattern;
+                }
+            }
+        }
+
+        if (properties.getModes() != null) {
+            for (String pattern : properties.getModes().keySet()) {
+                if (PatternMatchUtils.simpleMatch(pattern, lockName)) {
+                    return pattern;
+                }
+            }
+        }
+
+        return DistributedLockProperties.Metrics.OTHER_LOCKS_TAG;
+    }
+
+    private static boolean tryLock(RLock lock, String lockName, Duration waitTime, Duration lockTtl) {
+        try {
+            return lock.tryLock(waitTime.toMillis(), lockTtl.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LockNotAcquiredException(lockName, e);
+        }
+    }
+
+    /**
+     * Prolongs the lease of the lock if it's still held by the given owner, in a single atomic Redis call.
+     *
+     * @param lock    lock
+     * @param ownerId lock owner ID
+     * @param lockTtl new lease time
+     * @return {@code true} if the lease has been renewed, {@code false} if it has expired
+     */
+    private boolean renewLease(RLock lock, long ownerId, Duration lockTtl) {
+        // Redisson's lock owner entry
+        String ownerEntry = redissonClient.getId() + ":" + ownerId;
+
+        Boolean renewed = redissonClient.getScript(StringCodec.INSTANCE).eval(lock.getName(),
+                RScript.Mode.READ_WRITE, RENEW_LEASE_SCRIPT, RScript.ReturnType.BOOLEAN,
+                List.<Object>of(lock.getName()), String.valueOf(lockTtl.toMillis()), ownerEntry);
+        return Boolean.TRUE.equals(renewed);
+    }
+
+    private static long nextOwnerId() {
+        return -OWNER_ID_SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * Blocks until the future is complete.
+     *
+     * @param future future
+     * @param <T>    result type
+     * @return future result
+     * @throws RuntimeException the future has failed (the original exception is unwrapped if possible)
+     */
+    private static <T> T await(RFuture<T> future) {
+        try {
+            return future.toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
+    /**
+     * Node-local queue for a lock name. {@link #users} is modified in {@link ConcurrentMap#compute} of the local lock
+     * map only, the rest is guarded by {@link #mutex}.
+     */
+    private class LocalLock {
+
+        private final ReentrantLock mutex = new ReentrantLock(true);
+
+        private final long ownerId = nextOwnerId();
+
+        /**
+         * Threads holding or waiting for {@link #mutex}.
+         */
+        private int users;
+
+        /**
+         * Redis lock held by this node, if any. Volatile because it's read when the last user leaves.
+         */
+        @Nullable
+        private volatile RLock redisLock;
+
+        private int handoffs;
+
+        boolean acquireLocally(String lockName, @Nullable Duration waitTime) {
+            if (waitTime == null) {
+                mutex.lock();
+                return true;
+            }
+
+            try {
+                return mutex.tryLock(waitTime.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LockNotAcquiredException(lockName, e);
+            }
+        }
+
+        /**
+         * Acquires the Redis lock or takes over the one handed off by the previous local holder (resetting its lease).
+         * Must be called by the outermost holder of {@link #mutex}.
+         */
+        boolean acquireRedisLock(Supplier<RLock> lockFactory, Duration lockTtl, @Nullable Duration waitTime) {
+            RLock lock = redisLock;
+
+            // the lease may have expired during the handoff, then the lock must be acquired anew
+            if ((lock != null) && renewLease(lock, ownerId, lockTtl)) {
+                return true;
+            }
+
+            lock = lockFactory.get();
+            if (waitTime == null) {
+                await(lock.lockAsync(lockTtl.toMillis(), TimeUnit.MILLISECONDS, ownerId));
+            } else if (!await(lock.tryLockAsync(Math.max(0, waitTime.toMillis()), lockTtl.toMillis(),
+                    TimeUnit.MILLISECONDS, ownerId))) {
+                redisLock = null;
+                return false;
+            }
+
+            redisLock = lock;
+            handoffs = 0;
+            return true;
+        }
+
+        /**
+         * Keeps the Redis lock for the next local waiter (if any and if the handoff limit hasn't been reached),
+         * otherwise releases it. Must be called by the outermost holder of {@link #mutex}.
+         */
+        void releaseRedisLock(int maxHandoffs) {
+            if (mutex.hasQueuedThreads() && (handoffs < maxHandoffs)) {
+                handoffs++;
+                return;
+            }
+
+            RLock lock = redisLock;
+            redisLock = null;
+            handoffs = 0;
+
+            if (lock != null) {
+                await(lock.unlockAsync(ownerId));
+            }
+        }
+
+    }
+
+    /**
+     * Meters of locks having the same name pattern and mode.
+     */
+    private class LockMeters {
+
+        private final Timer acquired;
+        private final Timer timedOut;
+        private final Timer hold;
+        private final Counter contention;
+        private final Counter leaseOverruns;
+        private final Counter unlockFailures;
+
+        @Nullable
+        private final Duration slowLockThreshold;
+
+        private final long contentionThresholdNanos;
+
+        LockMeters(String nameTag, LockMode mode) {
+            Tags tags = Tags.of("lock", nameTag, "mode", mode.name());
+
+            acquired = Timer.builder(ACQUIRE_METRIC)
+                    .tags(tags)
+                    .tag("result", "acquired")
+                    .register(meterRegistry);
+            timedOut = Timer.builder(ACQUIRE_METRIC)
+                    .tags(tags)
+                    .tag("result", "timeout")
+                    .register(meterRegistry);
+            hold = Timer.builder(HOLD_METRIC)
+                    .tags(tags)
+                    .register(meterRegistry);
+            contention = Counter.builder(CONTENTION_METRIC)
+                    .tags(tags)
+                    .register(meterRegistry);
+            leaseOverruns = Counter.builder(LEASE_OVERRUN_METRIC)
+                    .tags(tags)
+                    .register(meterRegistry);
+            unlockFailures = Counter.builder(UNLOCK_FAILURE_METRIC)
+                    .tags(tags)
+                    .register(meterRegistry);
+
+            DistributedLockProperties.Metrics metricsProperties = properties.getMetrics();
+            slowLockThreshold = (metricsProperties == null)
+                    ? null
+                    : metricsProperties.getSlowLockThreshold();
+            contentionThresholdNanos = ObjectUtils.defaultIfNull(
+                    (metricsProperties == null) ? null : metricsProperties.getContentionThreshold(),
+                    DistributedLockProperties.Metrics.DEFAULT_CONTENTION_THRESHOLD).toNanos();
+        }
+
+        /**
+         * Waits longer than the contention threshold are counted as contention.
+         *
+         * @return current time (as in {@link System#nanoTime()}), i.e. when the lock has started to be held
+         */
+        long recordAcquired(String lockName, long waitNanos) {
+            acquired.record(waitNanos, TimeUnit.NANOSECONDS);
+
+            if (waitNanos > contentionThresholdNanos) {
+                contention.increment();
+            }
+
+            if (isSlow(waitNanos)) {
+                log.warn("Waited {} ms for lock '{}'", TimeUnit.NANOSECONDS.toMillis(waitNanos), lockName);
+            }
+
+            return System.nanoTime();
+        }
+
+        void recordTimeout(long waitNanos) {
+            timedOut.record(waitNanos, TimeUnit.NANOSECONDS);
+            // the lock has been held all the time
+            contention.increment();
+        }
+
+        void recordHold(String lockName, Duration lockTtl, long holdNanos) {
+            hold.record(holdNanos, TimeUnit.NANOSECONDS);
+
+            if (holdNanos > lockTtl.toNanos()) {
+                leaseOverruns.increment();
+                log.warn("Lock '{}' held for {} ms which exceeds its TTL of {} ms - mutual exclusion may have been "
+                        + "broken", lockName, TimeUnit.NANOSECONDS.toMillis(holdNanos), lockTtl.toMillis());
+            } else if (isSlow(holdNanos)) {
+                log.warn("Lock '{}' held for {} ms", lockName, TimeUnit.NANOSECONDS.toMillis(holdNanos));
+            }
+        }
+
+        void unlock(Runnable unlocker) {
+            try {
+                unlocker.run();
+            } catch (RuntimeException e) {
+                unlockFailures.increment();
+                throw e;
+            }
+        }
+
+        private boolean isSlow(long nanos) {
+            return (slowLockThreshold != null) && (nanos > slowLockThreshold.toNanos());
+        }
+
     }
 
 }
@@ -0,0 +1,292 @@
+package guru.nicks.commons.redis.impl;
+
+import guru.nicks.commons.redis.domain.RateLimiterProperties;
+import guru.nicks.commons.redis.service.DistributedRateLimiterService;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket kept in Redis (as a hash updated by a Lua script which uses Redis server time, so node clocks don't
+ * matter). Each node leases permits in batches and hands them out locally without locking, which takes less than one
+ * Redis call per {@link RateLimiterProperties.Limiter#getLeaseSize()} permits.
+ * <p>
+ * Unused permits are returned to Redis when their lease expires (checked on access and periodically in the background)
+ * and on shutdown.
+ */
+@Slf4j
+public class DistributedRateLimiterServiceImpl implements DistributedRateLimiterService, DisposableBean {
+
+    /**
+     * ARGV: capacity, period (millis), requested permits (negative to return permits). Returns the number of granted
+     * permits.
+     */
+    private static final String TOKEN_BUCKET_SCRIPT = """
+            local capacity = tonumber(ARGV[1])
+            local period = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1])
+            local ts = tonumber(state[2])
+            if tokens == nil or ts == nil then
+                tokens = capacity
+                ts = now
+            end
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * capacity / period)
+            local granted = 0
+            if requested < 0 then
+                tokens = math.min(capacity, tokens - requested)
+            else
+                granted = math.min(requested, math.floor(tokens))
+                tokens = tokens - granted
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], period * 2)
+            return granted
+            """;
+
+    private final RedissonClient redissonClient;
+    private final Map<String, RateLimiterProperties.Limiter> limiterProperties;
+    private final String keyPrefix;
+    private final ConcurrentMap<String, LocalLimiter> limiters = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leaseSweeper;
+
+    /**
+     * Constructor.
+     *
+     * @param redissonClient Redisson client
+     * @param properties     limiter properties
+     * @throws IllegalArgumentException a limiter period is shorter than 1 millisecond
+     */
+    public DistributedRateLimiterServiceImpl(RedissonClient redissonClient, RateLimiterProperties properties) {
+        this.redissonClient = redissonClient;
+        limiterProperties = ObjectUtils.defaultIfNull(properties.getLimiters(), Collections.emptyMap());
+
+        // the script takes whole milliseconds and divides by them
+        limiterProperties.forEach((name, limiter) -> {
+            if (limiter.getPeriod().toMillis() < 1) {
+                throw new IllegalArgumentException("Rate limiter '" + name + "': period must be at least 1 ms");
+            }
+        });
+        keyPrefix = ObjectUtils.defaultIfNull(properties.getKeyPrefix(), RateLimiterProperties.DEFAULT_KEY_PREFIX);
+
+        leaseSweeper = Executors.newSingleThreadScheduledExecutor(new BasicThreadFactory.Builder()
+                .namingPattern("rate-limiter-lease-sweeper")
+                .daemon(true)
+                .build());
+
+        // the shortest lease TTL, so that no lease outlives its TTL by much
+        limiterProperties.values().stream()
+                .map(limiter -> ObjectUtils.defaultIfNull(limiter.getLeaseTtl(),
+                        RateLimiterProperties.Limiter.DEFAULT_LEASE_TTL))
+                .min(Duration::compareTo)
+                .ifPresent(period -> leaseSweeper.scheduleWithFixedDelay(this::returnExpiredLeases,
+                        period.toMillis(), period.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public boolean tryAcquire(String limiterName, int permits) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Number of permits must be positive");
+        }
+
+        return getLimiter(limiterName).tryAcquire(permits);
+    }
+
+    @Override
+    public void destroy() {
+        leaseSweeper.shutdownNow();
+        limiters.values().forEach(limiter -> limiter.returnLease(null));
+    }
+
+    private LocalLimiter getLimiter(String limiterName) {
+        LocalLimiter limiter = limiters.get(limiterName);
+        if (limiter != null) {
+            return limiter;
+        }
+
+        RateLimiterProperties.Limiter properties = limiterProperties.get(limiterName);
+        if (properties == null) {
+            throw new IllegalArgumentException("Unknown rate limiter: '" + limiterName + "'");
+        }
+
+        return limiters.computeIfAbsent(limiterName, name -> new LocalLimiter(name, properties));
+    }
+
+    private void returnExpiredLeases() {
+        long now = System.nanoTime();
+
+        limiters.values().forEach(limiter -> {
+            Lease lease = limiter.currentLease.get();
+            if ((lease != null) && lease.isExpired(now)) {
+                limiter.returnLease(lease);
+            }
+        });
+    }
+
+    /**
+     * Permits leased from Redis. Handed out with CAS, never goes below 0.
+     */
+    private static class Lease {
+
+        private final AtomicLong remaining;
+        private final long expiresAtNanos;
+
+        Lease(long permits, long ttlNanos) {
+            remaining = new AtomicLong(permits);
+            expiresAtNanos = System.nanoTime() + ttlNanos;
+        }
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos >= 0;
+        }
+
+        boolean tryTake(int permits) {
+            long current = remaining.get();
+
+            while (current >= permits) {
+                if (remaining.compareAndSet(current, current - permits)) {
+                    return true;
+                }
+
+                current = remaining.get();
+            }
+
+            return false;
+        }
+
+        /**
+         * @return remaining permits, after which none are left
+         */
+        long drain() {
+            return remaining.getAndSet(0);
+        }
+
+    }
+
+    private class LocalLimiter {
+
+        private final String name;
+        private final String key;
+        private final String capacity;
+        private final String periodMillis;
+        private final int leaseSize;
+        private final long leaseTtlNanos;
+        private final long refillNanos;
+        private final AtomicReference<Lease> currentLease = new AtomicReference<>();
+
+        /**
+         * When the bucket is exhausted, Redis is not asked again before this moment - until then, the bucket couldn't
+         * have been refilled with one lease (unless other nodes return their permits).
+         */
+        private volatile long nextRefillAtNanos = System.nanoTime();
+
+        /**
+         * Not {@code synchronized} in order not to pin virtual threads while waiting for Redis.
+         */
+        private final ReentrantLock refillLock = new ReentrantLock();
+
+        LocalLimiter(String name, RateLimiterProperties.Limiter properties) {
+            this.name = name;
+            key = keyPrefix + ":" + name;
+            capacity = String.valueOf(properties.getRate());
+            periodMillis = String.valueOf(properties.getPeriod().toMillis());
+            leaseSize = ObjectUtils.defaultIfNull(properties.getLeaseSize(),
+                    RateLimiterProperties.Limiter.DEFAULT_LEASE_SIZE);
+            leaseTtlNanos = ObjectUtils.defaultIfNull(properties.getLeaseTtl(),
+                    RateLimiterProperties.Limiter.DEFAULT_LEASE_TTL).toNanos();
+            refillNanos = Math.min(properties.getPeriod().toNanos(),
+                    properties.getPeriod().toNanos() / properties.getRate() * leaseSize);
+        }
+
+        boolean tryAcquire(int permits) {
+            // fast path - no locks, no Redis calls
+            Lease lease = currentLease.get();
+            if ((lease != null) && !lease.isExpired(System.nanoTime()) && lease.tryTake(permits)) {
+                return true;
+            }
+
+            // one thread per limiter goes to Redis, the others wait for it instead of going to Redis too
+            refillLock.lock();
+            try {
+                lease = currentLease.get();
+                if ((lease != null) && !lease.isExpired(System.nanoTime()) && lease.tryTake(permits)) {
+                    return true;
+                }
+
+                long now = System.nanoTime();
+                if (now - nextRefillAtNanos < 0) {
+                    return false;
+                }
+
+                // what's left in the old lease is not enough anyway, merge it into the new one
+                long leftover = (lease == null) ? 0 : lease.drain();
+                long requested = Math.max(leaseSize, permits) - leftover;
+                long granted = (requested > 0) ? callScript(requested) : 0;
+
+                if (granted < requested) {
+                    nextRefillAtNanos = now + refillNanos;
+                }
+
+                Lease newLease = new Lease(leftover + granted, leaseTtlNanos);
+                currentLease.set(newLease);
+                return newLease.tryTake(permits);
+            } finally {
+                refillLock.unlock();
+            }
+        }
+
+        /**
+         * Returns unused permits to Redis.
+         *
+         * @param expectedLease lease to return, {@code null} means whatever is current
+         */
+        void returnLease(@Nullable Lease expectedLease) {
+            Lease lease = (expectedLease == null) ? currentLease.get() : expectedLease;
+            if ((lease == null) || !currentLease.compareAndSet(lease, null)) {
+                return;
+            }
+
+            long unused = lease.drain();
+            if (unused <= 0) {
+                return;
+            }
+
+            try {
+                callScript(-unused);
+            } catch (RuntimeException e) {
+                log.warn("Failed to return {} unused permits of rate limiter '{}': {}", unused, name, e.getMessage());
+            }
+        }
+
+        private long callScript(long requested) {
+            Long granted = redissonClient.getScript(StringCodec.INSTANCE).eval(key, RScript.Mode.READ_WRITE,
+                    TOKEN_BUCKET_SCRIPT, RScript.ReturnType.INTEGER, List.<Object>of(key),
+                    capacity, periodMillis, String.valueOf(requested));
+            return (granted == null) ? 0 : granted;
+        }
+
+    }
+
+}
@@ -0,0 +1,290 @@
+package guru.nicks.commons.redis.serializer;
+
+import guru.nicks.commons.redis.domain.RedisCompressionCodec;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compresses values written by the delegate if they're larger than the threshold. Compressed values are prefixed with
+ * {@link RedisCompressionCodec#getHeader()} followed by the uncompressed length (4 bytes, big-endian). Values without
+ * such a prefix are passed to the delegate as is, therefore values written before compression was enabled (or by nodes
+ * with compression disabled) remain readable, and so do compressed values when compression is disabled.
+ * <p>
+ * Metrics (tagged with codec):
+ * <ul>
+ *     <li>{@value #COMPRESSION_RATIO_METRIC} - uncompressed size / compressed size of compressed values</li>
+ *     <li>{@value #COMPRESSION_TIME_METRIC} - compression and decompression time (tagged with operation:
+ *     compress / decompress)</li>
+ * </ul>
+ */
+public class CompressingRedisSerializer implements StreamingRedisSerializer {
+
+    public static final String COMPRESSION_RATIO_METRIC = "redis.serializer.compression.ratio";
+    public static final String COMPRESSION_TIME_METRIC = "redis.serializer.compression.time";
+
+    /**
+     * Codec header byte + uncompressed length.
+     */
+    private static final int HEADER_LENGTH = 1 + Integer.BYTES;
+
+    /**
+     * Redis string values are limited to 512 MB, anything claiming to be larger is corrupt.
+     */
+    private static final int MAX_UNCOMPRESSED_LENGTH = 512 * 1024 * 1024;
+
+    private final RedisSerializer<Object> delegate;
+
+    @Nullable
+    private final RedisCompressionCodec codec;
+
+    private final int threshold;
+    private final int deflateLevel;
+    private final LZ4Compressor lz4Compressor;
+    private final LZ4SafeDecompressor lz4Decompressor;
+    private final Map<RedisCompressionCodec, CodecMeters> meters = new EnumMap<>(RedisCompressionCodec.class);
+
+    /**
+     * Constructor.
+     *
+     * @param delegate      serializer whose output is compressed
+     * @param codec         codec for written values, {@code null} means values are written uncompressed
+     * @param threshold     minimum serialized value size (in bytes) to compress
+     * @param deflateLevel  compression level for {@link RedisCompressionCodec#DEFLATE}
+     * @param meterRegistry meter registry
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, @Nullable RedisCompressionCodec codec,
+            int threshold, int deflateLevel, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.codec = codec;
+        this.threshold = threshold;
+        this.deflateLevel = deflateLevel;
+
+        LZ4Factory lz4Factory = LZ4Factory.fastestInstance();
+        lz4Compressor = lz4Factory.fastCompressor();
+        lz4Decompressor = lz4Factory.safeDecompressor();
+
+        for (RedisCompressionCodec each : RedisCompressionCodec.values()) {
+            meters.put(each, new CodecMeters(each, meterRegistry));
+        }
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if ((codec == null) || (bytes == null) || (bytes.length < threshold)) {
+            return bytes;
+        }
+
+        CodecMeters codecMeters = meters.get(codec);
+        long start = System.nanoTime();
+        byte[] compressed = (codec == RedisCompressionCodec.LZ4)
+                ? compressLz4(bytes)
+                : compressDeflate(bytes);
+        codecMeters.compression.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        // incompressible value (for example, already compressed data)
+        if (compressed == null) {
+            return bytes;
+        }
+
+        codecMeters.ratio.record((double) bytes.length / compressed.length);
+        return compressed;
+    }
+
+    @Nullable
+    @Override
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        RedisCompressionCodec valueCodec = ((bytes == null) || (bytes.length == 0))
+                ? null
+                : RedisCompressionCodec.fromFirstByte(bytes[0]);
+        if (valueCodec == null) {
+            return delegate.deserialize(bytes);
+        }
+
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Truncated " + valueCodec + "-compressed value");
+        }
+
+        int length = ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt();
+        if ((length <= 0) || (length > MAX_UNCOMPRESSED_LENGTH)) {
+            throw new SerializationException("Invalid uncompressed length of " + valueCodec + "-compressed value: "
+                    + length);
+        }
+
+        long start = System.nanoTime();
+        byte[] decompressed = (valueCodec == RedisCompressionCodec.LZ4)
+                ? decompressLz4(bytes, length)
+                : decompressDeflate(bytes, length);
+        meters.get(valueCodec).decompression.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        return delegate.deserialize(decompressed);
+    }
+
+    @Override
+    public void serialize(@Nullable Object value, OutputStream outputStream) throws IOException {
+        // the threshold check and compression need the whole value
+        if ((codec != null) || !(delegate instanceof StreamingRedisSerializer streamingDelegate)) {
+            StreamingRedisSerializer.super.serialize(value, outputStream);
+            return;
+        }
+
+        streamingDelegate.serialize(value, outputStream);
+    }
+
+    @Nullable
+    @Override
+    public Object deserialize(InputStream inputStream, int length) throws IOException {
+        if ((length == 0) || !(delegate instanceof StreamingRedisSerializer streamingDelegate)) {
+            return StreamingRedisSerializer.super.deserialize(inputStream, length);
+        }
+
+        inputStream.mark(1);
+        RedisCompressionCodec valueCodec = RedisCompressionCodec.fromFirstByte((byte) inputStream.read());
+        inputStream.reset();
+
+        return (valueCodec == null)
+                ? streamingDelegate.deserialize(inputStream, length)
+                : deserialize(inputStream.readNBytes(length));
+    }
+
+    /**
+     * @return compressed value with header, {@code null} if it's not smaller than the uncompressed one
+     */
+    @Nullable
+    private byte[] compressLz4(byte[] bytes) {
+        int maxLength = lz4Compressor.maxCompressedLength(bytes.length);
+        var buffer = new byte[HEADER_LENGTH + maxLength];
+        int length = HEADER_LENGTH + lz4Compressor.compress(bytes, 0, bytes.length, buffer, HEADER_LENGTH, maxLength);
+
+        return (length < bytes.length)
+                ? writeHeader(Arrays.copyOf(buffer, length), RedisCompressionCodec.LZ4, bytes.length)
+                : null;
+    }
+
+    /**
+     * @return compressed value with header, {@code null} if it's not smaller than the uncompressed one
+     */
+    @Nullable
+    private byte[] compressDeflate(byte[] bytes) {
+        var deflater = new Deflater(deflateLevel);
+
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+
+            // no need for a larger buffer: if the output doesn't fit, compression is pointless
+            var buffer = new byte[bytes.length];
+            int length = HEADER_LENGTH;
+            while (!deflater.finished() && (length < buffer.length)) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+
+            return (deflater.finished() && (length < bytes.length))
+                    ? writeHeader(Arrays.copyOf(buffer, length), RedisCompressionCodec.DEFLATE, bytes.length)
+                    : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] decompressLz4(byte[] bytes, int length) {
+        var decompressed = new byte[length];
+
+        try {
+            int decompressedLength = lz4Decompressor.decompress(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH,
+                    decompressed, 0, length);
+            if (decompressedLength != length) {
+                throw new SerializationException("Corrupt LZ4-compressed value: expected " + length
+                        + " bytes, got " + decompressedLength);
+            }
+        } catch (LZ4Exception e) {
+            throw new SerializationException("Corrupt LZ4-compressed value", e);
+        }
+
+        return decompressed;
+    }
+
+    private byte[] decompressDeflate(byte[] bytes, int length) {
+        var inflater = new Inflater();
+
+        try {
+            inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+
+            var decompressed = new byte[length];
+            int decompressedLength = 0;
+            while ((decompressedLength < length) && !inflater.finished()) {
+                int inflated = inflater.inflate(decompressed, decompressedLength, length - decompressedLength);
+                if ((inflated == 0) && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                decompressedLength += inflated;
+            }
+
+            if ((decompressedLength != length) || !inflater.finished()) {
+                throw new SerializationException("Corrupt DEFLATE-compressed value: expected " + length
+                        + " bytes, got " + decompressedLength);
+            }
+
+            return decompressed;
+        } catch (DataFormatException e) {
+            throw new SerializationException("Corrupt DEFLATE-compressed value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] writeHeader(byte[] compressed, RedisCompressionCodec codec, int uncompressedLength) {
+        ByteBuffer.wrap(compressed)
+                .put(codec.getHeader())
+                .putInt(uncompressedLength);
+        return compressed;
+    }
+
+    /**
+     * Meters of a single codec.
+     */
+    private static class CodecMeters {
+
+        private final Timer compression;
+        private final Timer decompression;
+        private final DistributionSummary ratio;
+
+        CodecMeters(RedisCompressionCodec codec, MeterRegistry meterRegistry) {
+            compression = Timer.builder(COMPRESSION_TIME_METRIC)
+                    .tag("codec", codec.name())
+                    .tag("operation", "compress")
+                    .register(meterRegistry);
+            decompression = Timer.builder(COMPRESSION_TIME_METRIC)
+                    .tag("codec", codec.name())
+                    .tag("operation", "decompress")
+                    .register(meterRegistry);
+            ratio = DistributionSummary.builder(COMPRESSION_RATIO_METRIC)
+                    .tag("codec", codec.name())
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
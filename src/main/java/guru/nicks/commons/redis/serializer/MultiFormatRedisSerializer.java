@@ -0,0 +1,126 @@
+package guru.nicks.commons.redis.serializer;
+
+import guru.nicks.commons.redis.domain.RedisSerializationFormat;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Writes values in one format (prefixed with {@link RedisSerializationFormat#getHeader()}) and reads values written in
+ * any format it has a serializer for, which lets nodes switch formats without flushing Redis.
+ */
+public class MultiFormatRedisSerializer implements StreamingRedisSerializer {
+
+    private final RedisSerializationFormat writeFormat;
+    private final RedisSerializer<Object> writer;
+    private final Map<RedisSerializationFormat, RedisSerializer<Object>> readers;
+
+    /**
+     * Constructor.
+     *
+     * @param writeFormat format of written values
+     * @param serializers serializers of all the readable formats, must include {@code writeFormat}; they must not
+     *                    write any header bytes themselves
+     * @throws IllegalArgumentException there's no serializer for {@code writeFormat}
+     */
+    public MultiFormatRedisSerializer(RedisSerializationFormat writeFormat,
+            Map<RedisSerializationFormat, RedisSerializer<Object>> serializers) {
+        this.writeFormat = writeFormat;
+        readers = new EnumMap<>(serializers);
+
+        writer = readers.get(writeFormat);
+        if (writer == null) {
+            throw new IllegalArgumentException("No serializer for Redis serialization format " + writeFormat);
+        }
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        byte[] payload = writer.serialize(value);
+
+        Byte header = writeFormat.getHeader();
+        // empty array means null, it's never prefixed
+        if ((header == null) || (payload == null) || (payload.length == 0)) {
+            return payload;
+        }
+
+        var bytes = new byte[payload.length + 1];
+        bytes[0] = header;
+        System.arraycopy(payload, 0, bytes, 1, payload.length);
+        return bytes;
+    }
+
+    @Nullable
+    @Override
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if ((bytes == null) || (bytes.length == 0)) {
+            return null;
+        }
+
+        RedisSerializationFormat format = RedisSerializationFormat.fromFirstByte(bytes[0]);
+        RedisSerializer<Object> reader = getReader(format);
+
+        return (format.getHeader() == null)
+                ? reader.deserialize(bytes)
+                : reader.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+    }
+
+    @Override
+    public void serialize(@Nullable Object value, OutputStream outputStream) throws IOException {
+        // writer may have its own representation of null, let the byte array method decide whether to write header
+        if ((value == null) || !(writer instanceof StreamingRedisSerializer streamingWriter)) {
+            StreamingRedisSerializer.super.serialize(value, outputStream);
+            return;
+        }
+
+        Byte header = writeFormat.getHeader();
+        if (header != null) {
+            outputStream.write(header);
+        }
+
+        streamingWriter.serialize(value, outputStream);
+    }
+
+    @Nullable
+    @Override
+    public Object deserialize(InputStream inputStream, int length) throws IOException {
+        if (length == 0) {
+            return null;
+        }
+
+        inputStream.mark(1);
+        RedisSerializationFormat format = RedisSerializationFormat.fromFirstByte((byte) inputStream.read());
+        RedisSerializer<Object> reader = getReader(format);
+
+        int payloadLength = length - 1;
+        // no header, the first byte belongs to the payload
+        if (format.getHeader() == null) {
+            inputStream.reset();
+            payloadLength = length;
+        }
+
+        return (reader instanceof StreamingRedisSerializer streamingReader)
+                ? streamingReader.deserialize(inputStream, payloadLength)
+                : reader.deserialize(inputStream.readNBytes(payloadLength));
+    }
+
+    private RedisSerializer<Object> getReader(RedisSerializationFormat format) {
+        RedisSerializer<Object> reader = readers.get(format);
+
+        if (reader == null) {
+            throw new SerializationException("Can't read value written in Redis serialization format " + format
+                    + ": no serializer configured for it");
+        }
+
+        return reader;
+    }
+
+}
@@ -0,0 +1,83 @@
+package guru.nicks.commons.redis.serializer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.redisson.client.codec.BaseCodec;
+import org.redisson.client.handler.State;
+import org.redisson.client.protocol.Decoder;
+import org.redisson.client.protocol.Encoder;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.io.IOException;
+
+/**
+ * Redisson codec backed by a Spring Data Redis serializer, so that Redisson objects and Spring Data Redis share the
+ * same format. Serializers implementing {@link StreamingRedisSerializer} write directly to pooled Netty buffers and
+ * read directly from Netty buffers. Other serializers' byte arrays are wrapped (not copied) on writing, and copied
+ * once on reading.
+ * <p>
+ * Map keys are serialized in the same way as values.
+ */
+public class RedisSerializerCodec extends BaseCodec {
+
+    private final RedisSerializer<Object> serializer;
+    private final Encoder encoder = this::encode;
+    private final Decoder<Object> decoder = this::decode;
+
+    /**
+     * Constructor.
+     *
+     * @param serializer serializer
+     */
+    public RedisSerializerCodec(RedisSerializer<Object> serializer) {
+        this.serializer = serializer;
+    }
+
+    /**
+     * Called by Redisson via reflection when copying codecs.
+     *
+     * @param classLoader ignored, the serializer has its own class loading rules
+     * @param codec       codec to copy
+     */
+    public RedisSerializerCodec(ClassLoader classLoader, RedisSerializerCodec codec) {
+        this(codec.serializer);
+    }
+
+    @Override
+    public Decoder<Object> getValueDecoder() {
+        return decoder;
+    }
+
+    @Override
+    public Encoder getValueEncoder() {
+        return encoder;
+    }
+
+    private ByteBuf encode(Object value) throws IOException {
+        if (!(serializer instanceof StreamingRedisSerializer streamingSerializer)) {
+            return Unpooled.wrappedBuffer(serializer.serialize(value));
+        }
+
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.buffer();
+        try {
+            streamingSerializer.serialize(value, new ByteBufOutputStream(buffer));
+            return buffer;
+        } catch (IOException | RuntimeException e) {
+            buffer.release();
+            throw e;
+        }
+    }
+
+    private Object decode(ByteBuf buffer, State state) throws IOException {
+        int length = buffer.readableBytes();
+
+        return (serializer instanceof StreamingRedisSerializer streamingSerializer)
+                ? streamingSerializer.deserialize(new ByteBufInputStream(buffer), length)
+                : serializer.deserialize(ByteBufUtil.getBytes(buffer));
+    }
+
+}
@@ -0,0 +1,48 @@
+package guru.nicks.commons.redis.serializer;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Serializer which can write to and read from streams, such as the ones backed by Netty buffers, without intermediate
+ * byte arrays. Both ways must produce and accept exactly the same bytes as {@link #serialize(Object)} and
+ * {@link #deserialize(byte[])}.
+ */
+public interface StreamingRedisSerializer extends RedisSerializer<Object> {
+
+    /**
+     * Writes serialized value to stream. Default implementation writes the result of {@link #serialize(Object)}.
+     *
+     * @param value        value to serialize
+     * @param outputStream stream to write to (not closed)
+     * @throws IOException            stream error
+     * @throws SerializationException serialization error
+     */
+    default void serialize(@Nullable Object value, OutputStream outputStream) throws IOException {
+        byte[] bytes = serialize(value);
+
+        if (bytes != null) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * Reads serialized value from stream. Default implementation passes the bytes read to {@link #deserialize(byte[])}.
+     *
+     * @param inputStream stream to read from (not closed), must support {@link InputStream#mark(int)}
+     * @param length      number of bytes the value occupies in the stream
+     * @return deserialized value
+     * @throws IOException            stream error
+     * @throws SerializationException deserialization error
+     */
+    @Nullable
+    default Object deserialize(InputStream inputStream, int length) throws IOException {
+        return deserialize(inputStream.readNBytes(length));
+    }
+
+}
@@ -0,0 +1,232 @@
+package guru.nicks.commons.redis.serializer;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DatabindContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.NamedType;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Jackson serializer which stores registered classes under short aliases instead of fully qualified class names (in
+ * the same type property as {@link GenericJackson2JsonRedisSerializer} does). Other classes are stored under their
+ * names, and values written with class names (for example, before an alias was registered) remain readable.
+ * <p>
+ * Aliases are persisted in Redis, therefore they must never be reassigned to other classes. Nodes unaware of an alias
+ * can't read values written with it.
+ */
+public class TypeAliasJsonRedisSerializer implements StreamingRedisSerializer {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter streamWriter;
+    private final ObjectReader streamReader;
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper object mapper with default typing enabled (as in {@link GenericJackson2JsonRedisSerializer}),
+     *                     is copied (not modified)
+     * @param typeAliases  classes by aliases; aliases can't contain dots, so they never clash with class names
+     * @throws IllegalArgumentException default typing is disabled, alias contains a dot, or class has several aliases
+     */
+    public TypeAliasJsonRedisSerializer(ObjectMapper objectMapper, Map<String, Class<?>> typeAliases) {
+        TypeResolverBuilder<?> defaultTyper = objectMapper.getSerializationConfig().getDefaultTyper(null);
+        if (!(defaultTyper instanceof ObjectMapper.DefaultTypeResolverBuilder defaultTypeResolverBuilder)) {
+            throw new IllegalArgumentException("Default typing must be enabled for type aliases to make sense");
+        }
+
+        var aliasesByClass = new HashMap<Class<?>, String>();
+        typeAliases.forEach((alias, clazz) -> {
+            if (StringUtils.isBlank(alias) || alias.contains(".")) {
+                throw new IllegalArgumentException("Type alias must be non-blank and contain no dots: '" + alias
+                        + "'");
+            }
+
+            String previousAlias = aliasesByClass.put(clazz, alias);
+            if (previousAlias != null) {
+                throw new IllegalArgumentException("Class " + clazz.getName() + " has several type aliases: '"
+                        + previousAlias + "', '" + alias + "'");
+            }
+        });
+
+        this.objectMapper = objectMapper.copy()
+                .setDefaultTyping(new AliasTypeResolverBuilder(defaultTypeResolverBuilder,
+                        objectMapper.getPolymorphicTypeValidator(), Map.copyOf(typeAliases),
+                        Map.copyOf(aliasesByClass)));
+        streamWriter = createStreamWriter(this.objectMapper);
+        streamReader = createStreamReader(this.objectMapper);
+    }
+
+    private TypeAliasJsonRedisSerializer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        streamWriter = createStreamWriter(objectMapper);
+        streamReader = createStreamReader(objectMapper);
+    }
+
+    /**
+     * Creates a serializer with the same settings (including type aliases) but another data format.
+     *
+     * @param jsonFactory data format, such as Smile
+     * @return serializer
+     */
+    public TypeAliasJsonRedisSerializer withFactory(JsonFactory jsonFactory) {
+        return new TypeAliasJsonRedisSerializer(objectMapper.copyWith(jsonFactory));
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not write JSON: " + e.getMessage(), e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if ((bytes == null) || (bytes.length == 0)) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(bytes, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("Could not read JSON: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void serialize(@Nullable Object value, OutputStream outputStream) throws IOException {
+        if (value != null) {
+            streamWriter.writeValue(outputStream, value);
+        }
+    }
+
+    @Nullable
+    @Override
+    public Object deserialize(InputStream inputStream, int length) throws IOException {
+        return (length == 0)
+                ? null
+                : streamReader.readValue(inputStream);
+    }
+
+    /**
+     * @return writer which doesn't close streams (other data may follow)
+     */
+    private static ObjectWriter createStreamWriter(ObjectMapper objectMapper) {
+        return objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * @return reader which doesn't close streams
+     */
+    private static ObjectReader createStreamReader(ObjectMapper objectMapper) {
+        return objectMapper.readerFor(Object.class)
+                .without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    }
+
+    /**
+     * Same as the original default typing (the types to store type IDs for, the type property name), but with
+     * {@link AliasIdResolver}.
+     */
+    private static class AliasTypeResolverBuilder extends ObjectMapper.DefaultTypeResolverBuilder {
+
+        private final ObjectMapper.DefaultTypeResolverBuilder original;
+        private final Map<String, Class<?>> classesByAlias;
+        private final Map<Class<?>, String> aliasesByClass;
+
+        AliasTypeResolverBuilder(ObjectMapper.DefaultTypeResolverBuilder original,
+                PolymorphicTypeValidator polymorphicTypeValidator, Map<String, Class<?>> classesByAlias,
+                Map<Class<?>, String> aliasesByClass) {
+            super(ObjectMapper.DefaultTyping.EVERYTHING, polymorphicTypeValidator);
+            this.original = original;
+            this.classesByAlias = classesByAlias;
+            this.aliasesByClass = aliasesByClass;
+
+            init(JsonTypeInfo.Id.CLASS, null);
+            inclusion(JsonTypeInfo.As.PROPERTY);
+            typeProperty(original.getTypeProperty());
+        }
+
+        @Override
+        public boolean useForType(JavaType type) {
+            return original.useForType(type);
+        }
+
+        @Override
+        public ObjectMapper.DefaultTypeResolverBuilder withDefaultImpl(Class<?> defaultImpl) {
+            return this;
+        }
+
+        @Override
+        protected TypeIdResolver idResolver(MapperConfig<?> config, JavaType baseType,
+                PolymorphicTypeValidator subtypeValidator, Collection<NamedType> subtypes, boolean forSer,
+                boolean forDeser) {
+            return new AliasIdResolver(baseType, config.getTypeFactory(), subtypeValidator, classesByAlias,
+                    aliasesByClass);
+        }
+
+    }
+
+    /**
+     * Resolves aliases first, then falls back to class names.
+     */
+    private static class AliasIdResolver extends ClassNameIdResolver {
+
+        private final Map<String, Class<?>> classesByAlias;
+        private final Map<Class<?>, String> aliasesByClass;
+
+        AliasIdResolver(JavaType baseType, TypeFactory typeFactory, PolymorphicTypeValidator polymorphicTypeValidator,
+                Map<String, Class<?>> classesByAlias, Map<Class<?>, String> aliasesByClass) {
+            super(baseType, typeFactory, polymorphicTypeValidator);
+            this.classesByAlias = classesByAlias;
+            this.aliasesByClass = aliasesByClass;
+        }
+
+        @Override
+        protected String _idFrom(Object value, Class<?> cls, TypeFactory typeFactory) {
+            String alias = aliasesByClass.get(cls);
+            return (alias == null)
+                    ? super._idFrom(value, cls, typeFactory)
+                    : alias;
+        }
+
+        @Override
+        protected JavaType _typeFromId(String id, DatabindContext context) throws IOException {
+            Class<?> clazz = classesByAlias.get(id);
+            return (clazz == null)
+                    ? super._typeFromId(id, context)
+                    : context.getTypeFactory().constructSpecializedType(_baseType, clazz);
+        }
+
+    }
+
+}
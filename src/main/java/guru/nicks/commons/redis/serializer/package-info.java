@@ -0,0 +1,4 @@
+@NonNullApi
+package guru.nicks.commons.redis.serializer;
+
+import org.springframework.lang.NonNullApi;
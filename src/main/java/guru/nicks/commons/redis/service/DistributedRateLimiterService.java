@@ -0,0 +1,28 @@
+package guru.nicks.commons.redis.service;
+
+/**
+ * Rate limiter shared by all nodes. Limiters are configured by name.
+ */
+public interface DistributedRateLimiterService {
+
+    /**
+     * Same as {@link #tryAcquire(String, int)} with 1 permit.
+     *
+     * @param limiterName limiter name
+     * @return {@code true} if the permit has been acquired
+     */
+    default boolean tryAcquire(String limiterName) {
+        return tryAcquire(limiterName, 1);
+    }
+
+    /**
+     * Acquires permits if they're available right away, doesn't wait.
+     *
+     * @param limiterName limiter name
+     * @param permits     number of permits, must be positive
+     * @return {@code true} if all the permits have been acquired, {@code false} if none have
+     * @throws IllegalArgumentException unknown limiter name
+     */
+    boolean tryAcquire(String limiterName, int permits);
+
+}
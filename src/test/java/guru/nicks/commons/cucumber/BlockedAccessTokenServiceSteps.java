@@ -2,6 +2,12 @@ package guru.nicks.commons.cucumber;
 
 import guru.nicks.commons.auth.domain.BlockedTokenHash;
 import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.redis.blocklist.BlockedTokenBloomFilter;
+import guru.nicks.commons.redis.blocklist.BlockedTokenStore;
+import guru.nicks.commons.redis.blocklist.ChecksumJwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.JtiJwtKeyDerivationStrategy;
+import guru.nicks.commons.redis.blocklist.RepositoryBlockedTokenStore;
+import guru.nicks.commons.redis.domain.BlockedJwtProperties;
 import guru.nicks.commons.redis.impl.BlockedJwtServiceImpl;
 import guru.nicks.commons.redis.repository.BlockedTokenRepository;
 import guru.nicks.commons.service.BlockedJwtService;
@@ -17,13 +23,26 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.security.oauth2.jwt.Jwt;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -35,15 +54,26 @@ public class BlockedAccessTokenServiceSteps {
 
     @Mock
     private BlockedTokenRepository blockedTokenRepository;
+    @Mock
+    private BlockedTokenBloomFilter bloomFilter;
+    @Mock
+    private BlockedTokenStore blockedTokenStore;
     @Captor
     private ArgumentCaptor<BlockedTokenHash> blockedTokenHashCaptor;
     private AutoCloseable closeableMocks;
 
     private BlockedJwtService blockedJwtService;
     private boolean isBlockedResult;
+    private Map<Jwt, Boolean> areBlockedResult;
     private Jwt ifBelongsToUserResult;
 
+    /**
+     * Names of threads which called {@link BlockedTokenStore#areBlocked(Collection)}, and numbers of checksums passed.
+     */
+    private final List<Map.Entry<String, Integer>> bulkLookups = new CopyOnWriteArrayList<>();
+
     private Jwt accessToken;
+    private List<Jwt> accessTokens;
     private String userId;
 
     @Before
@@ -54,6 +84,10 @@ public class BlockedAccessTokenServiceSteps {
 
     @After
     public void afterEachScenario() throws Exception {
+        if (blockedJwtService instanceof DisposableBean disposableBean) {
+            disposableBean.destroy();
+        }
+
         closeableMocks.close();
     }
 
@@ -74,12 +108,126 @@ public class BlockedAccessTokenServiceSteps {
         aValidAccessTokenWithSubjectAndAnExpirationOfSeconds("test-user", seconds);
     }
 
+    @Given("access tokens {string} of which {string} is blocked")
+    public void accessTokensOfWhichIsBlocked(String tokenValues, String blockedTokenValue) {
+        accessTokens = Arrays.stream(tokenValues.split(","))
+                .map(tokenValue -> Jwt.withTokenValue(tokenValue)
+                        .header("alg", "none")
+                        .claim("sub", "test-user")
+                        .build())
+                .toList();
+
+        for (Jwt jwt : accessTokens) {
+            String checksum = AuthUtils.calculateAccessTokenChecksum(jwt.getTokenValue());
+            when(blockedTokenRepository.existsById(checksum))
+                    .thenReturn(jwt.getTokenValue().equals(blockedTokenValue));
+        }
+    }
+
+    @Given("an access token with jti {string} issued by {string} which is blocked under key {string}")
+    public void anAccessTokenWithJtiIssuedByWhichIsBlockedUnderKey(String jti, String issuer, String key) {
+        var builder = Jwt.withTokenValue("jti-token-" + jti)
+                .header("alg", "none")
+                .claim("sub", "test-user")
+                .claim("iss", issuer);
+        if (!jti.isEmpty()) {
+            builder.jti(jti);
+        }
+        accessToken = builder.build();
+
+        String expectedKey = "(token checksum)".equals(key)
+                ? AuthUtils.calculateAccessTokenChecksum(accessToken.getTokenValue())
+                : key;
+        when(blockedTokenRepository.existsById(anyString()))
+                .thenAnswer(invocation -> expectedKey.equals(invocation.getArgument(0)));
+    }
+
+    @Given("the blocklist keys are derived from the jti claim")
+    public void theBlocklistKeysAreDerivedFromTheJtiClaim() {
+        blockedJwtService = new BlockedJwtServiceImpl(new RepositoryBlockedTokenStore(blockedTokenRepository), null,
+                new JtiJwtKeyDerivationStrategy(new ChecksumJwtKeyDerivationStrategy()));
+    }
+
+    @Given("'not blocked' answers are not cached in memory")
+    public void notBlockedAnswersAreNotCachedInMemory() {
+        blockedJwtService = new BlockedJwtServiceImpl(new RepositoryBlockedTokenStore(blockedTokenRepository), null,
+                new ChecksumJwtKeyDerivationStrategy(),
+                BlockedJwtProperties.LocalCache.builder()
+                        .negativeTtl(Duration.ZERO)
+                        .build());
+    }
+
+    @Given("'not blocked' answers are refreshed in memory after {int} milliseconds in batches")
+    public void notBlockedAnswersAreRefreshedInMemoryAfterMillisecondsInBatches(int millis) {
+        when(blockedTokenStore.isBlocked(anyString()))
+                .thenReturn(false);
+        when(blockedTokenStore.isBlockedAsync(anyString()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+        when(blockedTokenStore.areBlocked(any()))
+                .thenAnswer(invocation -> {
+                    Collection<String> checksums = invocation.getArgument(0);
+                    bulkLookups.add(Map.entry(Thread.currentThread().getName(), checksums.size()));
+
+                    return checksums.stream()
+                            .collect(Collectors.toMap(Function.identity(), checksum -> false));
+                });
+
+        blockedJwtService = new BlockedJwtServiceImpl(blockedTokenStore, null,
+                new ChecksumJwtKeyDerivationStrategy(),
+                BlockedJwtProperties.LocalCache.builder()
+                        .refreshAfterWrite(Duration.ofMillis(millis))
+                        .refreshBatchDelay(Duration.ofMillis(100))
+                        .build());
+    }
+
+    @Given("the Bloom filter does not contain the access token")
+    public void theBloomFilterDoesNotContainTheAccessToken() {
+        theBloomFilterAnswers(false);
+    }
+
+    @Given("the Bloom filter might contain the access token")
+    public void theBloomFilterMightContainTheAccessToken() {
+        theBloomFilterAnswers(true);
+    }
+
     @When("'isBlocked' is called for the access token")
     public void isBlockedIsCalledForTheAccessToken() {
         textWorld.setLastException(catchThrowable(() ->
                 isBlockedResult = blockedJwtService.isJwtBlocked(accessToken)));
     }
 
+    @When("'isJwtBlockedAsync' is called for the access token")
+    public void isJwtBlockedAsyncIsCalledForTheAccessToken() {
+        textWorld.setLastException(catchThrowable(() ->
+                isBlockedResult = ((BlockedJwtServiceImpl) blockedJwtService).isJwtBlockedAsync(accessToken).join()));
+    }
+
+    @When("'isBlocked' is called for the access token {int} times")
+    public void isBlockedIsCalledForTheAccessTokenTimes(int count) {
+        textWorld.setLastException(catchThrowable(() -> {
+            for (int i = 0; i < count; i++) {
+                isBlockedResult = blockedJwtService.isJwtBlocked(accessToken);
+            }
+        }));
+    }
+
+    @When("'isBlocked' is called for each of the access tokens")
+    public void isBlockedIsCalledForEachOfTheAccessTokens() {
+        textWorld.setLastException(catchThrowable(() ->
+                accessTokens.forEach(blockedJwtService::isJwtBlocked)));
+    }
+
+    @When("{int} milliseconds pass")
+    public void millisecondsPass(int millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @When("'areJwtsBlocked' is called for the access tokens")
+    public void areJwtsBlockedIsCalledForTheAccessTokens() {
+        textWorld.setLastException(catchThrowable(() ->
+                areBlockedResult = ((BlockedJwtServiceImpl) blockedJwtService).areJwtsBlocked(accessTokens)));
+    }
+
     @When("'blockJwt' is called for the access token")
     public void blockJwtIsCalledForTheAccessToken() {
         textWorld.setLastException(catchThrowable(() ->
@@ -120,6 +268,46 @@ public class BlockedAccessTokenServiceSteps {
                 .isEqualTo(expectedResult);
     }
 
+    @Then("only access token {string} should be reported as blocked")
+    public void onlyAccessTokenShouldBeReportedAsBlocked(String blockedTokenValue) {
+        assertThat(areBlockedResult)
+                .as("areJwtsBlocked result")
+                .hasSize(accessTokens.size());
+
+        areBlockedResult.forEach((jwt, isBlocked) ->
+                assertThat(isBlocked)
+                        .as("isBlocked for %s", jwt.getTokenValue())
+                        .isEqualTo(jwt.getTokenValue().equals(blockedTokenValue)));
+    }
+
+    @Then("the blocked token storage should not have been queried")
+    public void theBlockedTokenStorageShouldNotHaveBeenQueried() {
+        verify(blockedTokenRepository, never()).existsById(anyString());
+    }
+
+    @Then("the blocked token storage should have been queried {int} times")
+    public void theBlockedTokenStorageShouldHaveBeenQueriedTimes(int count) {
+        verify(blockedTokenRepository, times(count)).existsById(anyString());
+    }
+
+    @Then("the blocked token storage should have been asked about {int} access tokens at once by thread {string}")
+    public void theBlockedTokenStorageShouldHaveBeenAskedAboutAccessTokensAtOnceByThread(int count,
+            String threadName) throws InterruptedException {
+        // reloads are asynchronous
+        for (int i = 0; (i < 100) && bulkLookups.isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+
+        assertThat(bulkLookups)
+                .containsExactly(Map.entry(threadName, count));
+    }
+
+    @Then("the access token should have been added to the Bloom filter")
+    public void theAccessTokenShouldHaveBeenAddedToTheBloomFilter() {
+        verify(bloomFilter).add(AuthUtils.calculateAccessTokenChecksum(accessToken.getTokenValue()),
+                accessToken.getExpiresAt());
+    }
+
     @Then("the access token should be blocked with a TTL greater than {long} seconds")
     public void theAccessTokenShouldBeBlockedWithATTLGreaterThanSeconds(long ttl) {
         verify(blockedTokenRepository).save(blockedTokenHashCaptor.capture());
@@ -134,4 +322,11 @@ public class BlockedAccessTokenServiceSteps {
                 .isGreaterThan(ttl);
     }
 
+    private void theBloomFilterAnswers(boolean mightContain) {
+        when(bloomFilter.mightContain(anyString()))
+                .thenReturn(mightContain);
+        blockedJwtService = new BlockedJwtServiceImpl(new RepositoryBlockedTokenStore(blockedTokenRepository),
+                bloomFilter);
+    }
+
 }
@@ -0,0 +1,239 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.redis.blocklist.BlockedTokenBloomFilter;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RAtomicLongAsync;
+import org.redisson.api.RBatch;
+import org.redisson.api.RBitSet;
+import org.redisson.api.RBitSetAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the real filter against Redis emulated in memory: bitmaps follow {@code SETBIT} bit order (bit 0 is the most
+ * significant bit of the first byte), just like {@code GET} returns them.
+ */
+@RequiredArgsConstructor
+public class BlockedTokenBloomFilterSteps {
+
+    private static final String KEY_PREFIX = "blocked-token-bloom";
+
+    /**
+     * 5 minutes after an hourly generation has started.
+     */
+    private static final Instant START = Instant.parse("2026-01-01T10:05:00Z");
+
+    // DI
+    private final TextWorld textWorld;
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RBatch batch;
+    @Mock
+    private Clock clock;
+    private AutoCloseable closeableMocks;
+
+    private final Map<String, byte[]> bitmaps = new HashMap<>();
+    private final Map<String, Long> versions = new HashMap<>();
+    private long bitsSetCount;
+    private long maxBitSet = -1;
+    private int downloadCount;
+    private long nowMillis;
+
+    private BlockedTokenBloomFilter bloomFilter;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+        nowMillis = START.toEpochMilli();
+
+        when(clock.millis())
+                .thenAnswer(invocation -> nowMillis);
+
+        when(redissonClient.createBatch())
+                .thenReturn(batch);
+        when(batch.getBitSet(anyString()))
+                .thenAnswer(invocation -> createBatchBitSet(invocation.getArgument(0)));
+        when(batch.getAtomicLong(anyString()))
+                .thenAnswer(invocation -> createBatchVersion(invocation.getArgument(0)));
+
+        when(redissonClient.getBitSet(anyString()))
+                .thenAnswer(invocation -> createBitSet(invocation.getArgument(0)));
+        when(redissonClient.getAtomicLong(anyString()))
+                .thenAnswer(invocation -> createVersion(invocation.getArgument(0)));
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a Bloom filter for {long} checksums with false positive rate {double}, rotation period of {int} hours "
+            + "and refresh interval of {int} seconds")
+    public void aBloomFilterFor(long expectedInsertions, double falsePositiveRate, int rotationHours,
+            int refreshSeconds) {
+        bloomFilter = new BlockedTokenBloomFilter(redissonClient, KEY_PREFIX, expectedInsertions, falsePositiveRate,
+                Duration.ofHours(rotationHours), Duration.ofSeconds(refreshSeconds), clock);
+    }
+
+    @When("a Bloom filter for {long} checksums with false positive rate {double} is created")
+    public void aBloomFilterIsCreated(long expectedInsertions, double falsePositiveRate) {
+        textWorld.setLastException(catchThrowable(() -> new BlockedTokenBloomFilter(redissonClient, KEY_PREFIX,
+                expectedInsertions, falsePositiveRate, Duration.ofHours(1), Duration.ofSeconds(10), clock)));
+    }
+
+    @Given("checksums {string} expiring in {int} minutes are added to the Bloom filter")
+    public void checksumsExpiringInMinutesAreAddedToTheBloomFilter(String checksums, int minutes) {
+        Instant expiresAt = Instant.ofEpochMilli(nowMillis).plus(Duration.ofMinutes(minutes));
+        splitChecksums(checksums).forEach(checksum -> bloomFilter.add(checksum, expiresAt));
+    }
+
+    @Given("the Bloom filter local copy is loaded")
+    public void theBloomFilterLocalCopyIsLoaded() {
+        // triggers a refresh which completes immediately because the emulated Redis answers synchronously
+        bloomFilter.mightContain("any");
+    }
+
+    @When("{int} hours pass")
+    public void hoursPass(int hours) {
+        nowMillis += Duration.ofHours(hours).toMillis();
+    }
+
+    @When("{int} seconds pass")
+    public void secondsPass(int seconds) {
+        nowMillis += Duration.ofSeconds(seconds).toMillis();
+    }
+
+    @Then("the Bloom filter might contain checksum {string}")
+    public void theBloomFilterMightContainChecksum(String checksum) {
+        assertThat(bloomFilter.mightContain(checksum))
+                .as(checksum)
+                .isTrue();
+    }
+
+    @Then("the Bloom filter might contain checksums {string}")
+    public void theBloomFilterMightContainChecksums(String checksums) {
+        splitChecksums(checksums).forEach(this::theBloomFilterMightContainChecksum);
+    }
+
+    @Then("the Bloom filter should definitely not contain checksums {string}")
+    public void theBloomFilterShouldDefinitelyNotContainChecksums(String checksums) {
+        splitChecksums(checksums).forEach(checksum -> assertThat(bloomFilter.mightContain(checksum))
+                .as(checksum)
+                .isFalse());
+    }
+
+    @Then("all Redis bits set should be below the Bloom filter bit count")
+    public void allRedisBitsSetShouldBeBelowTheBloomFilterBitCount() {
+        assertThat(maxBitSet)
+                .isBetween(0L, bloomFilter.getBitCount() - 1);
+    }
+
+    @Then("each checksum should have set the Bloom filter hash count of Redis bits")
+    public void eachChecksumShouldHaveSetTheBloomFilterHashCountOfRedisBits() {
+        // 2 checksums, 1 generation
+        assertThat(bitsSetCount)
+                .isEqualTo(2L * bloomFilter.getHashCount());
+    }
+
+    @Then("the Redis bitmap should have been downloaded {int} times")
+    public void theRedisBitmapShouldHaveBeenDownloadedTimes(int count) {
+        assertThat(downloadCount)
+                .isEqualTo(count);
+    }
+
+    private RBitSetAsync createBatchBitSet(String key) {
+        RBitSetAsync bitSet = mock(RBitSetAsync.class);
+
+        when(bitSet.setAsync(anyLong()))
+                .thenAnswer(invocation -> {
+                    setBit(key, invocation.getArgument(0));
+                    return null;
+                });
+
+        return bitSet;
+    }
+
+    private RAtomicLongAsync createBatchVersion(String key) {
+        RAtomicLongAsync version = mock(RAtomicLongAsync.class);
+
+        when(version.incrementAndGetAsync())
+                .thenAnswer(invocation -> {
+                    versions.merge(key, 1L, Long::sum);
+                    return null;
+                });
+
+        return version;
+    }
+
+    private RBitSet createBitSet(String key) {
+        RBitSet bitSet = mock(RBitSet.class);
+
+        when(bitSet.toByteArrayAsync())
+                .thenAnswer(invocation -> {
+                    downloadCount++;
+                    byte[] bitmap = bitmaps.get(key);
+                    return new CompletableFutureWrapper<>((bitmap == null) ? null : bitmap.clone());
+                });
+
+        return bitSet;
+    }
+
+    private RAtomicLong createVersion(String key) {
+        RAtomicLong version = mock(RAtomicLong.class);
+
+        when(version.getAsync())
+                .thenAnswer(invocation -> new CompletableFutureWrapper<>(versions.getOrDefault(key, 0L)));
+
+        return version;
+    }
+
+    /**
+     * Emulates {@code SETBIT key offset 1}: the bitmap grows as needed, bit 0 is the most significant bit of the first
+     * byte.
+     */
+    private void setBit(String key, long offset) {
+        int byteIndex = Math.toIntExact(offset >>> 3);
+        byte[] bitmap = bitmaps.getOrDefault(key, new byte[0]);
+
+        if (bitmap.length <= byteIndex) {
+            bitmap = Arrays.copyOf(bitmap, byteIndex + 1);
+        }
+
+        bitmap[byteIndex] |= (byte) (0x80 >>> (offset & 7));
+        bitmaps.put(key, bitmap);
+        bitsSetCount++;
+        maxBitSet = Math.max(maxBitSet, offset);
+    }
+
+    private static List<String> splitChecksums(String checksums) {
+        return List.of(checksums.split(","));
+    }
+
+}
@@ -0,0 +1,178 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.redis.cache.BulkCacheOperations;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.lang3.StringUtils;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BulkCacheOperationsSteps {
+
+    private static final String CACHE_NAME = "products";
+
+    @Mock
+    private RedisConnectionFactory redisConnectionFactory;
+    @Mock
+    private RedisConnection redisConnection;
+    @Mock
+    private RedisStringCommands stringCommands;
+    @Mock
+    private RedisCacheWriter redisCacheWriter;
+    private AutoCloseable closeableMocks;
+
+    private final Map<String, byte[]> redisData = new HashMap<>();
+    private final Map<String, Expiration> redisExpirations = new HashMap<>();
+    private final List<Set<String>> loaderCalls = new ArrayList<>();
+
+    private Cache cache;
+    private Map<String, String> result;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+
+        when(redisConnectionFactory.getConnection())
+                .thenReturn(redisConnection);
+        when(redisConnection.stringCommands())
+                .thenReturn(stringCommands);
+
+        when(stringCommands.mGet(any(byte[][].class)))
+                .thenAnswer(invocation -> Arrays.stream(invocation.getArguments())
+                        .map(key -> redisData.get(new String((byte[]) key, StandardCharsets.UTF_8)))
+                        .toList());
+
+        when(stringCommands.set(any(byte[].class), any(byte[].class), any(Expiration.class),
+                any(RedisStringCommands.SetOption.class)))
+                .thenAnswer(invocation -> {
+                    String key = new String(invocation.getArgument(0, byte[].class), StandardCharsets.UTF_8);
+                    redisData.put(key, invocation.getArgument(1, byte[].class));
+                    redisExpirations.put(key, invocation.getArgument(2, Expiration.class));
+                    return null;
+                });
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("Redis cache holds values for keys {string}")
+    public void redisCacheHoldsValuesForKeys(String keys) {
+        var cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(10))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        RedisSerializer.string()));
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(redisCacheWriter)
+                .cacheDefaults(cacheConfig)
+                .build();
+        cacheManager.initializeCaches();
+        cache = cacheManager.getCache(CACHE_NAME);
+
+        splitKeys(keys).forEach(key -> redisData.put(CACHE_NAME + "::" + key,
+                ("value" + key).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Given("in-memory cache holds values for keys {string}")
+    public void inMemoryCacheHoldsValuesForKeys(String keys) {
+        cache = new ConcurrentMapCache(CACHE_NAME);
+        splitKeys(keys).forEach(key -> cache.put(key, "value" + key));
+    }
+
+    @When("values are requested in bulk for keys {string} and the loader finds keys {string}")
+    public void valuesAreRequestedInBulkForKeysAndTheLoaderFindsKeys(String keys, String foundKeys) {
+        List<String> found = splitKeys(foundKeys);
+
+        result = new BulkCacheOperations(redisConnectionFactory).getAll(cache, splitKeys(keys), missingKeys -> {
+            loaderCalls.add(missingKeys);
+
+            return missingKeys.stream()
+                    .filter(found::contains)
+                    .collect(Collectors.toMap(key -> key, key -> "value" + key));
+        });
+    }
+
+    @Then("the bulk result should be {string}")
+    public void theBulkResultShouldBe(String expected) {
+        var expectedMap = new LinkedHashMap<String, String>();
+        splitKeys(expected).forEach(entry -> expectedMap.put(
+                StringUtils.substringBefore(entry, "="), StringUtils.substringAfter(entry, "=")));
+
+        assertThat(result)
+                .containsExactlyEntriesOf(expectedMap);
+    }
+
+    @Then("the bulk loader should have been called once with keys {string}")
+    public void theBulkLoaderShouldHaveBeenCalledOnceWithKeys(String keys) {
+        assertThat(loaderCalls)
+                .hasSize(1);
+        assertThat(loaderCalls.get(0))
+                .containsExactlyElementsOf(splitKeys(keys));
+    }
+
+    @Then("the bulk loader should not have been called")
+    public void theBulkLoaderShouldNotHaveBeenCalled() {
+        assertThat(loaderCalls)
+                .isEmpty();
+    }
+
+    @Then("Redis should have been read with {int} MGET commands")
+    public void redisShouldHaveBeenReadWithMgetCommands(int count) {
+        verify(stringCommands, times(count)).mGet(any(byte[][].class));
+    }
+
+    @Then("Redis should have been written in {int} pipelines")
+    public void redisShouldHaveBeenWrittenInPipelines(int count) {
+        verify(redisConnection, times(count)).openPipeline();
+        verify(redisConnection, times(count)).closePipeline();
+    }
+
+    @Then("Redis should hold {string} for cache key {string} with TTL of {int} minutes")
+    public void redisShouldHoldForCacheKeyWithTtl(String value, String key, int ttlMinutes) {
+        assertThat(redisData.get(key))
+                .asString(StandardCharsets.UTF_8)
+                .isEqualTo(value);
+        assertThat(redisExpirations.get(key).getExpirationTimeInSeconds())
+                .isEqualTo(Duration.ofMinutes(ttlMinutes).toSeconds());
+    }
+
+    private static List<String> splitKeys(String keys) {
+        return StringUtils.isBlank(keys)
+                ? List.of()
+                : List.of(keys.split(","));
+    }
+
+}
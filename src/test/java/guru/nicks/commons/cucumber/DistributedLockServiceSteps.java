@@ -1,6 +1,10 @@
 package guru.nicks.commons.cucumber;
 
 import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.redis.domain.DistributedLockProperties;
+import guru.nicks.commons.redis.domain.LockMode;
+import guru.nicks.commons.redis.domain.LockOptions;
+import guru.nicks.commons.redis.exception.LockNotAcquiredException;
 import guru.nicks.commons.redis.impl.DistributedLockServiceImpl;
 import guru.nicks.commons.service.DistributedLockService;
 
@@ -9,23 +13,40 @@ import io.cucumber.java.Before;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.redisson.api.RLock;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+import org.springframework.lang.Nullable;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,8 +64,18 @@ public class DistributedLockServiceSteps {
     private DistributedLockService distributedLockService;
     private Duration lockTtl;
     private Supplier<String> codeSupplier;
+    private MeterRegistry meterRegistry;
+    private Supplier<CompletableFuture<String>> asyncCodeSupplier;
+    private CompletableFuture<String> asyncResult;
     private String result;
 
+    /**
+     * Simulates the lease renewal script: renews the lease unless {@link #leaseExpires} is set.
+     */
+    private final AtomicInteger leaseRenewals = new AtomicInteger();
+    private volatile boolean leaseExpires;
+    private volatile boolean unlockedWhileHeld;
+
     @Before
     public void beforeEachScenario() {
         closeableMocks = MockitoAnnotations.openMocks(this);
@@ -119,6 +150,323 @@ public class DistributedLockServiceSteps {
         textWorld.setLastException(thrown);
     }
 
+    @Given("locks matching {string} use mode {string}")
+    public void locksMatchingUseMode(String pattern, String mode) {
+        distributedLockService = new DistributedLockServiceImpl(redissonClient, DistributedLockProperties.builder()
+                .modes(Map.of(pattern, LockMode.valueOf(mode)))
+                .build());
+    }
+
+    @When("code is executed with lock name {string} in the configured mode")
+    public void codeIsExecutedWithLockNameInTheConfiguredMode(String lockName) {
+        lockTtl = Duration.ofMillis(1000);
+
+        when(redissonClient.getFairLock(anyString()))
+                .thenReturn(lock);
+        when(redissonClient.getLock(anyString()))
+                .thenReturn(lock);
+        when(redissonClient.getSpinLock(anyString()))
+                .thenReturn(lock);
+
+        Throwable thrown = catchThrowable(() ->
+                result = distributedLockService.withExclusiveLock(lockName, lockTtl, codeSupplier));
+        textWorld.setLastException(thrown);
+    }
+
+    @Then("a {string} lock should have been used")
+    public void aLockShouldHaveBeenUsed(String mode) {
+        switch (LockMode.valueOf(mode)) {
+            case FAIR -> verify(redissonClient).getFairLock(anyString());
+            case NON_FAIR -> verify(redissonClient).getLock(anyString());
+            case SPIN -> verify(redissonClient).getSpinLock(anyString());
+            default -> throw new IllegalArgumentException("Unexpected lock mode: " + mode);
+        }
+
+        verify(lock).lock(lockTtl.toMillis(), TimeUnit.MILLISECONDS);
+        verify(lock).unlock();
+    }
+
+    @Given("the lock {string} is held by someone else")
+    public void theLockIsHeldBySomeoneElse(String lockName) throws InterruptedException {
+        when(redissonClient.getFairLock(lockName))
+                .thenReturn(lock);
+        when(lock.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS)))
+                .thenReturn(false);
+    }
+
+    @When("code is executed with lock name {string} and wait time of {int} ms, fallback: {booleanValue}")
+    public void codeIsExecutedWithLockNameAndWaitTimeOfMsFallback(String lockName, int waitTimeMs,
+            boolean withFallback) {
+        var options = LockOptions.builder()
+                .waitTime(Duration.ofMillis(waitTimeMs))
+                .build();
+
+        Throwable thrown = catchThrowable(() ->
+                result = ((DistributedLockServiceImpl) distributedLockService).withExclusiveLockOrElse(lockName,
+                        Duration.ofMillis(1000), options, codeSupplier, withFallback ? () -> "fallback" : null));
+        textWorld.setLastException(thrown);
+    }
+
+    @Then("the code should not be executed")
+    public void theCodeShouldNotBeExecuted() {
+        assertThat(codeExecuted.get())
+                .as("Code execution flag")
+                .isFalse();
+    }
+
+    @Then("the fallback result should be {booleanValue}")
+    public void theFallbackResultShouldBe(boolean withFallback) {
+        if (withFallback) {
+            assertThat(textWorld.getLastException())
+                    .as("exception")
+                    .isNull();
+            assertThat(result)
+                    .as("Execution result")
+                    .isEqualTo("fallback");
+        } else {
+            assertThat(textWorld.getLastException())
+                    .as("exception")
+                    .isInstanceOf(LockNotAcquiredException.class);
+        }
+    }
+
+    @Given("local lock coalescing is enabled")
+    public void localLockCoalescingIsEnabled() {
+        enableLocalCoalescing(null);
+    }
+
+    @Given("local lock coalescing is enabled with at most {int} handoffs")
+    public void localLockCoalescingIsEnabledWithAtMostHandoffs(int maxHandoffs) {
+        enableLocalCoalescing(maxHandoffs);
+    }
+
+    @Given("the Redis lease expires during handoffs: {booleanValue}")
+    public void theRedisLeaseExpiresDuringHandoffs(boolean expires) {
+        leaseExpires = expires;
+    }
+
+    @When("code is executed with lock name {string} and lock TTL of {int} ms, nested under the same lock")
+    public void codeIsExecutedWithLockNameAndLockTTLOfMsNestedUnderTheSameLock(String lockName, int lockTtlMs) {
+        lockTtl = Duration.ofMillis(lockTtlMs);
+
+        when(redissonClient.getFairLock(lockName))
+                .thenReturn(lock);
+
+        Supplier<String> innerCodeSupplier = codeSupplier;
+        Throwable thrown = catchThrowable(() ->
+                result = distributedLockService.withExclusiveLock(lockName, lockTtl, () -> {
+                    String innerResult = distributedLockService.withExclusiveLock(lockName, lockTtl,
+                            innerCodeSupplier);
+                    unlockedWhileHeld = Mockito.mockingDetails(lock).getInvocations().stream()
+                            .anyMatch(invocation -> "unlockAsync".equals(invocation.getMethod().getName()));
+                    return innerResult;
+                }));
+        textWorld.setLastException(thrown);
+    }
+
+    @When("{int} threads execute code with lock name {string} concurrently, each holding the lock for {int} ms")
+    public void threadsExecuteCodeWithLockNameConcurrentlyEachHoldingTheLockForMs(int threadCount, String lockName,
+            int holdMs) throws InterruptedException {
+        lockTtl = Duration.ofMillis(10_000);
+        theCodeTakesMs(holdMs);
+
+        when(redissonClient.getFairLock(lockName))
+                .thenReturn(lock);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread(() -> distributedLockService.withExclusiveLock(lockName, lockTtl, codeSupplier)));
+        }
+
+        // the first thread holds the lock long enough for the others to queue locally
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    @Then("the Redis lock should not have been released before the outermost code finished")
+    public void theRedisLockShouldNotHaveBeenReleasedBeforeTheOutermostCodeFinished() {
+        assertThat(unlockedWhileHeld)
+                .as("Redis lock released by nested call")
+                .isFalse();
+    }
+
+    @Then("the Redis lock should have been acquired {int} times, renewed {int} times, and released {int} times")
+    public void theRedisLockShouldHaveBeenAcquiredTimesRenewedTimesAndReleasedTimes(int acquisitions, int renewals,
+            int releases) {
+        verify(lock, times(acquisitions)).lockAsync(eq(lockTtl.toMillis()), eq(TimeUnit.MILLISECONDS), anyLong());
+        verify(lock, times(releases)).unlockAsync(anyLong());
+
+        assertThat(leaseRenewals.get())
+                .as("lease renewals")
+                .isEqualTo(renewals);
+    }
+
+    @Then("the Redis lock should have been acquired and released by the same synthetic owner")
+    public void theRedisLockShouldHaveBeenAcquiredAndReleasedByTheSameSyntheticOwner() {
+        var ownerIdCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(lock).lockAsync(eq(lockTtl.toMillis()), eq(TimeUnit.MILLISECONDS), ownerIdCaptor.capture());
+
+        assertThat(ownerIdCaptor.getValue())
+                .as("synthetic owner ID")
+                .isNegative();
+
+        verify(lock).unlockAsync(ownerIdCaptor.getValue());
+        verify(lock, never()).lock(anyLong(), eq(TimeUnit.MILLISECONDS));
+        verify(lock, never()).unlock();
+    }
+
+    private void enableLocalCoalescing(@Nullable Integer maxHandoffs) {
+        distributedLockService = new DistributedLockServiceImpl(redissonClient, DistributedLockProperties.builder()
+                .localCoalescing(DistributedLockProperties.LocalCoalescing.builder()
+                        .enabled(true)
+                        .maxHandoffs(maxHandoffs)
+                        .build())
+                .build());
+
+        when(lock.lockAsync(anyLong(), eq(TimeUnit.MILLISECONDS), anyLong()))
+                .thenReturn(new CompletableFutureWrapper<>((Void) null));
+        when(lock.unlockAsync(anyLong()))
+                .thenReturn(new CompletableFutureWrapper<>((Void) null));
+        when(lock.getName())
+                .thenReturn("coalesced-lock");
+        when(redissonClient.getId())
+                .thenReturn("redisson-id");
+
+        RScript script = Mockito.mock(RScript.class, invocation -> {
+            if (!"eval".equals(invocation.getMethod().getName())) {
+                return null;
+            }
+
+            if (leaseExpires) {
+                return false;
+            }
+
+            leaseRenewals.incrementAndGet();
+            return true;
+        });
+        when(redissonClient.getScript(any()))
+                .thenReturn(script);
+    }
+
+    @Given("a distributed lock service with metrics for lock name patterns {string}")
+    public void aDistributedLockServiceWithMetricsForLockNamePatterns(String patterns) {
+        aDistributedLockServiceIsAvailable();
+        meterRegistry = new SimpleMeterRegistry();
+
+        distributedLockService = new DistributedLockServiceImpl(redissonClient, DistributedLockProperties.builder()
+                .metrics(DistributedLockProperties.Metrics.builder()
+                        .namePatterns(Arrays.asList(patterns.split(",")))
+                        .build())
+                .build(),
+                meterRegistry);
+    }
+
+    @Given("the lock {string} is contended")
+    public void theLockIsContended(String lockName) {
+        // held by someone else for a while
+        doAnswer(invocation -> {
+            Thread.sleep(50);
+            return null;
+        }).when(lock).lock(anyLong(), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Given("the code takes {int} ms")
+    public void theCodeTakesMs(int durationMs) {
+        Supplier<String> originalSupplier = codeSupplier;
+
+        codeSupplier = () -> {
+            try {
+                Thread.sleep(durationMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            return originalSupplier.get();
+        };
+    }
+
+    @Then("lock hold time should have been recorded with lock tag {string}")
+    public void lockHoldTimeShouldHaveBeenRecordedWithLockTag(String tag) {
+        assertThat(meterRegistry.get(DistributedLockServiceImpl.HOLD_METRIC).tag("lock", tag).timer().count())
+                .as("hold timer count")
+                .isEqualTo(1);
+    }
+
+    @Then("lock contention and lease overrun should have been counted with lock tag {string}")
+    public void lockContentionAndLeaseOverrunShouldHaveBeenCountedWithLockTag(String tag) {
+        assertThat(meterRegistry.get(DistributedLockServiceImpl.CONTENTION_METRIC).tag("lock", tag).counter().count())
+                .as("contention count")
+                .isEqualTo(1);
+
+        assertThat(meterRegistry.get(DistributedLockServiceImpl.LEASE_OVERRUN_METRIC).tag("lock", tag).counter()
+                .count())
+                .as("lease overrun count")
+                .isEqualTo(1);
+    }
+
+    @Then("no lock contention should have been counted with lock tag {string}")
+    public void noLockContentionShouldHaveBeenCountedWithLockTag(String tag) {
+        assertThat(meterRegistry.get(DistributedLockServiceImpl.CONTENTION_METRIC).tag("lock", tag).counter().count())
+                .as("contention count")
+                .isZero();
+    }
+
+    @Then("the lock should have been acquired with a single Redis call")
+    public void theLockShouldHaveBeenAcquiredWithASingleRedisCall() throws InterruptedException {
+        verify(lock).lock(anyLong(), eq(TimeUnit.MILLISECONDS));
+        verify(lock, never()).tryLock(anyLong(), anyLong(), any());
+    }
+
+    @Given("the asynchronous code will fail: {booleanValue}")
+    public void theAsynchronousCodeWillFail(boolean codeFails) {
+        asyncCodeSupplier = () -> {
+            codeExecuted.set(true);
+
+            return codeFails
+                    ? CompletableFuture.failedFuture(new IllegalStateException("Test exception"))
+                    : CompletableFuture.completedFuture("success");
+        };
+    }
+
+    @When("asynchronous code is executed with lock name {string} and lock TTL of {int} ms")
+    public void asynchronousCodeIsExecutedWithLockNameAndLockTTLOfMs(String lockName, int lockTtlMs) {
+        lockTtl = Duration.ofMillis(lockTtlMs);
+
+        when(redissonClient.getFairLock(lockName))
+                .thenReturn(lock);
+        when(lock.lockAsync(anyLong(), eq(TimeUnit.MILLISECONDS), anyLong()))
+                .thenReturn(new CompletableFutureWrapper<>((Void) null));
+        when(lock.unlockAsync(anyLong()))
+                .thenReturn(new CompletableFutureWrapper<>((Void) null));
+
+        asyncResult = ((DistributedLockServiceImpl) distributedLockService)
+                .withExclusiveLockAsync(lockName, lockTtl, asyncCodeSupplier);
+    }
+
+    @Then("the asynchronous result should be failed: {booleanValue}")
+    public void theAsynchronousResultShouldBeFailed(boolean failed) {
+        Throwable thrown = catchThrowable(() -> result = asyncResult.join());
+
+        assertThat(codeExecuted.get())
+                .as("Code execution flag")
+                .isTrue();
+
+        if (failed) {
+            assertThat(thrown)
+                    .as("exception")
+                    .hasRootCauseInstanceOf(IllegalStateException.class);
+        } else {
+            assertThat(thrown)
+                    .as("exception")
+                    .isNull();
+            assertThat(result)
+                    .as("Execution result")
+                    .isEqualTo("success");
+        }
+    }
+
     @Then("the unlock method should not be called")
     public void theUnlockMethodShouldNotBeCalled() {
         verify(lock, never()).unlock();
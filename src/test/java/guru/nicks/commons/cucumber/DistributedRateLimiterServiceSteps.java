@@ -0,0 +1,153 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.redis.domain.RateLimiterProperties;
+import guru.nicks.commons.redis.impl.DistributedRateLimiterServiceImpl;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RequiredArgsConstructor
+public class DistributedRateLimiterServiceSteps {
+
+    // DI
+    private final TextWorld textWorld;
+
+    @Mock
+    private RedissonClient redissonClient;
+    private AutoCloseable closeableMocks;
+
+    /**
+     * Simulates the token bucket script: 'eval' grants up to {@link #availablePermits} (negative requests return
+     * permits).
+     */
+    private final AtomicLong availablePermits = new AtomicLong();
+    private final AtomicLong returnedPermits = new AtomicLong();
+    private final AtomicInteger redisCalls = new AtomicInteger();
+
+    private DistributedRateLimiterServiceImpl rateLimiterService;
+    private int acquiredPermits;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+
+        RScript script = Mockito.mock(RScript.class, invocation -> {
+            if (!"eval".equals(invocation.getMethod().getName())) {
+                return null;
+            }
+
+            redisCalls.incrementAndGet();
+            long requested = Long.parseLong((String) invocation.getArguments()[7]);
+
+            if (requested < 0) {
+                returnedPermits.addAndGet(-requested);
+                availablePermits.addAndGet(-requested);
+                return 0L;
+            }
+
+            long granted = Math.min(requested, availablePermits.get());
+            availablePermits.addAndGet(-granted);
+            return granted;
+        });
+
+        when(redissonClient.getScript(any()))
+                .thenReturn(script);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        if (rateLimiterService != null) {
+            rateLimiterService.destroy();
+        }
+
+        closeableMocks.close();
+    }
+
+    @Given("a rate limiter {string} with rate {long} and lease size {int}")
+    public void aRateLimiterWithRateAndLeaseSize(String limiterName, long rate, int leaseSize) {
+        rateLimiterService = new DistributedRateLimiterServiceImpl(redissonClient, RateLimiterProperties.builder()
+                .limiters(Map.of(limiterName, RateLimiterProperties.Limiter.builder()
+                        .rate(rate)
+                        .period(Duration.ofSeconds(1))
+                        .leaseSize(leaseSize)
+                        // no background returns during the scenario
+                        .leaseTtl(Duration.ofHours(1))
+                        .build()))
+                .build());
+    }
+
+    @When("a rate limiter {string} with rate {long} and period {string} is created")
+    public void aRateLimiterWithRateAndPeriodIsCreated(String limiterName, long rate, String period) {
+        textWorld.setLastException(catchThrowable(() ->
+                rateLimiterService = new DistributedRateLimiterServiceImpl(redissonClient,
+                        RateLimiterProperties.builder()
+                                .limiters(Map.of(limiterName, RateLimiterProperties.Limiter.builder()
+                                        .rate(rate)
+                                        .period(Duration.parse(period))
+                                        .build()))
+                                .build())));
+    }
+
+    @Given("Redis has {long} permits of rate limiter {string}")
+    public void redisHasPermitsOfRateLimiter(long permits, String limiterName) {
+        availablePermits.set(permits);
+    }
+
+    @When("{int} permits are acquired one by one from rate limiter {string}")
+    public void permitsAreAcquiredOneByOneFromRateLimiter(int attempts, String limiterName) {
+        textWorld.setLastException(catchThrowable(() -> {
+            for (int i = 0; i < attempts; i++) {
+                if (rateLimiterService.tryAcquire(limiterName)) {
+                    acquiredPermits++;
+                }
+            }
+        }));
+    }
+
+    @When("the rate limiter service is shut down")
+    public void theRateLimiterServiceIsShutDown() {
+        rateLimiterService.destroy();
+    }
+
+    @Then("{int} permits should have been acquired")
+    public void permitsShouldHaveBeenAcquired(int expected) {
+        assertThat(acquiredPermits)
+                .as("acquired permits")
+                .isEqualTo(expected);
+    }
+
+    @Then("Redis should have been called {int} times")
+    public void redisShouldHaveBeenCalledTimes(int expected) {
+        assertThat(redisCalls.get())
+                .as("Redis calls")
+                .isEqualTo(expected);
+    }
+
+    @Then("Redis should have got {long} permits back")
+    public void redisShouldHaveGotPermitsBack(long expected) {
+        assertThat(returnedPermits.get())
+                .as("returned permits")
+                .isEqualTo(expected);
+    }
+
+}
@@ -0,0 +1,87 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.redis.blocklist.KeyBlockedTokenStore;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.redisson.api.RBucket;
+import org.redisson.api.RKeys;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class KeyBlockedTokenStoreSteps {
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RBucket<String> bucket;
+    @Mock
+    private RKeys keys;
+    private AutoCloseable closeableMocks;
+
+    private KeyBlockedTokenStore store;
+    private boolean isBlockedResult;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a key-based blocked token store with legacy fallback {word}")
+    public void aKeyBasedBlockedTokenStoreWithLegacyFallback(String fallback) {
+        when(redissonClient.<String>getBucket(anyString(), eq(StringCodec.INSTANCE)))
+                .thenReturn(bucket);
+        when(redissonClient.getKeys())
+                .thenReturn(keys);
+
+        store = new KeyBlockedTokenStore(redissonClient, "blocked-jwt", "enabled".equals(fallback));
+    }
+
+    @Given("Redis holds {long} of keys {string}")
+    public void redisHoldsOfKeys(long count, String keyNames) {
+        when(keys.countExists(keyNames.split(",")))
+                .thenReturn(count);
+    }
+
+    @When("checksum {string} is blocked in the store for {long} seconds")
+    public void checksumIsBlockedInTheStoreForSeconds(String checksum, long seconds) {
+        store.block(checksum, Duration.ofSeconds(seconds));
+    }
+
+    @When("checksum {string} is looked up in the store")
+    public void checksumIsLookedUpInTheStore(String checksum) {
+        isBlockedResult = store.isBlocked(checksum);
+    }
+
+    @Then("key {string} should have been set if absent with a TTL of {long} seconds")
+    public void keyShouldHaveBeenSetIfAbsentWithATTLOfSeconds(String key, long seconds) {
+        verify(redissonClient).getBucket(key, StringCodec.INSTANCE);
+        verify(bucket).setIfAbsent("1", Duration.ofSeconds(seconds));
+    }
+
+    @Then("the store should answer {booleanValue}")
+    public void theStoreShouldAnswer(boolean expected) {
+        assertThat(isBlockedResult)
+                .as("isBlocked result")
+                .isEqualTo(expected);
+    }
+
+}
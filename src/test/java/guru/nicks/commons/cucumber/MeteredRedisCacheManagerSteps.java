@@ -0,0 +1,181 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.redis.cache.BulkCacheOperations;
+import guru.nicks.commons.redis.cache.MeteredRedisCacheManager;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class MeteredRedisCacheManagerSteps {
+
+    @Mock
+    private RedisConnectionFactory redisConnectionFactory;
+    @Mock
+    private RedisConnection redisConnection;
+    @Mock
+    private RedisStringCommands stringCommands;
+    private AutoCloseable closeableMocks;
+
+    private final Map<String, byte[]> redisData = new HashMap<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private String cacheManagerName;
+    private CacheManager cacheManager;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+
+        when(redisConnectionFactory.getConnection())
+                .thenReturn(redisConnection);
+        when(redisConnection.stringCommands())
+                .thenReturn(stringCommands);
+
+        when(stringCommands.get(any(byte[].class)))
+                .thenAnswer(invocation -> redisData.get(
+                        new String(invocation.getArgument(0, byte[].class), StandardCharsets.UTF_8)));
+        when(stringCommands.set(any(byte[].class), any(byte[].class), any(Expiration.class),
+                any(RedisStringCommands.SetOption.class)))
+                .thenAnswer(invocation -> {
+                    redisData.put(new String(invocation.getArgument(0, byte[].class), StandardCharsets.UTF_8),
+                            invocation.getArgument(1, byte[].class));
+                    return true;
+                });
+        when(stringCommands.mGet(any(byte[][].class)))
+                .thenAnswer(invocation -> Arrays.stream(invocation.getArguments())
+                        .map(key -> redisData.get(new String((byte[]) key, StandardCharsets.UTF_8)))
+                        .toList());
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("metered Redis cache manager {string} is created")
+    public void meteredRedisCacheManagerIsCreated(String name) {
+        cacheManagerName = name;
+
+        var redisCacheManager = new MeteredRedisCacheManager(
+                RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory, BatchStrategies.scan(100)),
+                RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofMinutes(10)),
+                RedisSerializer.java(), name, meterRegistry);
+        redisCacheManager.initializeCaches();
+        cacheManager = redisCacheManager;
+    }
+
+    @When("value {string} is put into metered cache {string} for key {string}")
+    public void valueIsPutIntoMeteredCacheForKey(String value, String cacheName, String key) {
+        cacheManager.getCache(cacheName).put(key, value);
+    }
+
+    @When("metered cache {string} is read for keys {string}")
+    public void meteredCacheIsReadForKeys(String cacheName, String keys) {
+        for (String key : keys.split(",")) {
+            cacheManager.getCache(cacheName).get(key);
+        }
+    }
+
+    @When("metered cache {string} is read in bulk for keys {string} and the loader finds keys {string}")
+    public void meteredCacheIsReadInBulkForKeysAndTheLoaderFindsKeys(String cacheName, String keys, String foundKeys) {
+        List<String> found = List.of(foundKeys.split(","));
+
+        new BulkCacheOperations(redisConnectionFactory).getAll(cacheManager.getCache(cacheName),
+                List.of(keys.split(",")), missingKeys -> missingKeys.stream()
+                        .filter(found::contains)
+                        .collect(Collectors.toMap(key -> key, key -> "value" + key)));
+    }
+
+    @Then("meter {string} of cache {string} tagged with {string} should have count {int}")
+    public void meterOfCacheTaggedWithShouldHaveCount(String meterName, String cacheName, String tags, int count) {
+        assertThat(measure(meterName, cacheName, tags, Statistic.COUNT))
+                .isEqualTo(count);
+    }
+
+    @Then("total of meter {string} of cache {string} tagged with {string} should be positive")
+    public void totalOfMeterOfCacheTaggedWithShouldBePositive(String meterName, String cacheName, String tags) {
+        assertThat(measure(meterName, cacheName, tags, Statistic.TOTAL))
+                .isPositive();
+    }
+
+    @Then("histogram of {string} of cache {string} tagged with {string} should count {int} values up to {int} bytes")
+    public void histogramOfCacheTaggedWithShouldCountValuesUpToBytes(String meterName, String cacheName,
+            String tags, int count, int bytes) {
+        var summary = (DistributionSummary) findMeter(meterName, cacheName, tags);
+
+        assertThat(summary.takeSnapshot().histogramCounts())
+                .as("histogram buckets")
+                .filteredOn(countAtBucket -> countAtBucket.bucket() == bytes)
+                .singleElement()
+                .extracting(CountAtBucket::count)
+                .isEqualTo((double) count);
+    }
+
+    /**
+     * @param tags comma-separated {@code key=value} pairs, can be empty
+     */
+    private double measure(String meterName, String cacheName, String tags, Statistic statistic) {
+        return StreamSupport.stream(findMeter(meterName, cacheName, tags).measure().spliterator(), false)
+                .filter(measurement -> measurement.getStatistic() == statistic)
+                .findFirst()
+                .orElseThrow()
+                .getValue();
+    }
+
+    /**
+     * @param tags comma-separated {@code key=value} pairs, can be empty
+     */
+    private Meter findMeter(String meterName, String cacheName, String tags) {
+        Tags meterTags = Tags.of(MeteredRedisCacheManager.CACHE_MANAGER_TAG, cacheManagerName, "cache", cacheName);
+        if (StringUtils.isNotBlank(tags)) {
+            for (String tag : tags.split(",")) {
+                meterTags = meterTags.and(StringUtils.substringBefore(tag, "="), StringUtils.substringAfter(tag, "="));
+            }
+        }
+
+        Meter meter = meterRegistry.find(meterName)
+                .tags(meterTags)
+                .meter();
+        assertThat(meter)
+                .as("meter '%s' tagged with %s", meterName, meterTags)
+                .isNotNull();
+
+        return meter;
+    }
+
+}
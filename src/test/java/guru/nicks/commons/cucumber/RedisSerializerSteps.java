@@ -0,0 +1,194 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.redis.config.CommonsRedisAutoConfiguration;
+import guru.nicks.commons.redis.domain.RedisCompressionCodec;
+import guru.nicks.commons.redis.domain.RedisSerializationFormat;
+import guru.nicks.commons.redis.domain.RedisSerializerProperties;
+import guru.nicks.commons.redis.serializer.CompressingRedisSerializer;
+import guru.nicks.commons.redis.serializer.RedisSerializerCodec;
+import guru.nicks.commons.serializer.NativeJavaSerializer;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import lombok.RequiredArgsConstructor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@RequiredArgsConstructor
+public class RedisSerializerSteps {
+
+    // DI
+    private final TextWorld textWorld;
+
+    @Mock
+    private ObjectProvider<NativeJavaSerializer> nativeJavaSerializerProvider;
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private AutoCloseable closeableMocks;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RedisSerializer<Object> writer;
+    private RedisSerializer<Object> reader;
+    private SerializedValue writtenValue;
+    private byte[] bytes;
+    private Object readValue;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+
+        when(meterRegistryProvider.getIfAvailable(any()))
+                .thenReturn(meterRegistry);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a Redis serializer writing in {string} format")
+    public void aRedisSerializerWritingInFormat(String format) {
+        textWorld.setLastException(catchThrowable(() ->
+                writer = createSerializer(RedisSerializerProperties.builder()
+                        .format(RedisSerializationFormat.valueOf(format))
+                        .build())));
+    }
+
+    @Given("a Redis serializer writing in {string} format with type alias {string} for the test value")
+    public void aRedisSerializerWritingInFormatWithTypeAlias(String format, String alias) {
+        writer = createSerializer(RedisSerializerProperties.builder()
+                .format(RedisSerializationFormat.valueOf(format))
+                .typeAliases(Map.of(alias, SerializedValue.class))
+                .build());
+    }
+
+    @Given("a Redis serializer reading in {string} format with type alias {string} for the test value")
+    public void aRedisSerializerReadingInFormatWithTypeAlias(String format, String alias) {
+        reader = createSerializer(RedisSerializerProperties.builder()
+                .format(RedisSerializationFormat.valueOf(format))
+                .typeAliases(Map.of(alias, SerializedValue.class))
+                .build());
+    }
+
+    @Given("a Redis serializer writing in {string} format with {string} compression of values over {int} bytes")
+    public void aRedisSerializerWritingInFormatWithCompression(String format, String codec, int threshold) {
+        writer = createSerializer(RedisSerializerProperties.builder()
+                .format(RedisSerializationFormat.valueOf(format))
+                .compression(RedisSerializerProperties.Compression.builder()
+                        .enabled(true)
+                        .codec(RedisCompressionCodec.valueOf(codec))
+                        .threshold(threshold)
+                        .build())
+                .build());
+    }
+
+    @Given("a Redis serializer reading in {string} format")
+    public void aRedisSerializerReadingInFormat(String format) {
+        reader = createSerializer(RedisSerializerProperties.builder()
+                .format(RedisSerializationFormat.valueOf(format))
+                .build());
+    }
+
+    @When("a value is written and read back")
+    public void aValueIsWrittenAndReadBack() {
+        writeAndReadBack("test");
+    }
+
+    @When("a value of {int} characters is written and read back")
+    public void aValueOfCharactersIsWrittenAndReadBack(int length) {
+        writeAndReadBack("test ".repeat(length / 5));
+    }
+
+    @When("a value of {int} characters is written with the Redisson codec and read back")
+    public void aValueOfCharactersIsWrittenWithTheRedissonCodecAndReadBack(int length) {
+        writtenValue = new SerializedValue("test ".repeat(length / 5), Instant.parse("2024-01-02T03:04:05Z"));
+
+        textWorld.setLastException(catchThrowable(() -> {
+            ByteBuf buffer = new RedisSerializerCodec(writer).getValueEncoder().encode(writtenValue);
+
+            try {
+                bytes = ByteBufUtil.getBytes(buffer);
+                readValue = new RedisSerializerCodec(reader).getValueDecoder().decode(buffer, null);
+            } finally {
+                buffer.release();
+            }
+        }));
+    }
+
+    private void writeAndReadBack(String name) {
+        writtenValue = new SerializedValue(name, Instant.parse("2024-01-02T03:04:05Z"));
+
+        textWorld.setLastException(catchThrowable(() -> {
+            bytes = writer.serialize(writtenValue);
+            readValue = reader.deserialize(bytes);
+        }));
+    }
+
+    @Then("the read value should be equal to the written one")
+    public void theReadValueShouldBeEqualToTheWrittenOne() {
+        assertThat(readValue)
+                .isEqualTo(writtenValue);
+    }
+
+    @Then("the Redisson codec output should be readable by the Redis serializer")
+    public void theRedissonCodecOutputShouldBeReadableByTheRedisSerializer() {
+        assertThat(reader.deserialize(bytes))
+                .isEqualTo(writtenValue);
+    }
+
+    @Then("the written value should be plain JSON: {booleanValue}")
+    public void theWrittenValueShouldBePlainJson(boolean plainJson) {
+        assertThat(bytes[0] == '{')
+                .isEqualTo(plainJson);
+    }
+
+    @Then("the written value should be compressed: {booleanValue}")
+    public void theWrittenValueShouldBeCompressed(boolean compressed) {
+        assertThat(RedisCompressionCodec.fromFirstByte(bytes[0]) != null)
+                .isEqualTo(compressed);
+
+        boolean ratioRecorded = meterRegistry.find(CompressingRedisSerializer.COMPRESSION_RATIO_METRIC).summaries()
+                .stream()
+                .anyMatch(summary -> summary.count() > 0);
+        assertThat(ratioRecorded)
+                .isEqualTo(compressed);
+    }
+
+    @Then("the written value should contain {string}: {booleanValue}")
+    public void theWrittenValueShouldContain(String text, boolean contains) {
+        assertThat(new String(bytes, StandardCharsets.UTF_8).contains(text))
+                .isEqualTo(contains);
+    }
+
+    private RedisSerializer<Object> createSerializer(RedisSerializerProperties properties) {
+        return new CommonsRedisAutoConfiguration().redisSerializer(properties, nativeJavaSerializerProvider,
+                meterRegistryProvider);
+    }
+
+    /**
+     * Not a {@code java.*} class, so its class name is stored in the serialized value.
+     */
+    public record SerializedValue(String name, Instant createdAt) {
+    }
+
+}
@@ -0,0 +1,233 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.redis.config.CommonsRedisAutoConfiguration;
+import guru.nicks.commons.redis.domain.RedisProperties;
+import guru.nicks.commons.redis.domain.RedisReadMode;
+import guru.nicks.commons.redis.domain.RedisSerializerProperties;
+import guru.nicks.commons.redis.domain.RedisTopology;
+import guru.nicks.commons.redis.domain.RedisTuningPreset;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.ClusterServersConfig;
+import org.redisson.config.Config;
+import org.redisson.config.ReadMode;
+import org.redisson.config.SentinelServersConfig;
+import org.redisson.config.SingleServerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+@RequiredArgsConstructor
+public class RedisTopologySteps {
+
+    // DI
+    private final TextWorld textWorld;
+
+    @Mock
+    private ObjectProvider<RedisSerializer<Object>> redisSerializerProvider;
+    @Mock
+    private RedissonClient redissonClient;
+    private AutoCloseable closeableMocks;
+
+    private RedisProperties redisProperties;
+    private Config redissonConfig;
+    private List<String> connectionFactoryBeanNames;
+    private boolean connectionFactoryPrimary;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("Redis topology {string} with extra nodes {string} and read mode {string}")
+    public void redisTopologyWithExtraNodesAndReadMode(String topology, String nodes, String readMode) {
+        redisProperties = createRedisProperties(topology, nodes)
+                .sentinelMaster("mymaster")
+                .readMode(StringUtils.isBlank(readMode) ? null : RedisReadMode.valueOf(readMode))
+                .build();
+    }
+
+    @Given("Redis topology {string} with extra nodes {string} and no sentinel master")
+    public void redisTopologyWithExtraNodesAndNoSentinelMaster(String topology, String nodes) {
+        redisProperties = createRedisProperties(topology, nodes)
+                .build();
+    }
+
+    @Given("Redis topology {string} with preset {string}, timeout {int} ms and connection pool size {int}")
+    public void redisTopologyWithPresetTimeoutAndConnectionPoolSize(String topology, String preset, int timeoutMillis,
+            int poolSize) {
+        redisProperties = createRedisProperties(topology, "redis2:6379")
+                .sentinelMaster("mymaster")
+                .preset(StringUtils.isBlank(preset) ? null : RedisTuningPreset.valueOf(preset))
+                .tuning(RedisProperties.Tuning.builder()
+                        .timeout((timeoutMillis == 0) ? null : Duration.ofMillis(timeoutMillis))
+                        .connectionPoolSize((poolSize == 0) ? null : poolSize)
+                        .build())
+                .build();
+    }
+
+    @Given("Redis connection minimum idle size is {int}")
+    public void redisConnectionMinimumIdleSizeIs(int minimumIdleSize) {
+        redisProperties = redisProperties.toBuilder()
+                .connectionMinimumIdleSize(minimumIdleSize)
+                .build();
+    }
+
+    @Given("Redis command timeout is {string}")
+    public void redisCommandTimeoutIs(String timeout) {
+        redisProperties = redisProperties.toBuilder()
+                .tuning(redisProperties.getTuning().toBuilder()
+                        .timeout(Duration.parse(timeout))
+                        .build())
+                .build();
+    }
+
+    @Given("Redis subscription connection pool size is {int} and its minimum idle size is {int}")
+    public void redisSubscriptionConnectionPoolSizeIsAndItsMinimumIdleSizeIs(int poolSize, int minimumIdleSize) {
+        redisProperties = redisProperties.toBuilder()
+                .tuning(redisProperties.getTuning().toBuilder()
+                        .subscriptionConnectionPoolSize(poolSize)
+                        .subscriptionConnectionMinimumIdleSize(minimumIdleSize)
+                        .build())
+                .build();
+    }
+
+    @When("Redisson is configured")
+    public void redissonIsConfigured() {
+        redissonConfig = new Config();
+
+        textWorld.setLastException(catchThrowable(() ->
+                new CommonsRedisAutoConfiguration()
+                        .commonsRedissonAutoConfigurationCustomizer(redisProperties,
+                                RedisSerializerProperties.builder().build(), redisSerializerProvider)
+                        .customize(redissonConfig)));
+    }
+
+    @When("the auto-configuration is loaded with shared connection factory {string}")
+    public void theAutoConfigurationIsLoadedWithSharedConnectionFactory(String sharedConnectionFactory) {
+        var contextRunner = new ApplicationContextRunner()
+                .withUserConfiguration(CommonsRedisAutoConfiguration.SharedConnectionFactoryConfiguration.class)
+                .withBean(RedissonClient.class, () -> redissonClient);
+
+        if (StringUtils.isNotBlank(sharedConnectionFactory)) {
+            contextRunner = contextRunner.withPropertyValues(
+                    "spring.redis.shared-connection-factory=" + sharedConnectionFactory);
+        }
+
+        contextRunner.run(context -> {
+            textWorld.setLastException(context.getStartupFailure());
+            if (context.getStartupFailure() != null) {
+                return;
+            }
+
+            connectionFactoryBeanNames = List.of(context.getBeanNamesForType(RedisConnectionFactory.class));
+            connectionFactoryPrimary = connectionFactoryBeanNames.stream()
+                    .allMatch(name -> context.getBeanFactory().getBeanDefinition(name).isPrimary());
+        });
+    }
+
+    @Then("a primary Redisson connection factory should be registered: {booleanValue}")
+    public void aPrimaryRedissonConnectionFactoryShouldBeRegistered(boolean registered) {
+        if (registered) {
+            assertThat(connectionFactoryBeanNames)
+                    .containsExactly("commonsRedissonConnectionFactory");
+            assertThat(connectionFactoryPrimary)
+                    .as("primary")
+                    .isTrue();
+        } else {
+            assertThat(connectionFactoryBeanNames)
+                    .isEmpty();
+        }
+    }
+
+    @Then("Redisson should connect to {int} nodes of {string} topology with read mode {string}")
+    public void redissonShouldConnectToNodesOfTopologyWithReadMode(int nodeCount, String topology, String readMode) {
+        if (RedisTopology.valueOf(topology) == RedisTopology.CLUSTER) {
+            ClusterServersConfig clusterConfig = redissonConfig.useClusterServers();
+            assertThat(clusterConfig.getNodeAddresses())
+                    .hasSize(nodeCount);
+            assertThat(clusterConfig.getReadMode())
+                    .isEqualTo(ReadMode.valueOf(readMode));
+        } else {
+            SentinelServersConfig sentinelConfig = redissonConfig.useSentinelServers();
+            assertThat(sentinelConfig.getSentinelAddresses())
+                    .hasSize(nodeCount);
+            assertThat(sentinelConfig.getReadMode())
+                    .isEqualTo(ReadMode.valueOf(readMode));
+            assertThat(sentinelConfig.getMasterName())
+                    .isEqualTo("mymaster");
+        }
+    }
+
+    @Then("Redisson should connect to single server {string}")
+    public void redissonShouldConnectToSingleServer(String address) {
+        assertThat(redissonConfig.useSingleServer().getAddress())
+                .isEqualTo(address);
+    }
+
+    @Then("Redisson {string} config should have timeout {int} ms and connection pool size {int}")
+    public void redissonConfigShouldHaveTimeoutAndConnectionPoolSize(String topology, int timeoutMillis,
+            int poolSize) {
+        switch (RedisTopology.valueOf(topology)) {
+            case SINGLE -> {
+                SingleServerConfig serverConfig = redissonConfig.useSingleServer();
+                assertThat(serverConfig.getTimeout())
+                        .isEqualTo(timeoutMillis);
+                assertThat(serverConfig.getConnectionPoolSize())
+                        .isEqualTo(poolSize);
+            }
+
+            case CLUSTER -> {
+                ClusterServersConfig clusterConfig = redissonConfig.useClusterServers();
+                assertThat(clusterConfig.getTimeout())
+                        .isEqualTo(timeoutMillis);
+                assertThat(clusterConfig.getMasterConnectionPoolSize())
+                        .isEqualTo(poolSize);
+                assertThat(clusterConfig.getSlaveConnectionPoolSize())
+                        .isEqualTo(poolSize);
+            }
+
+            case SENTINEL -> {
+                SentinelServersConfig sentinelConfig = redissonConfig.useSentinelServers();
+                assertThat(sentinelConfig.getTimeout())
+                        .isEqualTo(timeoutMillis);
+                assertThat(sentinelConfig.getMasterConnectionPoolSize())
+                        .isEqualTo(poolSize);
+            }
+        }
+    }
+
+    private RedisProperties.RedisPropertiesBuilder createRedisProperties(String topology, String nodes) {
+        return RedisProperties.builder()
+                .topology(RedisTopology.valueOf(topology))
+                .host("redis1")
+                .port(6379)
+                .database(0)
+                .scheme("redis")
+                .connectionMinimumIdleSize(1)
+                .nodes(List.of(nodes.split(",")));
+    }
+
+}
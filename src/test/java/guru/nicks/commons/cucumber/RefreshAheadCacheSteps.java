@@ -0,0 +1,157 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.redis.cache.CacheInvalidationTopic;
+import guru.nicks.commons.redis.cache.RedisCacheTtl;
+import guru.nicks.commons.redis.cache.RefreshAheadCache;
+import guru.nicks.commons.redis.cache.RefreshAheadValue;
+import guru.nicks.commons.redis.cache.TwoLevelCache;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.verify;
+
+public class RefreshAheadCacheSteps {
+
+    private static final String CACHE_NAME = "test-cache";
+
+    @Mock
+    private CacheInvalidationTopic invalidationTopic;
+    private AutoCloseable closeableMocks;
+
+    private final AtomicInteger loaderCalls = new AtomicInteger();
+    private Cache targetCache;
+    private RefreshAheadCache refreshAheadCache;
+    private TwoLevelCache nearCache;
+    private RedisCacheTtl cacheTtl;
+    private Object lastValue;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a refresh-ahead cache with TTL of {int} minutes")
+    public void aRefreshAheadCacheWithTtlOfMinutes(int ttlMinutes) {
+        targetCache = new ConcurrentMapCache(CACHE_NAME);
+        // refreshes run synchronously
+        refreshAheadCache = new RefreshAheadCache(targetCache, new RedisCacheTtl(Duration.ofMinutes(ttlMinutes), 0),
+                1.0, Runnable::run, new DefaultConversionService());
+    }
+
+    @Given("a near cache in front of the refresh-ahead cache")
+    public void aNearCacheInFrontOfTheRefreshAheadCache() {
+        nearCache = new TwoLevelCache(refreshAheadCache, 100, Duration.ofMinutes(1), new DefaultConversionService(),
+                invalidationTopic);
+    }
+
+    @Given("the target cache holds {string} for key {string} expiring in {int} seconds")
+    public void theTargetCacheHoldsForKeyExpiringInSeconds(String value, String key, int expiresInSeconds) {
+        long now = System.currentTimeMillis();
+        targetCache.put(key, new RefreshAheadValue(value, now, 1_000,
+                now + Duration.ofSeconds(expiresInSeconds).toMillis()));
+    }
+
+    @Given("cache TTL of {int} minutes with jitter of {double}")
+    public void cacheTtlOfMinutesWithJitterOf(int ttlMinutes, double jitter) {
+        cacheTtl = new RedisCacheTtl(Duration.ofMinutes(ttlMinutes), jitter);
+    }
+
+    @When("the refresh-ahead cache is read for key {string} with a loader returning {string}")
+    public void theRefreshAheadCacheIsReadForKeyWithALoaderReturning(String key, String value) {
+        lastValue = refreshAheadCache.get(key, () -> {
+            loaderCalls.incrementAndGet();
+            return value;
+        });
+    }
+
+    @When("the near cache is read for key {string} with a loader returning {string}")
+    public void theNearCacheIsReadForKeyWithALoaderReturning(String key, String value) {
+        lastValue = nearCache.get(key, () -> {
+            loaderCalls.incrementAndGet();
+            return value;
+        });
+    }
+
+    @Then("the refresh-ahead cache should return {string}")
+    public void theRefreshAheadCacheShouldReturn(String expectedValue) {
+        assertThat(lastValue)
+                .as("cached value")
+                .isEqualTo(expectedValue);
+    }
+
+    @Then("the refresh-ahead loader should have been called {int} times")
+    public void theRefreshAheadLoaderShouldHaveBeenCalledTimes(int times) {
+        assertThat(loaderCalls.get())
+                .as("loader calls")
+                .isEqualTo(times);
+    }
+
+    @Then("the target cache should hold a refresh-ahead value {string} for key {string} expiring in {int} minutes")
+    public void theTargetCacheShouldHoldARefreshAheadValueForKeyExpiringInMinutes(String value, String key,
+            int expiresInMinutes) {
+        var storedValue = targetCache.get(key, RefreshAheadValue.class);
+
+        assertThat(storedValue)
+                .isNotNull();
+        assertThat(storedValue.value())
+                .isEqualTo(value);
+        assertThat(storedValue.computeMillis())
+                .isPositive();
+        assertThat(storedValue.expiresAt())
+                .isCloseTo(System.currentTimeMillis() + Duration.ofMinutes(expiresInMinutes).toMillis(),
+                        within(Duration.ofSeconds(5).toMillis()));
+    }
+
+    @Then("the near cache should hold {string} for key {string}")
+    public void theNearCacheShouldHoldForKey(String value, String key) {
+        Cache.ValueWrapper valueWrapper = nearCache.getLocal(key);
+
+        assertThat(valueWrapper)
+                .as("near cache entry")
+                .isNotNull();
+        assertThat(valueWrapper.get())
+                .as("near cache value")
+                .isEqualTo(value);
+    }
+
+    @Then("other nodes should have been told to evict key {string}")
+    public void otherNodesShouldHaveBeenToldToEvictKey(String key) {
+        verify(invalidationTopic).publishEvict(CACHE_NAME, key);
+    }
+
+    @Then("{int} generated TTLs should be between {int} and {int} minutes and not all the same")
+    public void generatedTtlsShouldBeBetweenMinutesAndNotAllTheSame(int count, int minMinutes, int maxMinutes) {
+        List<Duration> ttls = IntStream.range(0, count)
+                .mapToObj(i -> cacheTtl.nextTtl())
+                .toList();
+
+        assertThat(ttls)
+                .allSatisfy(ttl -> assertThat(ttl).isBetween(Duration.ofMinutes(minMinutes),
+                        Duration.ofMinutes(maxMinutes)));
+        assertThat(ttls.stream().distinct().count())
+                .as("distinct TTLs")
+                .isGreaterThan(1);
+    }
+
+}
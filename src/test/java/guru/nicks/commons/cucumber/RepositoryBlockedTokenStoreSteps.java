@@ -0,0 +1,185 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.auth.domain.BlockedTokenHash;
+import guru.nicks.commons.redis.blocklist.RepositoryBlockedTokenStore;
+import guru.nicks.commons.redis.repository.BlockedTokenRepository;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.apache.commons.lang3.StringUtils;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.redisson.api.BatchResult;
+import org.redisson.api.RBatch;
+import org.redisson.api.RKeys;
+import org.redisson.api.RKeysAsync;
+import org.redisson.api.RedissonClient;
+import org.redisson.misc.CompletableFutureWrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class RepositoryBlockedTokenStoreSteps {
+
+    @Mock
+    private BlockedTokenRepository blockedTokenRepository;
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RBatch batch;
+    @Mock
+    private RKeysAsync batchKeys;
+    @Mock
+    private RKeys keys;
+    @Captor
+    private ArgumentCaptor<BlockedTokenHash> blockedTokenHashCaptor;
+    private AutoCloseable closeableMocks;
+
+    /**
+     * Redis keys of blocked token hashes.
+     */
+    private final Set<String> existingKeys = new HashSet<>();
+    private final List<String> checkedKeys = new ArrayList<>();
+
+    private RepositoryBlockedTokenStore store;
+    private Map<String, Boolean> areBlockedResult;
+    private Boolean isBlockedResult;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+
+        when(redissonClient.createBatch())
+                .thenReturn(batch);
+        when(batch.getKeys())
+                .thenReturn(batchKeys);
+        when(batchKeys.countExistsAsync(any(String[].class)))
+                .thenAnswer(invocation -> {
+                    for (Object key : invocation.getArguments()) {
+                        checkedKeys.add((String) key);
+                    }
+
+                    return null;
+                });
+        // responses come in the order of commands
+        when(batch.execute())
+                .thenAnswer(invocation -> new BatchResult<>(checkedKeys.stream()
+                        .map(key -> existingKeys.contains(key) ? 1L : 0L)
+                        .toList(), 0));
+
+        when(redissonClient.getKeys())
+                .thenReturn(keys);
+        when(keys.countExistsAsync(any(String[].class)))
+                .thenAnswer(invocation -> {
+                    long count = 0;
+
+                    for (Object key : invocation.getArguments()) {
+                        checkedKeys.add((String) key);
+                        count += existingKeys.contains(key) ? 1 : 0;
+                    }
+
+                    return new CompletableFutureWrapper<>(count);
+                });
+
+        when(blockedTokenRepository.existsById(anyString()))
+                .thenAnswer(invocation -> existingKeys.contains("blocked-access-token:" + invocation.getArgument(0)));
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a repository-based blocked token store with Redisson")
+    public void aRepositoryBasedBlockedTokenStoreWithRedisson() {
+        store = new RepositoryBlockedTokenStore(blockedTokenRepository, redissonClient);
+    }
+
+    @Given("a repository-based blocked token store without Redisson")
+    public void aRepositoryBasedBlockedTokenStoreWithoutRedisson() {
+        store = new RepositoryBlockedTokenStore(blockedTokenRepository);
+    }
+
+    @Given("Redis holds blocked token hashes for checksums {string}")
+    public void redisHoldsBlockedTokenHashesForChecksums(String checksums) {
+        split(checksums).forEach(checksum -> existingKeys.add("blocked-access-token:" + checksum));
+    }
+
+    @When("checksums {string} are looked up in bulk in the repository-based store")
+    public void checksumsAreLookedUpInBulkInTheRepositoryBasedStore(String checksums) {
+        areBlockedResult = store.areBlocked(split(checksums));
+    }
+
+    @When("checksum {string} is looked up asynchronously in the repository-based store")
+    public void checksumIsLookedUpAsynchronouslyInTheRepositoryBasedStore(String checksum) {
+        isBlockedResult = store.isBlockedAsync(checksum).join();
+    }
+
+    @When("checksum {string} is blocked asynchronously in the repository-based store for {int} seconds")
+    public void checksumIsBlockedAsynchronouslyInTheRepositoryBasedStoreForSeconds(String checksum, int seconds) {
+        store.blockAsync(checksum, Duration.ofSeconds(seconds)).join();
+    }
+
+    @Then("the repository-based store should answer {string}")
+    public void theRepositoryBasedStoreShouldAnswer(String expected) {
+        var expectedMap = new LinkedHashMap<String, Boolean>();
+        split(expected).forEach(entry -> expectedMap.put(StringUtils.substringBefore(entry, "="),
+                Boolean.valueOf(StringUtils.substringAfter(entry, "="))));
+
+        assertThat(areBlockedResult)
+                .containsExactlyInAnyOrderEntriesOf(expectedMap);
+    }
+
+    @Then("Redis should have been asked for existence of keys {string} in {int} batch")
+    public void redisShouldHaveBeenAskedForExistenceOfKeysInBatch(String keys, int batchCount) {
+        assertThat(checkedKeys)
+                .containsExactlyElementsOf(split(keys));
+        verify(batch, times(batchCount)).execute();
+    }
+
+    @Then("the asynchronous answer of the repository-based store should be {booleanValue}")
+    public void theAsynchronousAnswerOfTheRepositoryBasedStoreShouldBe(boolean expected) {
+        assertThat(isBlockedResult)
+                .isEqualTo(expected);
+    }
+
+    @Then("the blocked token repository should have saved checksum {string} with TTL of {int} seconds")
+    public void theBlockedTokenRepositoryShouldHaveSavedChecksumWithTtlOfSeconds(String checksum, int seconds) {
+        verify(blockedTokenRepository).save(blockedTokenHashCaptor.capture());
+
+        assertThat(blockedTokenHashCaptor.getValue().getTokenChecksum())
+                .isEqualTo(checksum);
+        assertThat(blockedTokenHashCaptor.getValue().getTimeToLiveSec())
+                .isEqualTo((long) seconds);
+    }
+
+    @Then("the blocked token repository should not have been called")
+    public void theBlockedTokenRepositoryShouldNotHaveBeenCalled() {
+        verifyNoInteractions(blockedTokenRepository);
+    }
+
+    private static List<String> split(String str) {
+        return StringUtils.isBlank(str)
+                ? List.of()
+                : List.of(str.split(","));
+    }
+
+}
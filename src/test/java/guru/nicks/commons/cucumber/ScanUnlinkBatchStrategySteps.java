@@ -0,0 +1,135 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.cucumber.world.TextWorld;
+import guru.nicks.commons.redis.cache.ScanUnlinkBatchStrategy;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import lombok.RequiredArgsConstructor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.cache.BatchStrategy;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RequiredArgsConstructor
+public class ScanUnlinkBatchStrategySteps {
+
+    // DI
+    private final TextWorld textWorld;
+
+    @Mock
+    private RedisConnectionFactory redisConnectionFactory;
+    @Mock
+    private RedisConnection redisConnection;
+    @Mock
+    private RedisKeyCommands keyCommands;
+    @Mock
+    private Cursor<byte[]> cursor;
+    private AutoCloseable closeableMocks;
+
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+
+    private RedisCacheWriter cacheWriter;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+
+        when(redisConnectionFactory.getConnection())
+                .thenReturn(redisConnection);
+        when(redisConnection.keyCommands())
+                .thenReturn(keyCommands);
+        when(keyCommands.unlink(any(byte[][].class)))
+                .thenAnswer(invocation -> (long) invocation.getArguments().length);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("Redis holds {int} keys of cache {string}")
+    public void redisHoldsKeysOfCache(int count, String cacheName) {
+        Iterator<byte[]> keys = IntStream.range(0, count)
+                .mapToObj(i -> (cacheName + "::" + i).getBytes(StandardCharsets.UTF_8))
+                .iterator();
+
+        when(keyCommands.scan(any(ScanOptions.class)))
+                .thenReturn(cursor);
+        when(cursor.hasNext())
+                .thenAnswer(invocation -> keys.hasNext());
+        when(cursor.next())
+                .thenAnswer(invocation -> keys.next());
+    }
+
+    @Given("caches are cleared synchronously in batches of {int} keys")
+    public void cachesAreClearedSynchronouslyInBatchesOfKeys(int batchSize) {
+        textWorld.setLastException(catchThrowable(() ->
+                createCacheWriter(new ScanUnlinkBatchStrategy(batchSize, redisConnectionFactory, null))));
+    }
+
+    @Given("caches are cleared asynchronously in batches of {int} keys")
+    public void cachesAreClearedAsynchronouslyInBatchesOfKeys(int batchSize) {
+        createCacheWriter(new ScanUnlinkBatchStrategy(batchSize, redisConnectionFactory, backgroundTasks::add));
+    }
+
+    @When("cache {string} is cleared")
+    public void cacheIsCleared(String cacheName) {
+        cacheWriter.clean(cacheName, (cacheName + "::*").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @When("background tasks are run")
+    public void backgroundTasksAreRun() {
+        backgroundTasks.forEach(Runnable::run);
+        backgroundTasks.clear();
+    }
+
+    @Then("{int} keys should have been deleted")
+    public void keysShouldHaveBeenDeleted(int count) {
+        CacheStatistics statistics = cacheWriter.getCacheStatistics("products");
+
+        assertThat(statistics.getDeletes())
+                .isEqualTo(count);
+    }
+
+    @Then("Redis should have received {int} UNLINK commands")
+    public void redisShouldHaveReceivedUnlinkCommands(int count) {
+        verify(keyCommands, times(count)).unlink(any(byte[][].class));
+    }
+
+    @Then("Redis should not have received KEYS or DEL commands")
+    public void redisShouldNotHaveReceivedKeysOrDelCommands() {
+        verify(keyCommands, never()).keys(any(byte[].class));
+        verify(keyCommands, never()).del(any(byte[][].class));
+    }
+
+    private void createCacheWriter(BatchStrategy batchStrategy) {
+        cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory, batchStrategy)
+                .withStatisticsCollector(CacheStatisticsCollector.create());
+    }
+
+}
@@ -0,0 +1,181 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.redis.cache.CacheLoadTopic;
+import guru.nicks.commons.redis.cache.SingleFlightCache;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.redisson.api.RBucket;
+import org.redisson.api.RFuture;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SingleFlightCacheSteps {
+
+    private static final String CACHE_NAME = "test-cache";
+
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RTopic topic;
+    @Mock
+    private RBucket<String> lease;
+    @Mock
+    private RFuture<Long> publishFuture;
+    @Captor
+    private ArgumentCaptor<MessageListener<String>> listenerCaptor;
+    private AutoCloseable closeableMocks;
+
+    private final AtomicInteger loaderCalls = new AtomicInteger();
+    private final List<CompletableFuture<Void>> loadSubscriptions = new ArrayList<>();
+    private CacheLoadTopic loadTopic;
+    private Cache targetCache;
+    private SingleFlightCache singleFlightCache;
+    private Object lastValue;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a single-flight cache with wait time of {int} ms")
+    public void aSingleFlightCacheWithWaitTimeOf(int waitTimeMillis) {
+        when(redissonClient.getTopic(anyString(), any(Codec.class)))
+                .thenReturn(topic);
+        when(topic.publishAsync(anyString()))
+                .thenReturn(publishFuture);
+        when(redissonClient.<String>getBucket(anyString(), any(Codec.class)))
+                .thenReturn(lease);
+
+        loadTopic = new CacheLoadTopic(redissonClient, "test-channel");
+        verify(topic).addListener(eq(String.class), listenerCaptor.capture());
+
+        targetCache = new ConcurrentMapCache(CACHE_NAME);
+        singleFlightCache = new SingleFlightCache(targetCache, redissonClient, "test-lease", Duration.ofSeconds(10),
+                Duration.ofMillis(waitTimeMillis), new DefaultConversionService(), loadTopic);
+    }
+
+    @Given("the cache lease is free")
+    public void theCacheLeaseIsFree() {
+        when(lease.setIfAbsent(anyString(), any(Duration.class)))
+                .thenReturn(true);
+    }
+
+    @Given("the cache lease is held by another node which loads {string} for key {string}")
+    public void theCacheLeaseIsHeldByAnotherNodeWhichLoadsForKey(String value, String key) {
+        // the other node finishes right after this node has failed to take the lease
+        when(lease.setIfAbsent(anyString(), any(Duration.class)))
+                .thenAnswer(invocation -> {
+                    targetCache.put(key, value);
+                    listenerCaptor.getValue().onMessage("test-channel", CACHE_NAME + "\n" + key);
+                    return false;
+                });
+    }
+
+    @Given("the cache lease is held by another node which never finishes")
+    public void theCacheLeaseIsHeldByAnotherNodeWhichNeverFinishes() {
+        when(lease.setIfAbsent(anyString(), any(Duration.class)))
+                .thenReturn(false);
+    }
+
+    @When("{int} local callers wait for the load of key {string}")
+    public void localCallersWaitForTheLoadOfKey(int callers, String key) {
+        for (int i = 0; i < callers; i++) {
+            loadSubscriptions.add(loadTopic.subscribe(CACHE_NAME, key));
+        }
+    }
+
+    @When("{int} of the local callers waiting for key {string} give up")
+    public void ofTheLocalCallersWaitingForKeyGiveUp(int callers, String key) {
+        for (int i = 0; i < callers; i++) {
+            loadTopic.unsubscribe(CACHE_NAME, key, loadSubscriptions.get(i));
+        }
+    }
+
+    @When("another node announces the load of key {string}")
+    public void anotherNodeAnnouncesTheLoadOfKey(String key) {
+        listenerCaptor.getValue().onMessage("test-channel", CACHE_NAME + "\n" + key);
+    }
+
+    @When("the single-flight cache is read for key {string} with a loader returning {string}")
+    public void theSingleFlightCacheIsReadForKeyWithALoaderReturning(String key, String value) {
+        lastValue = singleFlightCache.get(key, () -> {
+            loaderCalls.incrementAndGet();
+            return value;
+        });
+    }
+
+    @Then("the single-flight cache should return {string}")
+    public void theSingleFlightCacheShouldReturn(String expectedValue) {
+        assertThat(lastValue)
+                .as("cached value")
+                .isEqualTo(expectedValue);
+    }
+
+    @Then("the single-flight loader should have been called {int} times")
+    public void theSingleFlightLoaderShouldHaveBeenCalledTimes(int times) {
+        assertThat(loaderCalls.get())
+                .as("loader calls")
+                .isEqualTo(times);
+    }
+
+    @Then("the target cache should hold {string} for key {string}")
+    public void theTargetCacheShouldHoldForKey(String value, String key) {
+        assertThat(targetCache.get(key, String.class))
+                .isEqualTo(value);
+    }
+
+    @Then("the cache lease should have been released")
+    public void theCacheLeaseShouldHaveBeenReleased() {
+        verify(lease).compareAndSet(anyString(), isNull());
+    }
+
+    @Then("the last {int} local callers should have been woken up")
+    public void theLastLocalCallersShouldHaveBeenWokenUp(int callers) {
+        assertThat(loadSubscriptions.subList(loadSubscriptions.size() - callers, loadSubscriptions.size()))
+                .allMatch(CompletableFuture::isDone);
+    }
+
+    @Then("a new local caller waiting for key {string} should not be woken up")
+    public void aNewLocalCallerWaitingForKeyShouldNotBeWokenUp(String key) {
+        assertThat(loadTopic.subscribe(CACHE_NAME, key))
+                .isNotDone();
+    }
+
+    @Then("the load of key {string} should have been published")
+    public void theLoadOfKeyShouldHaveBeenPublished(String key) {
+        verify(topic).publishAsync(CACHE_NAME + "\n" + key);
+    }
+
+}
@@ -0,0 +1,137 @@
+package guru.nicks.commons.cucumber;
+
+import guru.nicks.commons.redis.cache.CacheInvalidationTopic;
+import guru.nicks.commons.redis.cache.TwoLevelCache;
+
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.redisson.api.RFuture;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.client.codec.Codec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TwoLevelCacheSteps {
+
+    private static final String CACHE_NAME = "test-cache";
+
+    @Mock
+    private Cache redisCache;
+    @Mock
+    private RedissonClient redissonClient;
+    @Mock
+    private RTopic topic;
+    @Mock
+    private RFuture<Long> publishFuture;
+    @Captor
+    private ArgumentCaptor<MessageListener<String>> listenerCaptor;
+    @Captor
+    private ArgumentCaptor<String> messageCaptor;
+    private AutoCloseable closeableMocks;
+
+    private TwoLevelCache twoLevelCache;
+    private Object lastValue;
+
+    @Before
+    public void beforeEachScenario() {
+        closeableMocks = MockitoAnnotations.openMocks(this);
+    }
+
+    @After
+    public void afterEachScenario() throws Exception {
+        closeableMocks.close();
+    }
+
+    @Given("a two-level cache in front of a Redis cache holding {string} for key {string}")
+    public void aTwoLevelCacheInFrontOfARedisCacheHolding(String value, String key) {
+        when(redisCache.getName())
+                .thenReturn(CACHE_NAME);
+        when(redisCache.get(key))
+                .thenReturn(new SimpleValueWrapper(value));
+        when(redissonClient.getTopic(anyString(), any(Codec.class)))
+                .thenReturn(topic);
+        when(topic.publishAsync(anyString()))
+                .thenReturn(publishFuture);
+
+        var invalidationTopic = new CacheInvalidationTopic(redissonClient, "test-channel");
+        verify(topic).addListener(eq(String.class), listenerCaptor.capture());
+
+        twoLevelCache = new TwoLevelCache(redisCache, 100, Duration.ofMinutes(1), new DefaultConversionService(),
+                invalidationTopic);
+    }
+
+    @When("the two-level cache is read for key {string}")
+    public void theTwoLevelCacheIsReadForKey(String key) {
+        Cache.ValueWrapper valueWrapper = twoLevelCache.get(key);
+        lastValue = (valueWrapper == null) ? null : valueWrapper.get();
+    }
+
+    @When("{string} is put into the two-level cache for key {string}")
+    public void isPutIntoTheTwoLevelCacheForKey(String value, String key) {
+        twoLevelCache.put(key, value);
+    }
+
+    @When("another node publishes an eviction of key {string}")
+    public void anotherNodePublishesAnEvictionOfKey(String key) {
+        listenerCaptor.getValue().onMessage("test-channel", "other-node\n" + CACHE_NAME + "\n" + key);
+    }
+
+    @When("this node's own eviction of key {string} is received back")
+    public void thisNodesOwnEvictionOfKeyIsReceivedBack(String key) {
+        // make the cache publish a message in order to learn this node's origin ID
+        twoLevelCache.put("other-key", "other-value");
+        verify(topic).publishAsync(messageCaptor.capture());
+        String originId = messageCaptor.getValue().split("\n")[0];
+
+        listenerCaptor.getValue().onMessage("test-channel", originId + "\n" + CACHE_NAME + "\n" + key);
+    }
+
+    @Then("the two-level cache should return {string}")
+    public void theTwoLevelCacheShouldReturn(String expectedValue) {
+        assertThat(lastValue)
+                .as("cached value")
+                .isEqualTo(expectedValue);
+    }
+
+    @Then("the Redis cache should have been read {int} times")
+    public void theRedisCacheShouldHaveBeenReadTimes(int times) {
+        verify(redisCache, times(times)).get("key1");
+    }
+
+    @Then("an eviction of key {string} should have been published")
+    public void anEvictionOfKeyShouldHaveBeenPublished(String key) {
+        verify(topic).publishAsync(messageCaptor.capture());
+
+        assertThat(messageCaptor.getValue())
+                .as("invalidation message")
+                .endsWith("\n" + CACHE_NAME + "\n" + key);
+    }
+
+    @Then("the two-level cache should return {string} for key {string} without reading Redis")
+    public void theTwoLevelCacheShouldReturnForKeyWithoutReadingRedis(String expectedValue, String key) {
+        theTwoLevelCacheIsReadForKey(key);
+        theTwoLevelCacheShouldReturn(expectedValue);
+        verify(redisCache, times(0)).get(key);
+    }
+
+}
@@ -11,12 +11,82 @@ Feature: Blocked Access Token Service
       | true      |
       | false     |
 
+  Scenario Outline: Check asynchronously if an access token is blocked
+    Given the access token is <isBlocked>
+    When 'isJwtBlockedAsync' is called for the access token
+    Then no exception should be thrown
+    And the result should be <isBlocked>
+    Examples:
+      | isBlocked |
+      | true      |
+      | false     |
+
+  Scenario Outline: Positive and negative answers are cached for different periods
+    Given the access token is <isBlocked>
+    And 'not blocked' answers are not cached in memory
+    When 'isBlocked' is called for the access token 2 times
+    Then no exception should be thrown
+    And the result should be <isBlocked>
+    And the blocked token storage should have been queried <queryCount> times
+    Examples:
+      | isBlocked | queryCount |
+      | true      | 1          |
+      | false     | 2          |
+
   Scenario: Block a valid JWT
     Given a valid access token with an expiration of 60 seconds
     When 'blockJwt' is called for the access token
     Then no exception should be thrown
     And the access token should be blocked with a TTL greater than 60 seconds
 
+  Scenario: Check many access tokens at once
+    Given access tokens "token-1,token-2,token-3" of which "token-2" is blocked
+    When 'areJwtsBlocked' is called for the access tokens
+    Then no exception should be thrown
+    And only access token "token-2" should be reported as blocked
+
+  Scenario: Background reloads are resolved in a single call by a dedicated thread
+    Given access tokens "token-1,token-2" of which "" is blocked
+    And 'not blocked' answers are refreshed in memory after 50 milliseconds in batches
+    When 'isBlocked' is called for each of the access tokens
+    And 100 milliseconds pass
+    And 'isBlocked' is called for each of the access tokens
+    Then no exception should be thrown
+    And the blocked token storage should have been asked about 2 access tokens at once by thread "blocked-jwt-refresh"
+
+  Scenario Outline: Key derivation uses the jti claim if present
+    Given an access token with jti "<jti>" issued by "https://issuer.example" which is blocked under key "<key>"
+    And the blocklist keys are derived from the jti claim
+    When 'isBlocked' is called for the access token
+    Then no exception should be thrown
+    And the result should be true
+    Examples:
+      | jti    | key                               |
+      | abc-1  | jti:https://issuer.example#abc-1  |
+      |        | (token checksum)                  |
+
+  Scenario: Negative Bloom filter answer skips Redis
+    Given the access token is true
+    And the Bloom filter does not contain the access token
+    When 'isBlocked' is called for the access token
+    Then no exception should be thrown
+    And the result should be false
+    And the blocked token storage should not have been queried
+
+  Scenario: Positive Bloom filter answer is confirmed by Redis
+    Given the access token is false
+    And the Bloom filter might contain the access token
+    When 'isBlocked' is called for the access token
+    Then no exception should be thrown
+    And the result should be false
+
+  Scenario: Blocked token is added to the Bloom filter
+    Given a valid access token with an expiration of 60 seconds
+    And the Bloom filter does not contain the access token
+    When 'blockJwt' is called for the access token
+    Then no exception should be thrown
+    And the access token should have been added to the Bloom filter
+
   Scenario Outline: Check if an access token belongs to a user
     Given a valid access token with subject "<subject>" and an expiration of 60 seconds
     And the user ID is "<userId>"
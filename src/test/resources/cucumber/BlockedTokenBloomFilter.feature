@@ -0,0 +1,62 @@
+#@disabled
+Feature: Blocked token Bloom filter
+
+  Background:
+    Given a Bloom filter for 1000 checksums with false positive rate 0.01, rotation period of 1 hours and refresh interval of 10 seconds
+
+  Scenario: Local copy not loaded yet means 'ask Redis'
+    Then the Bloom filter might contain checksum "never-added"
+
+  Scenario: Added checksums are found after refresh, others are not
+    When checksums "checksum-1,checksum-2,checksum-3" expiring in 30 minutes are added to the Bloom filter
+    And the Bloom filter local copy is loaded
+    Then the Bloom filter might contain checksums "checksum-1,checksum-2,checksum-3"
+    And the Bloom filter should definitely not contain checksums "checksum-4,checksum-5,other,some-token"
+
+  Scenario: Bit indexes are within the filter and read in Redis bit order
+    When checksums "checksum-1,checksum-2" expiring in 30 minutes are added to the Bloom filter
+    And the Bloom filter local copy is loaded
+    Then all Redis bits set should be below the Bloom filter bit count
+    And each checksum should have set the Bloom filter hash count of Redis bits
+    And the Bloom filter might contain checksums "checksum-1,checksum-2"
+
+  Scenario: No false negatives after rotation
+    When checksums "checksum-1,checksum-2" expiring in 150 minutes are added to the Bloom filter
+    And the Bloom filter local copy is loaded
+    And 2 hours pass
+    And the Bloom filter local copy is loaded
+    Then the Bloom filter might contain checksums "checksum-1,checksum-2"
+    And the Bloom filter should definitely not contain checksums "checksum-4,other"
+
+  Scenario: Checksums are not added to generations after token expiration
+    When checksums "checksum-1" expiring in 30 minutes are added to the Bloom filter
+    And 2 hours pass
+    And the Bloom filter local copy is loaded
+    Then the Bloom filter should definitely not contain checksums "checksum-1"
+
+  Scenario: Local copy is reloaded when the version has changed by more than one
+    Given checksums "checksum-1" expiring in 30 minutes are added to the Bloom filter
+    And the Bloom filter local copy is loaded
+    When checksums "checksum-2,checksum-3" expiring in 30 minutes are added to the Bloom filter
+    And 11 seconds pass
+    And the Bloom filter local copy is loaded
+    Then the Bloom filter might contain checksums "checksum-1,checksum-2,checksum-3"
+    And the Redis bitmap should have been downloaded 2 times
+
+  Scenario: Local copy is not downloaded again if the version is unchanged
+    Given checksums "checksum-1" expiring in 30 minutes are added to the Bloom filter
+    And the Bloom filter local copy is loaded
+    When 11 seconds pass
+    And the Bloom filter local copy is loaded
+    Then the Bloom filter might contain checksums "checksum-1"
+    And the Redis bitmap should have been downloaded 1 times
+
+  Scenario: Local copy is not reloaded before the refresh interval
+    Given the Bloom filter local copy is loaded
+    When checksums "checksum-1" expiring in 30 minutes are added to the Bloom filter
+    And 5 seconds pass
+    Then the Bloom filter should definitely not contain checksums "checksum-1"
+
+  Scenario: Filter too large for a Redis bitmap is rejected
+    When a Bloom filter for 1000000000 checksums with false positive rate 0.0000001 is created
+    Then the exception should be of type "IllegalArgumentException"
@@ -0,0 +1,26 @@
+#@disabled
+Feature: Bulk cache operations
+
+  Scenario: Hits are read with one MGET, misses are loaded at once and written in one pipeline
+    Given Redis cache holds values for keys "1,2"
+    When values are requested in bulk for keys "1,2,3,4" and the loader finds keys "3"
+    Then the bulk result should be "1=value1,2=value2,3=value3"
+    And the bulk loader should have been called once with keys "3,4"
+    And Redis should have been read with 1 MGET commands
+    And Redis should have been written in 1 pipelines
+    And Redis should hold "value3" for cache key "products::3" with TTL of 10 minutes
+
+  Scenario: Loader is not called if all keys are cached
+    Given Redis cache holds values for keys "1,2"
+    When values are requested in bulk for keys "2,1,2" and the loader finds keys ""
+    Then the bulk result should be "2=value2,1=value1"
+    And the bulk loader should not have been called
+    And Redis should have been read with 1 MGET commands
+    And Redis should have been written in 0 pipelines
+
+  Scenario: Caches not backed by Redis are processed key by key
+    Given in-memory cache holds values for keys "1"
+    When values are requested in bulk for keys "1,2" and the loader finds keys "2"
+    Then the bulk result should be "1=value1,2=value2"
+    And the bulk loader should have been called once with keys "2"
+    And Redis should have been read with 0 MGET commands
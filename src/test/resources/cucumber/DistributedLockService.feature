@@ -25,3 +25,90 @@ Feature: Distributed Lock Service
     And a lock that fails to be acquired
     When attempting to execute code with a failing lock
     Then an exception should be thrown
+
+  Scenario Outline: Lock mode is chosen by lock name pattern
+    Given a distributed lock service is available
+    And locks matching "<pattern>" use mode "<mode>"
+    When code is executed with lock name "<lockName>" in the configured mode
+    Then the code should be executed successfully
+    And no exception should be thrown
+    And a "<expectedMode>" lock should have been used
+    Examples:
+      | pattern  | mode     | lockName     | expectedMode |
+      | order-*  | NON_FAIR | order-123    | NON_FAIR     |
+      | order-*  | SPIN     | payment-123  | FAIR         |
+      | *        | SPIN     | payment-123  | SPIN         |
+
+  Scenario Outline: Lock is not acquired within the wait time
+    Given a distributed lock service is available
+    And the lock "busy-lock" is held by someone else
+    When code is executed with lock name "busy-lock" and wait time of 100 ms, fallback: <withFallback>
+    Then the code should not be executed
+    And the unlock method should not be called
+    And the fallback result should be <withFallback>
+    Examples:
+      | withFallback |
+      | true         |
+      | false        |
+
+  Scenario: Locally coalesced lock is owned by a synthetic node-wide owner
+    Given a distributed lock service is available
+    And local lock coalescing is enabled
+    When code is executed with lock name "coalesced-lock" and lock TTL of 1000 ms
+    Then the code should be executed successfully
+    And no exception should be thrown
+    And the Redis lock should have been acquired and released by the same synthetic owner
+
+  Scenario Outline: Lock metrics are tagged with lock name pattern
+    Given a distributed lock service with metrics for lock name patterns "<patterns>"
+    When code is executed with lock name "<lockName>" and lock TTL of 1000 ms
+    Then the code should be executed successfully
+    And no exception should be thrown
+    And lock hold time should have been recorded with lock tag "<tag>"
+    And no lock contention should have been counted with lock tag "<tag>"
+    Examples:
+      | patterns         | lockName   | tag     |
+      | order-*,user-*   | user-42    | user-*  |
+      | order-*          | payment-1  | other   |
+
+  Scenario: Contention and lease overrun are counted
+    Given a distributed lock service with metrics for lock name patterns "slow-*"
+    And the lock "slow-lock" is contended
+    And the code takes 50 ms
+    When code is executed with lock name "slow-lock" and lock TTL of 10 ms
+    Then the code should be executed successfully
+    And lock contention and lease overrun should have been counted with lock tag "slow-*"
+    And the lock should have been acquired with a single Redis call
+
+  Scenario Outline: Executing asynchronous code with exclusive lock
+    Given a distributed lock service is available
+    And the asynchronous code will fail: <codeFails>
+    When asynchronous code is executed with lock name "async-lock" and lock TTL of 1000 ms
+    Then the asynchronous result should be failed: <codeFails>
+    And the Redis lock should have been acquired and released by the same synthetic owner
+    Examples:
+      | codeFails |
+      | false     |
+      | true      |
+
+  Scenario: Nested locally coalesced lock of the same name doesn't release the Redis lock
+    Given a distributed lock service is available
+    And local lock coalescing is enabled
+    When code is executed with lock name "coalesced-lock" and lock TTL of 1000 ms, nested under the same lock
+    Then the code should be executed successfully
+    And no exception should be thrown
+    And the Redis lock should not have been released before the outermost code finished
+    And the Redis lock should have been acquired and released by the same synthetic owner
+
+  Scenario Outline: Locally coalesced lock is handed off to local waiters up to the limit
+    Given a distributed lock service is available
+    And local lock coalescing is enabled with at most <maxHandoffs> handoffs
+    And the Redis lease expires during handoffs: <leaseExpires>
+    When 3 threads execute code with lock name "coalesced-lock" concurrently, each holding the lock for 100 ms
+    Then the Redis lock should have been acquired <acquisitions> times, renewed <renewals> times, and released <releases> times
+    Examples:
+      | maxHandoffs | leaseExpires | acquisitions | renewals | releases |
+      | 8           | false        | 1            | 2        | 1        |
+      | 1           | false        | 2            | 1        | 2        |
+      | 0           | false        | 3            | 0        | 3        |
+      | 8           | true         | 3            | 0        | 1        |
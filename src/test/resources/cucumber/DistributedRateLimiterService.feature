@@ -0,0 +1,38 @@
+#@disabled
+Feature: Distributed Rate Limiter Service
+
+  Scenario Outline: Permits are leased from Redis in batches
+    Given a rate limiter "partner-api" with rate <rate> and lease size <leaseSize>
+    And Redis has <available> permits of rate limiter "partner-api"
+    When <attempts> permits are acquired one by one from rate limiter "partner-api"
+    Then no exception should be thrown
+    And <acquired> permits should have been acquired
+    And Redis should have been called <redisCalls> times
+    Examples:
+      | rate | leaseSize | available | attempts | acquired | redisCalls |
+      | 1000 | 100       | 1000      | 250      | 250      | 3          |
+      | 1000 | 100       | 150       | 250      | 150      | 2          |
+      | 1000 | 1         | 1000      | 5        | 5        | 5          |
+
+  Scenario: Unused permits are returned on shutdown
+    Given a rate limiter "partner-api" with rate 1000 and lease size 100
+    And Redis has 1000 permits of rate limiter "partner-api"
+    When 30 permits are acquired one by one from rate limiter "partner-api"
+    And the rate limiter service is shut down
+    Then Redis should have got 70 permits back
+
+  Scenario: Unknown rate limiter
+    Given a rate limiter "partner-api" with rate 1000 and lease size 100
+    When 1 permits are acquired one by one from rate limiter "unknown"
+    Then an exception should be thrown
+    And the exception should be of type "IllegalArgumentException"
+
+  Scenario Outline: Periods shorter than 1 millisecond are rejected
+    When a rate limiter "partner-api" with rate 1000 and period "<period>" is created
+    Then an exception should be thrown
+    And the exception should be of type "IllegalArgumentException"
+    Examples:
+      | period    |
+      | PT0S      |
+      | PT0.0005S |
+      | PT-1S     |
@@ -0,0 +1,19 @@
+#@disabled
+Feature: Key-based blocked token store
+
+  Scenario: Blocking writes a single key with a TTL
+    Given a key-based blocked token store with legacy fallback disabled
+    When checksum "abc" is blocked in the store for 120 seconds
+    Then key "blocked-jwt:abc" should have been set if absent with a TTL of 120 seconds
+
+  Scenario Outline: Lookup checks legacy keys only if fallback is enabled
+    Given a key-based blocked token store with legacy fallback <fallback>
+    And Redis holds <count> of keys <keys>
+    When checksum "abc" is looked up in the store
+    Then the store should answer <isBlocked>
+    Examples:
+      | fallback | keys                                      | count | isBlocked |
+      | enabled  | "blocked-jwt:abc,blocked-access-token:abc" | 1     | true      |
+      | enabled  | "blocked-jwt:abc,blocked-access-token:abc" | 0     | false     |
+      | disabled | "blocked-jwt:abc"                         | 1     | true      |
+      | disabled | "blocked-jwt:abc"                         | 0     | false     |
@@ -0,0 +1,47 @@
+#@disabled
+Feature: Redis cache metrics
+
+  Background:
+    Given metered Redis cache manager "cacheManager10Minutes" is created
+
+  Scenario: Statistics of caches created at runtime are published, tagged with cache manager and cache
+    When value "some value" is put into metered cache "products" for key "1"
+    And metered cache "products" is read for keys "1,1,2"
+    Then meter "cache.gets" of cache "products" tagged with "result=hit" should have count 2
+    And meter "cache.gets" of cache "products" tagged with "result=miss" should have count 1
+    And meter "cache.puts" of cache "products" tagged with "" should have count 1
+
+  Scenario: Round trip times are published
+    When value "some value" is put into metered cache "products" for key "1"
+    And metered cache "products" is read for keys "1,2,3"
+    Then meter "redis.cache.get.time" of cache "products" tagged with "result=hit" should have count 1
+    And meter "redis.cache.get.time" of cache "products" tagged with "result=miss" should have count 2
+    And meter "redis.cache.put.time" of cache "products" tagged with "" should have count 1
+
+  Scenario: Serialized value sizes and serialization times are published
+    When value "some value" is put into metered cache "products" for key "1"
+    And metered cache "products" is read for keys "1,1"
+    Then meter "redis.cache.value.size" of cache "products" tagged with "operation=serialize" should have count 1
+    And meter "redis.cache.value.size" of cache "products" tagged with "operation=deserialize" should have count 2
+    And meter "redis.cache.serialization.time" of cache "products" tagged with "operation=serialize" should have count 1
+    And meter "redis.cache.serialization.time" of cache "products" tagged with "operation=deserialize" should have count 2
+    And total of meter "redis.cache.value.size" of cache "products" tagged with "operation=serialize" should be positive
+    And histogram of "redis.cache.value.size" of cache "products" tagged with "operation=serialize" should count 1 values up to 1024 bytes
+    And histogram of "redis.cache.value.size" of cache "products" tagged with "operation=deserialize" should count 2 values up to 1048576 bytes
+
+  Scenario: Bulk lookups and write-backs are counted per key
+    When value "some value" is put into metered cache "products" for key "1"
+    And metered cache "products" is read in bulk for keys "1,2,3" and the loader finds keys "2"
+    Then meter "cache.gets" of cache "products" tagged with "result=hit" should have count 1
+    And meter "cache.gets" of cache "products" tagged with "result=miss" should have count 2
+    And meter "cache.puts" of cache "products" tagged with "" should have count 2
+    And meter "redis.cache.get.time" of cache "products" tagged with "result=hit" should have count 1
+    And meter "redis.cache.get.time" of cache "products" tagged with "result=miss" should have count 2
+    And meter "redis.cache.put.time" of cache "products" tagged with "" should have count 2
+
+  Scenario: Meters of different caches are separate
+    When value "some value" is put into metered cache "products" for key "1"
+    And metered cache "users" is read for keys "1"
+    Then meter "cache.puts" of cache "products" tagged with "" should have count 1
+    And meter "cache.puts" of cache "users" tagged with "" should have count 0
+    And meter "cache.gets" of cache "users" tagged with "result=miss" should have count 1
@@ -0,0 +1,70 @@
+#@disabled
+Feature: Redis serializer
+
+  Scenario Outline: Values written in any format are readable in any format
+    Given a Redis serializer writing in "<writeFormat>" format
+    And a Redis serializer reading in "<readFormat>" format
+    When a value is written and read back
+    Then no exception should be thrown
+    And the read value should be equal to the written one
+    And the written value should be plain JSON: <plainJson>
+    Examples:
+      | writeFormat | readFormat | plainJson |
+      | JSON        | JSON       | true      |
+      | JSON        | SMILE      | true      |
+      | SMILE       | SMILE      | false     |
+      | SMILE       | JSON       | false     |
+
+  Scenario: Native format requires native serializer
+    Given a Redis serializer writing in "NATIVE" format
+    Then an exception should be thrown
+    And the exception should be of type "IllegalStateException"
+
+  Scenario Outline: Large values are compressed and readable without compression enabled
+    Given a Redis serializer writing in "<format>" format with "<codec>" compression of values over 1024 bytes
+    And a Redis serializer reading in "JSON" format
+    When a value of <length> characters is written and read back
+    Then no exception should be thrown
+    And the read value should be equal to the written one
+    And the written value should be compressed: <compressed>
+    Examples:
+      | format | codec   | length | compressed |
+      | JSON   | LZ4     | 100    | false      |
+      | JSON   | LZ4     | 10000  | true       |
+      | JSON   | DEFLATE | 10000  | true       |
+      | SMILE  | LZ4     | 10000  | true       |
+
+  Scenario Outline: Registered classes are stored under type aliases
+    Given a Redis serializer writing in "<writeFormat>" format with type alias "sv" for the test value
+    And a Redis serializer reading in "<readFormat>" format with type alias "sv" for the test value
+    When a value is written and read back
+    Then no exception should be thrown
+    And the read value should be equal to the written one
+    And the written value should contain "SerializedValue": false
+    Examples:
+      | writeFormat | readFormat |
+      | JSON        | JSON       |
+      | SMILE       | JSON       |
+      | SMILE       | SMILE      |
+
+  Scenario: Class names written before type aliases were registered remain readable
+    Given a Redis serializer writing in "JSON" format
+    And a Redis serializer reading in "JSON" format with type alias "sv" for the test value
+    When a value is written and read back
+    Then no exception should be thrown
+    And the read value should be equal to the written one
+    And the written value should contain "SerializedValue": true
+
+  Scenario Outline: Redisson codec shares the format with the Redis serializer
+    Given a Redis serializer writing in "<format>" format with "LZ4" compression of values over 1024 bytes
+    And a Redis serializer reading in "<format>" format
+    When a value of <length> characters is written with the Redisson codec and read back
+    Then no exception should be thrown
+    And the read value should be equal to the written one
+    And the written value should be compressed: <compressed>
+    And the Redisson codec output should be readable by the Redis serializer
+    Examples:
+      | format | length | compressed |
+      | JSON   | 10     | false      |
+      | SMILE  | 10     | false      |
+      | JSON   | 10000  | true       |
@@ -0,0 +1,75 @@
+#@disabled
+Feature: Redis topology
+
+  Scenario Outline: Redisson connects to all the nodes of the topology
+    Given Redis topology "<topology>" with extra nodes "<nodes>" and read mode "<readMode>"
+    When Redisson is configured
+    Then no exception should be thrown
+    And Redisson should connect to <nodeCount> nodes of "<topology>" topology with read mode "<redissonReadMode>"
+    Examples:
+      | topology | nodes                   | readMode          | nodeCount | redissonReadMode |
+      | CLUSTER  | redis2:6379,redis3:6379 |                   | 3         | MASTER           |
+      | CLUSTER  | redis1:6379,redis2:6379 | REPLICA_PREFERRED | 2         | SLAVE            |
+      | SENTINEL | redis2:26379            | ANY               | 2         | MASTER_SLAVE     |
+
+  Scenario: Extra nodes are ignored for single server
+    Given Redis topology "SINGLE" with extra nodes "redis2:6379" and read mode "REPLICA_PREFERRED"
+    When Redisson is configured
+    Then no exception should be thrown
+    And Redisson should connect to single server "redis://redis1:6379"
+
+  Scenario: Sentinel master name is required
+    Given Redis topology "SENTINEL" with extra nodes "redis2:26379" and no sentinel master
+    When Redisson is configured
+    Then an exception should be thrown
+    And the exception should be of type "IllegalStateException"
+
+  Scenario Outline: Explicit tuning settings override preset ones
+    Given Redis topology "<topology>" with preset "<preset>", timeout <timeout> ms and connection pool size <poolSize>
+    When Redisson is configured
+    Then no exception should be thrown
+    And Redisson "<topology>" config should have timeout <expectedTimeout> ms and connection pool size <expectedPoolSize>
+    Examples:
+      | topology | preset          | timeout | poolSize | expectedTimeout | expectedPoolSize |
+      | SINGLE   | LOW_LATENCY     | 0       | 0        | 1000            | 64               |
+      | SINGLE   | LOW_LATENCY     | 250     | 16       | 250             | 16               |
+      | CLUSTER  | HIGH_THROUGHPUT | 0       | 0        | 10000           | 128              |
+      | SENTINEL |                 | 2000    | 32       | 2000            | 32               |
+
+  Scenario: Connection pool can't be smaller than its minimum idle size
+    Given Redis topology "SINGLE" with preset "", timeout 0 ms and connection pool size 1
+    And Redis connection minimum idle size is 2
+    When Redisson is configured
+    Then an exception should be thrown
+    And the exception should be of type "IllegalStateException"
+
+  Scenario Outline: Redisson connection factory is shared only if enabled
+    When the auto-configuration is loaded with shared connection factory "<sharedConnectionFactory>"
+    Then no exception should be thrown
+    And a primary Redisson connection factory should be registered: <registered>
+    Examples:
+      | sharedConnectionFactory | registered |
+      | true                    | true       |
+      | false                   | false      |
+      |                         | false      |
+
+  Scenario Outline: Durations Redisson can't take are rejected
+    Given Redis topology "SINGLE" with preset "", timeout 0 ms and connection pool size 0
+    And Redis command timeout is "<timeout>"
+    When Redisson is configured
+    Then an exception should be thrown
+    And the exception should be of type "IllegalStateException"
+    Examples:
+      | timeout   |
+      | PT-0.001S |
+      | P30D      |
+
+  Scenario Outline: Subscription connection pool can't be smaller than its minimum idle size
+    Given Redis topology "SINGLE" with preset "", timeout 0 ms and connection pool size 0
+    And Redis subscription connection pool size is <poolSize> and its minimum idle size is <minimumIdleSize>
+    When Redisson is configured
+    Then <outcome>
+    Examples:
+      | poolSize | minimumIdleSize | outcome                       |
+      | 2        | 2               | no exception should be thrown |
+      | 1        | 2               | an exception should be thrown |
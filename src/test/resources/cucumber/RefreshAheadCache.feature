@@ -0,0 +1,38 @@
+#@disabled
+Feature: Refresh-ahead cache
+
+  Scenario: Loaded values are stored with their compute cost and expiration date
+    Given a refresh-ahead cache with TTL of 10 minutes
+    When the refresh-ahead cache is read for key "key1" with a loader returning "value1"
+    Then the refresh-ahead cache should return "value1"
+    And the refresh-ahead loader should have been called 1 times
+    And the target cache should hold a refresh-ahead value "value1" for key "key1" expiring in 10 minutes
+
+  Scenario: Entries about to expire are refreshed in the background
+    Given a refresh-ahead cache with TTL of 10 minutes
+    And the target cache holds "old-value" for key "key1" expiring in 0 seconds
+    When the refresh-ahead cache is read for key "key1" with a loader returning "new-value"
+    Then the refresh-ahead cache should return "old-value"
+    And the refresh-ahead loader should have been called 1 times
+    And the target cache should hold a refresh-ahead value "new-value" for key "key1" expiring in 10 minutes
+
+  Scenario: Background refreshes update the near cache and are broadcast to other nodes
+    Given a refresh-ahead cache with TTL of 10 minutes
+    And a near cache in front of the refresh-ahead cache
+    And the target cache holds "old-value" for key "key1" expiring in 0 seconds
+    When the near cache is read for key "key1" with a loader returning "new-value"
+    Then the refresh-ahead cache should return "old-value"
+    And the refresh-ahead loader should have been called 1 times
+    And the near cache should hold "new-value" for key "key1"
+    And other nodes should have been told to evict key "key1"
+
+  Scenario: Fresh entries are not refreshed
+    Given a refresh-ahead cache with TTL of 10 minutes
+    And the target cache holds "old-value" for key "key1" expiring in 3600 seconds
+    When the refresh-ahead cache is read for key "key1" with a loader returning "new-value"
+    Then the refresh-ahead cache should return "old-value"
+    And the refresh-ahead loader should have been called 0 times
+
+  Scenario: TTL jitter spreads expirations
+    Given cache TTL of 10 minutes with jitter of 0.2
+    Then 100 generated TTLs should be between 8 and 10 minutes and not all the same
@@ -0,0 +1,41 @@
+#@disabled
+Feature: Repository-based blocked token store
+
+  Scenario: Bulk lookup checks all hash keys in one pipelined round trip
+    Given a repository-based blocked token store with Redisson
+    And Redis holds blocked token hashes for checksums "abc,ghi"
+    When checksums "abc,def,ghi" are looked up in bulk in the repository-based store
+    Then the repository-based store should answer "abc=true,def=false,ghi=true"
+    And Redis should have been asked for existence of keys "blocked-access-token:abc,blocked-access-token:def,blocked-access-token:ghi" in 1 batch
+    And the blocked token repository should not have been called
+
+  Scenario: Bulk lookup of no checksums doesn't go to Redis
+    Given a repository-based blocked token store with Redisson
+    When checksums "" are looked up in bulk in the repository-based store
+    Then the repository-based store should answer ""
+    And Redis should have been asked for existence of keys "" in 0 batch
+
+  Scenario: Without Redisson, bulk lookup calls the repository for each checksum
+    Given a repository-based blocked token store without Redisson
+    And Redis holds blocked token hashes for checksums "abc"
+    When checksums "abc,def" are looked up in bulk in the repository-based store
+    Then the repository-based store should answer "abc=true,def=false"
+    And Redis should have been asked for existence of keys "" in 0 batch
+
+  Scenario Outline: Asynchronous lookup checks the hash key via Redisson
+    Given a repository-based blocked token store with Redisson
+    And Redis holds blocked token hashes for checksums "abc"
+    When checksum "<checksum>" is looked up asynchronously in the repository-based store
+    Then the asynchronous answer of the repository-based store should be <blocked>
+    And Redis should have been asked for existence of keys "blocked-access-token:<checksum>" in 0 batch
+    And the blocked token repository should not have been called
+    Examples:
+      | checksum | blocked |
+      | abc      | true    |
+      | def      | false   |
+
+  Scenario: Asynchronous block saves the hash via the repository
+    Given a repository-based blocked token store with Redisson
+    When checksum "abc" is blocked asynchronously in the repository-based store for 120 seconds
+    Then the blocked token repository should have saved checksum "abc" with TTL of 120 seconds
+    And Redis should have been asked for existence of keys "" in 0 batch
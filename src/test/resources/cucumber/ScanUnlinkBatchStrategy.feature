@@ -0,0 +1,31 @@
+#@disabled
+Feature: Clearing caches with SCAN and UNLINK
+
+  Scenario Outline: Keys are scanned incrementally and unlinked in batches
+    Given Redis holds <key count> keys of cache "products"
+    And caches are cleared synchronously in batches of <batch size> keys
+    When cache "products" is cleared
+    Then <key count> keys should have been deleted
+    And Redis should have received <unlink count> UNLINK commands
+    And Redis should not have received KEYS or DEL commands
+
+    Examples:
+      | key count | batch size | unlink count |
+      | 5         | 2          | 3            |
+      | 4         | 2          | 2            |
+      | 1         | 1000       | 1            |
+      | 0         | 1000       | 0            |
+
+  Scenario: Caches are cleared in the background
+    Given Redis holds 5 keys of cache "products"
+    And caches are cleared asynchronously in batches of 2 keys
+    When cache "products" is cleared
+    Then 0 keys should have been deleted
+    And Redis should have received 0 UNLINK commands
+    When background tasks are run
+    Then Redis should have received 3 UNLINK commands
+    And Redis should not have received KEYS or DEL commands
+
+  Scenario: Batch size must be positive
+    When caches are cleared synchronously in batches of 0 keys
+    Then the exception should be of type "IllegalArgumentException"
@@ -0,0 +1,40 @@
+#@disabled
+Feature: Single-flight cache
+
+  Scenario: Lease holder loads the entry and wakes up the others
+    Given a single-flight cache with wait time of 1000 ms
+    And the cache lease is free
+    When the single-flight cache is read for key "key1" with a loader returning "value1"
+    Then the single-flight cache should return "value1"
+    And the single-flight loader should have been called 1 times
+    And the target cache should hold "value1" for key "key1"
+    And the cache lease should have been released
+    And the load of key "key1" should have been published
+
+  Scenario: Callers not holding the lease wait for the lease holder
+    Given a single-flight cache with wait time of 1000 ms
+    And the cache lease is held by another node which loads "value2" for key "key1"
+    When the single-flight cache is read for key "key1" with a loader returning "value1"
+    Then the single-flight cache should return "value2"
+    And the single-flight loader should have been called 0 times
+
+  Scenario: Callers load the entry themselves if the lease holder is too slow
+    Given a single-flight cache with wait time of 100 ms
+    And the cache lease is held by another node which never finishes
+    When the single-flight cache is read for key "key1" with a loader returning "value1"
+    Then the single-flight cache should return "value1"
+    And the single-flight loader should have been called 1 times
+    And the target cache should hold "value1" for key "key1"
+
+  Scenario: Local callers which give up don't stop the others from waiting
+    Given a single-flight cache with wait time of 1000 ms
+    When 3 local callers wait for the load of key "key1"
+    And 1 of the local callers waiting for key "key1" give up
+    And another node announces the load of key "key1"
+    Then the last 2 local callers should have been woken up
+
+  Scenario: Subscription doesn't linger after all local callers give up
+    Given a single-flight cache with wait time of 1000 ms
+    When 2 local callers wait for the load of key "key1"
+    And 2 of the local callers waiting for key "key1" give up
+    Then a new local caller waiting for key "key1" should not be woken up
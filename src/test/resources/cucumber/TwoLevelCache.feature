@@ -0,0 +1,29 @@
+#@disabled
+Feature: Two-level cache
+
+  Scenario: Repeated reads are served from the local cache
+    Given a two-level cache in front of a Redis cache holding "value1" for key "key1"
+    When the two-level cache is read for key "key1"
+    And the two-level cache is read for key "key1"
+    Then the two-level cache should return "value1"
+    And the Redis cache should have been read 1 times
+
+  Scenario: Put is broadcast to other nodes
+    Given a two-level cache in front of a Redis cache holding "value1" for key "key1"
+    When "value2" is put into the two-level cache for key "key2"
+    Then an eviction of key "key2" should have been published
+    And the two-level cache should return "value2" for key "key2" without reading Redis
+
+  Scenario: Eviction published by another node drops the local copy
+    Given a two-level cache in front of a Redis cache holding "value1" for key "key1"
+    When the two-level cache is read for key "key1"
+    And another node publishes an eviction of key "key1"
+    And the two-level cache is read for key "key1"
+    Then the Redis cache should have been read 2 times
+
+  Scenario: Eviction published by this node is ignored when received back
+    Given a two-level cache in front of a Redis cache holding "value1" for key "key1"
+    When the two-level cache is read for key "key1"
+    And this node's own eviction of key "key1" is received back
+    And the two-level cache is read for key "key1"
+    Then the Redis cache should have been read 1 times